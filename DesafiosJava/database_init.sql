@@ -5,7 +5,7 @@
 
 -- Conectar ao banco farmacia_db antes de executar os comandos abaixo
 
--- As tabelas serão criadas automaticamente pelo Hibernate (ddl-auto=update)
+-- As tabelas são criadas automaticamente pelas migrations do Flyway (src/main/resources/db/migration)
 -- Este script apenas demonstra a estrutura esperada
 
 -- Inserir usuário padrão (senha: admin123)
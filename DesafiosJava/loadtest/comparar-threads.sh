@@ -0,0 +1,64 @@
+#!/bin/bash
+# Compara threads de plataforma (padrão) e o perfil virtual-threads com o mesmo teste de carga.
+# Requer k6, jq, curl e o PostgreSQL configurado em application.properties.
+#
+#   ./loadtest/comparar-threads.sh            # 1000 clientes, 2 minutos por cenário
+#   VUS=500 DURACAO=1m ./loadtest/comparar-threads.sh
+#
+# Para números confiáveis, rode o k6 em outra máquina (BASE_URL) e o banco fora do servidor da aplicação.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+PORTA=${PORTA:-8080}
+BASE_URL=${BASE_URL:-http://localhost:$PORTA}
+RESULTADOS=${RESULTADOS:-target/loadtest}
+mkdir -p "$RESULTADOS"
+
+./mvnw -q -DskipTests package
+JAR=$(ls target/DesafiosJava-*.jar | grep -v plain | head -1)
+
+executar() {
+    local modo=$1 perfil=$2
+    echo "==> $modo"
+    java -jar "$JAR" --server.port="$PORTA" ${perfil:+--spring.profiles.active=$perfil} > "$RESULTADOS/app-$modo.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null" EXIT
+
+    until curl -sf "$BASE_URL/v3/api-docs" > /dev/null; do
+        kill -0 $pid 2>/dev/null || { echo "A aplicação não subiu; veja $RESULTADOS/app-$modo.log"; exit 1; }
+        sleep 2
+    done
+
+    # Os thresholds do script só servem para separar as métricas por cenário: não interrompem a comparação
+    k6 run --quiet -e BASE_URL="$BASE_URL" -e VUS="${VUS:-1000}" -e DURACAO="${DURACAO:-2m}" \
+        --summary-export "$RESULTADOS/resumo-$modo.json" loadtest/medicamentos-vendas.js || true
+
+    kill $pid
+    wait $pid 2>/dev/null || true
+    trap - EXIT
+}
+
+executar plataforma ""
+executar virtual virtual-threads
+
+# A taxa do resumo do k6 divide pelo tempo total do teste; aqui a vazão é por cenário
+DURACAO=${DURACAO:-2m}
+case $DURACAO in
+    *h) SEGUNDOS=$(( ${DURACAO%h} * 3600 )) ;;
+    *m) SEGUNDOS=$(( ${DURACAO%m} * 60 )) ;;
+    *s) SEGUNDOS=${DURACAO%s} ;;
+esac
+
+printf '\n%-12s %-22s %12s %12s %10s\n' "modo" "cenário" "req/s" "p99 (ms)" "falhas"
+for modo in plataforma virtual; do
+    for cenario in listar_medicamentos criar_vendas; do
+        jq -r --arg m "$modo" --arg c "$cenario" --argjson s "$SEGUNDOS" '
+            .metrics as $x
+            | [$m, $c,
+               ($x["http_reqs{scenario:" + $c + "}"].count / $s),
+               ($x["http_req_duration{scenario:" + $c + "}"]["p(99)"]),
+               ($x["http_req_failed{scenario:" + $c + "}"].value * 100)]
+            | "\(.[0])\t\(.[1])\t\(.[2])\t\(.[3])\t\(.[4])"' "$RESULTADOS/resumo-$modo.json" \
+        | awk -F'\t' '{ printf "%-12s %-22s %12.1f %12.1f %9.2f%%\n", $1, $2, $3, $4, $5 }'
+    done
+done
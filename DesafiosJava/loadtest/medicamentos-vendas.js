@@ -0,0 +1,109 @@
+// Teste de carga: GET /medicamentos e POST /vendas com VUS clientes simultâneos (padrão 1000).
+// Os dois cenários rodam um depois do outro, cada um por DURACAO.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 loadtest/medicamentos-vendas.js
+//
+// O setup cria uma categoria, MEDICAMENTOS medicamentos com estoque e um cliente; as vendas
+// escolhem um medicamento ao acaso para não serializar todas no resumo de estoque do mesmo item.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = Number(__ENV.VUS || 1000);
+const DURACAO = __ENV.DURACAO || '2m';
+const MEDICAMENTOS = Number(__ENV.MEDICAMENTOS || 50);
+const USUARIO = __ENV.USUARIO || 'admin@farmacia.com';
+const SENHA = __ENV.SENHA || 'admin123';
+
+export const options = {
+    setupTimeout: '5m',
+    scenarios: {
+        listar_medicamentos: {
+            executor: 'constant-vus',
+            exec: 'listarMedicamentos',
+            vus: VUS,
+            duration: DURACAO,
+        },
+        criar_vendas: {
+            executor: 'constant-vus',
+            exec: 'criarVenda',
+            vus: VUS,
+            duration: DURACAO,
+            // Começa depois do primeiro cenário e de uma pausa para as conexões drenarem
+            startTime: somarSegundos(DURACAO, 15),
+        },
+    },
+    // Os thresholds por cenário fazem o k6 separar as métricas (e exportá-las no resumo)
+    thresholds: {
+        'http_req_duration{scenario:listar_medicamentos}': ['p(99)<5000'],
+        'http_req_duration{scenario:criar_vendas}': ['p(99)<5000'],
+        'http_req_failed{scenario:listar_medicamentos}': ['rate<0.01'],
+        'http_req_failed{scenario:criar_vendas}': ['rate<0.01'],
+        'http_reqs{scenario:listar_medicamentos}': ['count>0'],
+        'http_reqs{scenario:criar_vendas}': ['count>0'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const login = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ username: USUARIO, senha: SENHA }), json());
+    check(login, { 'login 200': (r) => r.status === 200 });
+    const params = json(login.json('token'));
+    const sufixo = Date.now();
+
+    const categoria = http.post(`${BASE_URL}/categorias`, JSON.stringify({ nome: `Carga ${sufixo}` }), params).json('id');
+
+    const medicamentoIds = [];
+    for (let i = 0; i < MEDICAMENTOS; i++) {
+        const medicamento = http.post(`${BASE_URL}/medicamentos`, JSON.stringify({
+            nome: `Carga ${sufixo} ${i}`, dosagem: '500mg', preco: 9.9, categoriaId: categoria,
+        }), params).json('id');
+        http.post(`${BASE_URL}/estoque/entrada`, JSON.stringify({
+            medicamentoId: medicamento, quantidade: 1000000, dataVencimento: daquiADias(365), observacao: `CARGA-${sufixo}-${i}`,
+        }), params);
+        medicamentoIds.push(medicamento);
+    }
+
+    const numero = String(sufixo % 100000000000).padStart(11, '0');
+    const cliente = http.post(`${BASE_URL}/clientes`, JSON.stringify({
+        nomeCompleto: 'Cliente Carga',
+        cpf: `${numero.slice(0, 3)}.${numero.slice(3, 6)}.${numero.slice(6, 9)}-${numero.slice(9)}`,
+        email: `carga${sufixo}@farmacia.com`,
+        dataNascimento: '1990-01-01',
+    }), params).json('id');
+
+    return { token: login.json('token'), medicamentoIds, cliente };
+}
+
+export function listarMedicamentos(dados) {
+    const resposta = http.get(`${BASE_URL}/medicamentos`, json(dados.token));
+    check(resposta, { 'listagem 200': (r) => r.status === 200 });
+}
+
+export function criarVenda(dados) {
+    const medicamentoId = dados.medicamentoIds[Math.floor(Math.random() * dados.medicamentoIds.length)];
+    const resposta = http.post(`${BASE_URL}/vendas`, JSON.stringify({
+        clienteId: dados.cliente,
+        itens: [{ medicamentoId, quantidade: 1 }],
+    }), json(dados.token));
+    check(resposta, { 'venda 201': (r) => r.status === 201 });
+}
+
+function json(token) {
+    const headers = { 'Content-Type': 'application/json' };
+    if (token) {
+        headers.Authorization = `Bearer ${token}`;
+    }
+    return { headers };
+}
+
+function daquiADias(dias) {
+    return new Date(Date.now() + dias * 86400000).toISOString().slice(0, 10);
+}
+
+// Aceita durações simples do k6 ('90s', '2m', '1h')
+function somarSegundos(duracao, segundos) {
+    const unidades = { s: 1, m: 60, h: 3600 };
+    const valor = Number(duracao.slice(0, -1)) * unidades[duracao.slice(-1)];
+    return `${valor + segundos}s`;
+}
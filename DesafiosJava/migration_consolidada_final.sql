@@ -234,8 +234,10 @@ LIMIT 10;
 -- ============================================================================
 -- INSTRUÇÕES DE USO
 -- ============================================================================
+-- 0. Necessário apenas em bancos criados antes das migrations do Flyway; bancos novos
+--    recebem o schema completo de src/main/resources/db/migration
 -- 1. Execute este script APÓS criar o banco de dados e ANTES de iniciar a aplicação
--- 2. O Hibernate (ddl-auto=update) irá criar as tabelas base
+-- 2. As tabelas base foram criadas pelo Hibernate (antigo ddl-auto=update)
 -- 3. Este script adiciona as colunas e constraints necessárias
 -- 4. Todos os comandos são idempotentes (podem ser executados múltiplas vezes)
 -- ============================================================================
@@ -0,0 +1,40 @@
+-- ============================================================================
+-- MIGRATION - IDs POR SEQUENCE (alocação em blocos)
+-- Descrição: As entidades passam de IDENTITY para SEQUENCE com allocationSize 50
+--            (otimizador pooled-lo), o que permite ao Hibernate agrupar INSERTs
+--            em batches JDBC. Cada nextval reserva os ids [valor, valor + 49].
+-- ============================================================================
+-- Executar com a aplicação PARADA (instâncias em execução guardam blocos de ids
+-- já reservados). Idempotente: pode ser executado mais de uma vez.
+-- ============================================================================
+
+DO $$
+DECLARE
+    tabela TEXT;
+    sequencia TEXT;
+    proximo BIGINT;
+BEGIN
+    FOREACH tabela IN ARRAY ARRAY[
+        'categorias', 'medicamentos', 'estoque', 'movimentacoes_estoque',
+        'clientes', 'vendas', 'itens_venda', 'usuarios'
+    ]
+    LOOP
+        sequencia := tabela || '_seq';
+
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', sequencia);
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', sequencia);
+
+        -- O id deixa de ser gerado pelo banco
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tabela);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', tabela);
+
+        -- Próximo bloco começa depois do maior id existente e de qualquer bloco já entregue pela sequence
+        EXECUTE format(
+            'SELECT GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM %I),
+                             (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM %I))',
+            tabela, sequencia) INTO proximo;
+        PERFORM setval(sequencia, proximo, false);
+
+        RAISE NOTICE 'Sequence %: próximo id %', sequencia, proximo;
+    END LOOP;
+END $$;
@@ -0,0 +1,87 @@
+package com.farmacia.desafiosjava.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão e verificação de tokens, executadas no login e em toda requisição autenticada.
+ *
+ * <p>{@code verificarLegado} reproduz a validação anterior (chave e parser recriados e três
+ * parses por requisição: username, expiração e validação) como base de comparação.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SEGREDO = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final String USUARIO = "admin@farmacia.com";
+
+    private JwtUtil comCache;
+    private JwtUtil semCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        comCache = criar(10_000);
+        semCache = criar(0);
+        token = comCache.generateToken(USUARIO, List.of("ROLE_ADMIN"));
+    }
+
+    @Benchmark
+    public String gerar() {
+        return comCache.generateToken(USUARIO, List.of("ROLE_ADMIN"));
+    }
+
+    @Benchmark
+    public JwtUtil.TokenVerificado verificarComCache() {
+        return comCache.verificar(token);
+    }
+
+    @Benchmark
+    public JwtUtil.TokenVerificado verificarSemCache() {
+        return semCache.verificar(token);
+    }
+
+    @Benchmark
+    public boolean verificarLegado() {
+        String username = extrairClaims(token).getSubject();
+        Date expiracao = extrairClaims(token).getExpiration();
+        return username.equals(extrairClaims(token).getSubject()) && !expiracao.before(new Date());
+    }
+
+    private static Claims extrairClaims(String token) {
+        SecretKey chave = Keys.hmacShaKeyFor(SEGREDO.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(chave).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static JwtUtil criar(long tamanhoCache) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SEGREDO);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtUtil, "tamanhoCacheVerificados", tamanhoCache);
+        jwtUtil.inicializar();
+        return jwtUtil;
+    }
+}
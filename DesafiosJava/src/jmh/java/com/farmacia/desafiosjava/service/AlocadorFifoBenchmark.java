@@ -0,0 +1,74 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Estoque;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alocação FIFO em memória sobre os lotes de um medicamento, sem banco.
+ *
+ * <p>O pedido consome metade dos lotes; as quantidades são restauradas dentro do próprio
+ * benchmark (custo linear e pequeno perto da alocação) para que toda invocação veja o mesmo estoque.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlocadorFifoBenchmark {
+
+    private static final int QUANTIDADE_POR_LOTE = 20;
+
+    @Param({"1", "10", "100"})
+    private int lotes;
+
+    private List<Estoque> estoque;
+    private LocalDate hoje;
+    private int pedido;
+
+    @Setup
+    public void setUp() {
+        hoje = LocalDate.now();
+        Medicamento medicamento = new Medicamento();
+        medicamento.setId(1L);
+
+        estoque = new ArrayList<>(lotes);
+        for (int i = 0; i < lotes; i++) {
+            Estoque lote = new Estoque();
+            lote.setId((long) i);
+            lote.setMedicamento(medicamento);
+            lote.setNumeroLote("LOTE-" + i);
+            lote.setQuantidadeDisponivel(QUANTIDADE_POR_LOTE);
+            lote.setDataVencimento(hoje.plusDays(30 + i));
+            estoque.add(lote);
+        }
+        pedido = Math.max(1, lotes * QUANTIDADE_POR_LOTE / 2);
+    }
+
+    @Benchmark
+    public List<Estoque> alocar() {
+        for (Estoque lote : estoque) {
+            lote.setQuantidadeDisponivel(QUANTIDADE_POR_LOTE);
+        }
+        if (AlocadorFifo.possuiVencidos(estoque, hoje) || AlocadorFifo.quantidadeNaoVencida(estoque, hoje) < pedido) {
+            throw new IllegalStateException("Estoque do benchmark inconsistente");
+        }
+        return AlocadorFifo.alocar(estoque, pedido, lote -> !lote.getDataVencimento().isBefore(hoje));
+    }
+}
@@ -0,0 +1,92 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.VendaRequestDTO;
+import com.farmacia.desafiosjava.dto.VendaResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Venda completa ({@link VendaService#criar}) com o contexto Spring real sobre o H2 em modo PostgreSQL
+ * do perfil de testes: cliente, catálogo, travamento e baixa FIFO dos lotes, resumo de estoque e gravação.
+ *
+ * <p>Mede a distribuição de latência (p50/p99 no relatório do SampleTime) por tamanho de carrinho
+ * e imprime ao final de cada iteração a média de comandos SQL e INSERTs por venda, lida das
+ * estatísticas do Hibernate.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    // Suficiente para que nenhuma iteração esgote os lotes
+    private static final int QUANTIDADE_POR_LOTE = 10_000_000;
+
+    @Param({"1", "10", "30"})
+    private int itensNoCarrinho;
+
+    private ContextoBenchmark contexto;
+    private VendaService vendaService;
+    private VendaRequestDTO requisicao;
+    private long vendas;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar();
+        vendaService = contexto.bean(VendaService.class);
+
+        DadosTeste dados = contexto.dados();
+        Cliente cliente = dados.criarCliente();
+        List<Medicamento> medicamentos = new ArrayList<>(itensNoCarrinho);
+        for (int i = 0; i < itensNoCarrinho; i++) {
+            Medicamento medicamento = dados.criarMedicamento();
+            // Dois lotes por medicamento: o FIFO sempre consome o de vencimento mais próximo
+            dados.criarLote(medicamento, QUANTIDADE_POR_LOTE, LocalDate.now().plusDays(30));
+            dados.criarLote(medicamento, QUANTIDADE_POR_LOTE, LocalDate.now().plusDays(90));
+            medicamentos.add(medicamento);
+        }
+        requisicao = DadosTeste.requisicao(cliente, medicamentos, 1);
+    }
+
+    @Setup(Level.Iteration)
+    public void zerarEstatisticas() {
+        contexto.zerarEstatisticas();
+        vendas = 0;
+    }
+
+    @Benchmark
+    public VendaResponseDTO criarVenda() {
+        vendas++;
+        return vendaService.criar(requisicao);
+    }
+
+    @TearDown(Level.Iteration)
+    public void relatarComandos() {
+        contexto.relatar(itensNoCarrinho + " itens", vendas);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+}
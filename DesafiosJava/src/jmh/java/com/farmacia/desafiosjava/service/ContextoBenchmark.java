@@ -0,0 +1,66 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.DesafiosJavaApplication;
+import com.farmacia.desafiosjava.repository.CategoriaRepository;
+import com.farmacia.desafiosjava.repository.ClienteRepository;
+import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import com.farmacia.desafiosjava.repository.MedicamentoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Contexto Spring completo (sem servidor web) sobre o H2 em modo PostgreSQL do perfil de testes,
+ * para os benchmarks que passam pelos serviços e pelo banco.
+ */
+final class ContextoBenchmark implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final Statistics statistics;
+
+    private ContextoBenchmark(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    static ContextoBenchmark iniciar() {
+        SpringApplication aplicacao = new SpringApplication(DesafiosJavaApplication.class);
+        aplicacao.setWebApplicationType(WebApplicationType.NONE);
+        aplicacao.setAdditionalProfiles("test");
+        return new ContextoBenchmark(aplicacao.run("--logging.level.root=WARN", "--logging.level.com.farmacia.desafiosjava=WARN"));
+    }
+
+    <T> T bean(Class<T> tipo) {
+        return context.getBean(tipo);
+    }
+
+    DadosTeste dados() {
+        return new DadosTeste(bean(ClienteRepository.class), bean(MedicamentoRepository.class), bean(EstoqueRepository.class),
+                bean(CategoriaRepository.class));
+    }
+
+    void zerarEstatisticas() {
+        statistics.clear();
+    }
+
+    /**
+     * Imprime a média de comandos SQL preparados e de linhas inseridas por operação desde o último
+     * {@link #zerarEstatisticas()}.
+     */
+    void relatar(String rotulo, long operacoes) {
+        if (operacoes > 0) {
+            System.out.printf("  [%s] %d operações: %.1f comandos SQL e %.1f INSERTs por operação%n",
+                    rotulo, operacoes,
+                    (double) statistics.getPrepareStatementCount() / operacoes,
+                    (double) statistics.getEntityInsertCount() / operacoes);
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.EstoqueResponseDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueRequestDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrada de estoque ({@link EstoqueService#registrarEntrada}): um lote e uma movimentação gravados
+ * por operação. A vazão em ops/s multiplicada pelos INSERTs por operação impressos ao fim de cada
+ * iteração dá as linhas inseridas por segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntradaEstoqueBenchmark {
+
+    private ContextoBenchmark contexto;
+    private EstoqueService estoqueService;
+    private Medicamento medicamento;
+    private LocalDate vencimento;
+    private long entradas;
+    private long lote;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar();
+        estoqueService = contexto.bean(EstoqueService.class);
+        medicamento = contexto.dados().criarMedicamento();
+        vencimento = LocalDate.now().plusYears(1);
+    }
+
+    @Setup(Level.Iteration)
+    public void zerarEstatisticas() {
+        contexto.zerarEstatisticas();
+        entradas = 0;
+    }
+
+    @Benchmark
+    public EstoqueResponseDTO registrarEntrada() {
+        entradas++;
+        // O número do lote vem da observação e precisa ser único por medicamento
+        MovimentacaoEstoqueRequestDTO request = new MovimentacaoEstoqueRequestDTO(
+                medicamento.getId(), 10, vencimento, "LOTE-BENCH-" + ++lote);
+        return estoqueService.registrarEntrada(request);
+    }
+
+    @TearDown(Level.Iteration)
+    public void relatarComandos() {
+        contexto.relatar("entrada", entradas);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.ItemVenda;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.domain.Venda;
+import com.farmacia.desafiosjava.dto.VendaResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partes da venda que rodam só em memória: cálculo do total pelos subtotais dos itens
+ * e montagem da resposta em {@link VendaService#toResponseDTO(Venda)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VendaMapeamentoBenchmark {
+
+    @Param({"1", "10", "30"})
+    private int itens;
+
+    private Venda venda;
+
+    @Setup
+    public void setUp() {
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        cliente.setNomeCompleto("Cliente Benchmark");
+        cliente.setCpf("123.456.789-00");
+        cliente.setEmail("cliente@farmacia.com");
+        cliente.setDataNascimento(LocalDate.of(1990, 1, 1));
+
+        venda = new Venda();
+        venda.setId(1L);
+        venda.setCliente(cliente);
+        venda.setDataHora(LocalDateTime.now());
+        venda.setItensVenda(new ArrayList<>(itens));
+
+        for (int i = 0; i < itens; i++) {
+            Medicamento medicamento = new Medicamento();
+            medicamento.setId((long) i);
+            medicamento.setNome("Medicamento " + i);
+            medicamento.setPreco(new BigDecimal("12.50").add(BigDecimal.valueOf(i)));
+
+            ItemVenda item = new ItemVenda();
+            item.setId((long) i);
+            item.setVenda(venda);
+            item.setMedicamento(medicamento);
+            item.setQuantidade(1 + i % 3);
+            item.setPrecoUnitario(medicamento.getPreco());
+            venda.getItensVenda().add(item);
+        }
+        venda.setValorTotal(valorTotal());
+    }
+
+    @Benchmark
+    public BigDecimal valorTotal() {
+        BigDecimal valorTotal = BigDecimal.ZERO;
+        for (ItemVenda item : venda.getItensVenda()) {
+            valorTotal = valorTotal.add(item.getSubtotal());
+        }
+        return valorTotal;
+    }
+
+    @Benchmark
+    public VendaResponseDTO toResponseDTO() {
+        return VendaService.toResponseDTO(venda);
+    }
+}
@@ -0,0 +1,54 @@
+package com.farmacia.desafiosjava.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalização de nomes de medicamentos e categorias, executada a cada cadastro e busca por nome.
+ *
+ * <p>{@code normalizeStringLegado} é a implementação anterior (trim, toLowerCase, NFD e dois
+ * {@code replaceAll}), mantida como base de comparação.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilsBenchmark {
+
+    @Param({
+            "paracetamol",                     // caso mais comum: já normalizado
+            "Dipirona Sódica",                 // maiúscula e acento
+            "  Ácido   Acetilsalicílico  ",    // espaços extras e vários acentos
+            "Analgésicos e Antitérmicos Infantis - Solução Oral Gotas",
+            "Ibuprofeno Στόμα"                 // fora da tabela: caminho completo
+    })
+    private String entrada;
+
+    @Benchmark
+    public String normalizeString() {
+        return StringUtils.normalizeString(entrada);
+    }
+
+    @Benchmark
+    public String normalizeStringLegado() {
+        String normalized = entrada.trim();
+        normalized = normalized.toLowerCase();
+        normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD);
+        normalized = normalized.replaceAll("\\p{M}", "");
+        normalized = normalized.replaceAll("\\s+", " ");
+        return normalized;
+    }
+}
@@ -0,0 +1,12 @@
+package com.farmacia.desafiosjava.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as rotinas agendadas ({@code @Scheduled}), como a manutenção das partições de movimentações.
+ */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfig {
+}
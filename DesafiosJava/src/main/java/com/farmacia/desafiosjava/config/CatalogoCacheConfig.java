@@ -0,0 +1,63 @@
+package com.farmacia.desafiosjava.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de 2º nível do Hibernate para o catálogo (medicamentos e categorias), em memória com Caffeine.
+ *
+ * <p>As entidades são invalidadas pelo próprio Hibernate a cada INSERT/UPDATE/DELETE commitado;
+ * o TTL limita quanto tempo uma alteração feita por fora da aplicação pode ficar invisível.
+ * Acertos, falhas e remoções de cada região são publicados no Micrometer como cache.* {cache=&lt;região&gt;},
+ * a partir das estatísticas JCache.</p>
+ */
+@Configuration
+public class CatalogoCacheConfig {
+
+    public static final String REGIAO_MEDICAMENTOS = "medicamentos";
+    public static final String REGIAO_CATEGORIAS = "categorias";
+
+    @Value("${catalogo.cache.tamanho-maximo:10000}")
+    private long tamanhoMaximo;
+
+    @Value("${catalogo.cache.ttl-minutos:30}")
+    private long ttlMinutos;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager catalogoCacheManager(MeterRegistry meterRegistry) {
+        // URI própria por contexto: o CacheManager padrão do provider é compartilhado pela JVM inteira
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:farmacia:catalogo:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(REGIAO_MEDICAMENTOS, configuracaoRegiao()));
+        JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(REGIAO_CATEGORIAS, configuracaoRegiao()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer catalogoCacheHibernateCustomizer(CacheManager catalogoCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, catalogoCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> configuracaoRegiao() {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+        configuracao.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutos)));
+        configuracao.setStatisticsEnabled(true);
+        return configuracao;
+    }
+}
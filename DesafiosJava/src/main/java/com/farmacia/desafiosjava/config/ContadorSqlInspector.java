@@ -0,0 +1,32 @@
+package com.farmacia.desafiosjava.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread atual, entre {@link #iniciar()} e
+ * {@link #encerrar()} (o {@link ContagemSqlFilter} abre e fecha a contagem a cada requisição).
+ * Fora de uma contagem aberta, o comando passa sem custo além da leitura do ThreadLocal.
+ */
+public class ContadorSqlInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTAGEM = new ThreadLocal<>();
+
+    static void iniciar() {
+        CONTAGEM.set(new int[1]);
+    }
+
+    static int encerrar() {
+        int[] contagem = CONTAGEM.get();
+        CONTAGEM.remove();
+        return contagem != null ? contagem[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] contagem = CONTAGEM.get();
+        if (contagem != null) {
+            contagem[0]++;
+        }
+        return sql;
+    }
+}
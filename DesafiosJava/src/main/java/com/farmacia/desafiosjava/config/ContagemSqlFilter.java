@@ -0,0 +1,51 @@
+package com.farmacia.desafiosjava.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Registra quantos comandos SQL cada requisição executou ({@code farmacia.http.sql.comandos}), com as
+ * mesmas tags {@code method} e {@code uri} (padrão do endpoint) do {@code http.server.requests}.
+ *
+ * <p>Roda logo depois do limite de requisições, antes do Spring Security: a carga do usuário do
+ * token também entra na conta. Em respostas assíncronas (NDJSON, SSE) conta só o processamento
+ * inicial; o envio roda em outra thread.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ContagemSqlFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        ContadorSqlInspector.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int comandos = ContadorSqlInspector.encerrar();
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("farmacia.http.sql.comandos")
+                    .baseUnit("comandos")
+                    .tag("method", request.getMethod())
+                    .tag("uri", padrao != null ? padrao.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .record(comandos);
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class CorsConfig {
             "Content-Type",
             "Accept",
             "Origin",
+            "Idempotency-Key",
             "Access-Control-Request-Method",
             "Access-Control-Request-Headers"
         ));
@@ -41,7 +42,8 @@ public class CorsConfig {
         // Expõe headers necessários para o frontend
         configuration.setExposedHeaders(Arrays.asList(
             "Authorization",
-            "Content-Type"
+            "Content-Type",
+            "Idempotent-Replayed"
         ));
         
         // Permite credenciais (cookies, authorization headers)
@@ -6,15 +6,20 @@ import com.farmacia.desafiosjava.service.CustomUserDetailsService;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -30,14 +35,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+
+    // Monta o principal só com os papéis do token, sem consultar o banco. Alterações de papel
+    // ou remoção do usuário só valem para tokens emitidos depois (ou após a expiração do atual).
+    @Value("${jwt.confiar-roles:false}")
+    private boolean confiarRoles;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -45,22 +54,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            jwt = authHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
-            }
+            autenticar(authHeader.substring(7), request);
 
             filterChain.doFilter(request, response);
 
@@ -83,6 +77,59 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Valida o token e preenche o contexto de segurança. O tempo da validação (sem o restante da
+     * requisição) vai para o timer {@code farmacia.auth.jwt}, com o resultado ou o tipo da falha.
+     */
+    private void autenticar(String jwt, HttpServletRequest request) {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "valido";
+        try {
+            // Assinatura e expiração conferidas aqui, em um único parse do token
+            JwtUtil.TokenVerificado token = jwtUtil.verificar(jwt);
+
+            if (token.username() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = carregarPrincipal(token);
+
+                if (token.username().equals(userDetails.getUsername())) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
+        } catch (RuntimeException ex) {
+            resultado = tipoFalha(ex);
+            throw ex;
+        } finally {
+            amostra.stop(meterRegistry.timer("farmacia.auth.jwt", "resultado", resultado));
+        }
+    }
+
+    private static String tipoFalha(RuntimeException ex) {
+        if (ex instanceof ExpiredJwtException) {
+            return "expirado";
+        }
+        if (ex instanceof SignatureException) {
+            return "assinatura_invalida";
+        }
+        if (ex instanceof MalformedJwtException) {
+            return "malformado";
+        }
+        return "erro";
+    }
+
+    private UserDetails carregarPrincipal(JwtUtil.TokenVerificado token) {
+        // Tokens emitidos antes da claim de papéis continuam válidos pelo caminho com banco
+        if (confiarRoles && token.roles() != null) {
+            return new User(token.username(), "", token.roles().stream().map(SimpleGrantedAuthority::new).toList());
+        }
+        return userDetailsService.carregarPrincipal(token.username());
+    }
+
     private void handleJwtException(HttpServletResponse response, HttpServletRequest request,
                                     String message, String detalhes) throws IOException {
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
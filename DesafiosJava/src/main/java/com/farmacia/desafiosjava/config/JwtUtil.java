@@ -1,78 +1,136 @@
 package com.farmacia.desafiosjava.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    // Papéis do usuário no momento do login (ex.: ROLE_USER), usados quando jwt.confiar-roles=true
+    public static final String CLAIM_ROLES = "roles";
+
     @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String secret;
 
     @Value("${jwt.expiration:86400000}") // 24 horas em milissegundos
     private Long expiration;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    // 0 desliga o cache de tokens já verificados
+    @Value("${jwt.cache-verificados.tamanho-maximo:10000}")
+    private long tamanhoCacheVerificados;
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    // Chave e parser são imutáveis e thread-safe: montados uma única vez
+    private SecretKey signInKey;
+    private JwtParser parser;
+    private Cache<String, TokenVerificado> verificados;
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Resultado da verificação de um token: assinatura conferida e não expirado.
+     *
+     * @param roles papéis gravados no login, ou {@code null} em tokens emitidos antes dessa claim
+     */
+    public record TokenVerificado(String username, List<String> roles, Instant expiracao) {
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    @PostConstruct
+    void inicializar() {
+        // Usa os bytes do segredo diretamente para evitar problemas com Base64/HEX.
+        // Certifique-se de usar um segredo com comprimento suficiente (>= 32 bytes) para HS256.
+        signInKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+
+        if (tamanhoCacheVerificados > 0) {
+            verificados = Caffeine.newBuilder()
+                    .maximumSize(tamanhoCacheVerificados)
+                    .expireAfter(Expiry.creating((String digest, TokenVerificado token) -> {
+                        Duration restante = Duration.between(Instant.now(), token.expiracao());
+                        return restante.isNegative() ? Duration.ZERO : restante;
+                    }))
+                    .build();
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Confere assinatura e expiração lendo o token uma única vez.
+     * Tokens já verificados ficam em cache (pelo hash SHA-256, nunca o token em si) até expirarem.
+     *
+     * @throws io.jsonwebtoken.JwtException se o token for inválido, malformado ou estiver expirado
+     */
+    public TokenVerificado verificar(String token) {
+        if (verificados == null) {
+            return parse(token);
+        }
+
+        String digest = digest(token);
+        TokenVerificado verificado = verificados.getIfPresent(digest);
+        if (verificado != null && verificado.expiracao().isAfter(Instant.now())) {
+            return verificado;
+        }
+
+        // Ausente ou expirado: o parse lança a exceção adequada (ExpiredJwtException, SignatureException...)
+        verificado = parse(token);
+        verificados.put(digest, verificado);
+        return verificado;
     }
 
-    public String generateToken(String username) {
+    public String generateToken(String username, Collection<String> roles) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_ROLES, List.copyOf(roles));
         return createToken(claims, username);
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long agora = System.currentTimeMillis();
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .claims(claims)
+                .subject(subject)
+                .issuedAt(new Date(agora))
+                .expiration(new Date(agora + expiration))
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    @SuppressWarnings("unchecked")
+    private TokenVerificado parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token sem data de expiração");
+        }
+        return new TokenVerificado(
+                claims.getSubject(),
+                claims.get(CLAIM_ROLES, List.class),
+                claims.getExpiration().toInstant()
+        );
     }
 
-    private Key getSignInKey() {
-        // Usa os bytes do segredo diretamente para evitar problemas com Base64/HEX.
-        // Certifique-se de usar um segredo com comprimento suficiente (>= 32 bytes) para HS256.
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
     }
 }
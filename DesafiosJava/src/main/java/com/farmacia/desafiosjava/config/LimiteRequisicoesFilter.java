@@ -0,0 +1,90 @@
+package com.farmacia.desafiosjava.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.farmacia.desafiosjava.exception.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita quantas requisições são processadas ao mesmo tempo; as demais esperam a vez paradas.
+ *
+ * <p>Com threads de plataforma o pool do Tomcat já faz esse papel. Com threads virtuais toda
+ * requisição aceita começa a rodar: sob pico, as que seguram uma conexão do banco disputam a CPU
+ * com centenas de outras, demoram a devolvê-la e o pool do Hikari esgota. Desligado com 0.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LimiteRequisicoesFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final Semaphore permissoes;
+    private final long esperaMaximaMs;
+
+    public LimiteRequisicoesFilter(ObjectMapper objectMapper,
+                                   @Value("${servidor.requisicoes.max-concorrentes:0}") int maxConcorrentes,
+                                   @Value("${servidor.requisicoes.espera-maxima-ms:10000}") long esperaMaximaMs) {
+        this.objectMapper = objectMapper;
+        this.permissoes = maxConcorrentes > 0 ? new Semaphore(maxConcorrentes, true) : null;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return permissoes == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        boolean permitido;
+        try {
+            permitido = permissoes.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permitido = false;
+        }
+
+        if (!permitido) {
+            recusar(request, response);
+            return;
+        }
+
+        // Respostas assíncronas (NDJSON, SSE) liberam a vaga quando o processamento inicial retorna
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    private void recusar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Servidor sobrecarregado no momento. Tente novamente em instantes.",
+                request.getRequestURI()
+        );
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
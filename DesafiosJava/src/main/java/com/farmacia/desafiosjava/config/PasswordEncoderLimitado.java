@@ -0,0 +1,65 @@
+package com.farmacia.desafiosjava.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limita quantos hashes de senha são calculados ao mesmo tempo.
+ *
+ * <p>O BCrypt ocupa a CPU por dezenas de milissegundos. Com threads virtuais não há mais o teto
+ * do pool do Tomcat: uma rajada de logins ocuparia todas as threads portadoras e atrasaria as
+ * demais requisições. Quem passa do limite espera a vez (sem prender a thread portadora).</p>
+ *
+ * <p>A espera pela vez e o cálculo do hash são medidos separadamente ({@code farmacia.auth.bcrypt.espera}
+ * e {@code farmacia.auth.bcrypt}): espera alta com hash estável indica limite pequeno para a carga.</p>
+ */
+public class PasswordEncoderLimitado implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Semaphore permissoes;
+    private final Timer espera;
+    private final Timer hashEncode;
+    private final Timer hashMatches;
+
+    public PasswordEncoderLimitado(PasswordEncoder delegate, int maxConcorrentes, MeterRegistry meterRegistry) {
+        if (maxConcorrentes < 1) {
+            throw new IllegalArgumentException("maxConcorrentes deve ser maior que zero");
+        }
+        this.delegate = delegate;
+        this.permissoes = new Semaphore(maxConcorrentes, true);
+        this.espera = meterRegistry.timer("farmacia.auth.bcrypt.espera");
+        this.hashEncode = meterRegistry.timer("farmacia.auth.bcrypt", "operacao", "encode");
+        this.hashMatches = meterRegistry.timer("farmacia.auth.bcrypt", "operacao", "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executar(hashEncode, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executar(hashMatches, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T executar(Timer hash, Supplier<T> operacao) {
+        long inicio = System.nanoTime();
+        permissoes.acquireUninterruptibly();
+        espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        try {
+            return hash.record(operacao);
+        } finally {
+            permissoes.release();
+        }
+    }
+}
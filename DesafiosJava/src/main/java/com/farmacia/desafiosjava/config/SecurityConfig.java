@@ -1,7 +1,11 @@
 package com.farmacia.desafiosjava.config;
 
 import com.farmacia.desafiosjava.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,6 +32,18 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAccessDeniedHandler jwtAccessDeniedHandler;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final MeterRegistry meterRegistry;
+
+    // Hashes BCrypt simultâneos; 0 usa o número de processadores
+    @Value("${seguranca.bcrypt.max-concorrentes:0}")
+    private int bcryptMaxConcorrentes;
+
+    // Porta própria do actuator (perfil prod), acessível só pela rede interna; -1 quando não há
+    @Value("${management.server.port:-1}")
+    private int portaGerenciamento;
+
+    @Value("${server.port:8080}")
+    private int portaServidor;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -35,8 +51,13 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Conclusão das respostas em streaming (NDJSON): a requisição original já foi autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // O Prometheus coleta sem token, mas só pela porta de gerenciamento
+                        .requestMatchers(this::coletaPrometheusInterna).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -52,6 +73,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private boolean coletaPrometheusInterna(HttpServletRequest request) {
+        return portaGerenciamento > 0 && portaGerenciamento != portaServidor
+                && request.getLocalPort() == portaGerenciamento
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -67,6 +94,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int maxConcorrentes = bcryptMaxConcorrentes > 0 ? bcryptMaxConcorrentes : Runtime.getRuntime().availableProcessors();
+        return new PasswordEncoderLimitado(new BCryptPasswordEncoder(), maxConcorrentes, meterRegistry);
     }
 }
@@ -0,0 +1,31 @@
+package com.farmacia.desafiosjava.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Registra no log uma amostra dos comandos SQL preparados pelo Hibernate.
+ *
+ * <p>Substitui o {@code show-sql} em produção: com a taxa de 1%, dá para ver o perfil das consultas
+ * sem formatar e escrever cada comando. As consultas lentas são registradas à parte, todas, pelo
+ * próprio Hibernate ({@code hibernate.log_slow_query}, logger {@code org.hibernate.SQL_SLOW}).</p>
+ */
+@Slf4j
+public class SqlAmostradoInspector implements StatementInspector {
+
+    private final double taxa;
+
+    public SqlAmostradoInspector(double taxa) {
+        this.taxa = taxa;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (ThreadLocalRandom.current().nextDouble() < taxa) {
+            log.info("SQL amostrado: {}", sql);
+        }
+        return sql;
+    }
+}
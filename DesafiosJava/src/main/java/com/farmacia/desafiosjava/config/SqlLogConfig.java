@@ -0,0 +1,34 @@
+package com.farmacia.desafiosjava.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Inspeção dos comandos SQL: contagem por requisição ({@link ContadorSqlInspector}) e log
+ * amostrado ({@link SqlAmostradoInspector}, desligado com taxa 0). O Hibernate aceita um único
+ * StatementInspector, por isso os dois são encadeados.
+ */
+@Configuration
+public class SqlLogConfig {
+
+    @Value("${persistencia.sql.taxa-amostragem:0}")
+    private double taxaAmostragem;
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlInspectorHibernateCustomizer() {
+        return properties -> {
+            StatementInspector contador = new ContadorSqlInspector();
+            if (taxaAmostragem > 0) {
+                StatementInspector amostrado = new SqlAmostradoInspector(taxaAmostragem);
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                        (StatementInspector) sql -> amostrado.inspect(contador.inspect(sql)));
+            } else {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, contador);
+            }
+        };
+    }
+}
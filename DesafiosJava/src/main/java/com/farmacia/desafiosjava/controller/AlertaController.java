@@ -2,14 +2,18 @@ package com.farmacia.desafiosjava.controller;
 
 import com.farmacia.desafiosjava.dto.AlertaEstoqueBaixoDTO;
 import com.farmacia.desafiosjava.dto.AlertaValidadeProximaDTO;
+import com.farmacia.desafiosjava.dto.PainelAlertasDTO;
 import com.farmacia.desafiosjava.service.AlertaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -20,20 +24,44 @@ import java.util.List;
 public class AlertaController {
 
     private final AlertaService alertaService;
+    private final CanalAlertas canalAlertas;
+
+    @GetMapping
+    @Operation(summary = "Painel de alertas",
+               description = "Retorna estoque baixo e validade próxima juntos, com a versão do painel (também no ETag)")
+    public ResponseEntity<PainelAlertasDTO> buscarPainel() {
+        PainelAlertasDTO painel = alertaService.buscarPainel();
+        return comVersao(painel, painel);
+    }
 
     @GetMapping("/estoque-baixo")
     @Operation(summary = "Estoque baixo", 
-               description = "Retorna medicamentos ativos com estoque abaixo do limite configurado (padrão: 10 unidades)")
+               description = "Retorna medicamentos ativos com estoque abaixo do limite da categoria ou do limite padrão (10 unidades)")
     public ResponseEntity<List<AlertaEstoqueBaixoDTO>> buscarEstoqueBaixo() {
-        List<AlertaEstoqueBaixoDTO> alertas = alertaService.buscarEstoqueBaixo();
-        return ResponseEntity.ok(alertas);
+        PainelAlertasDTO painel = alertaService.buscarPainel();
+        return comVersao(painel, painel.estoqueBaixo());
     }
 
     @GetMapping("/validade-proxima")
     @Operation(summary = "Validade próxima", 
-               description = "Retorna medicamentos ativos com vencimento próximo (padrão: 30 dias)")
+               description = "Retorna medicamentos ativos com vencimento dentro da antecedência da categoria ou da padrão (30 dias)")
     public ResponseEntity<List<AlertaValidadeProximaDTO>> buscarValidadeProxima() {
-        List<AlertaValidadeProximaDTO> alertas = alertaService.buscarValidadeProxima();
-        return ResponseEntity.ok(alertas);
+        PainelAlertasDTO painel = alertaService.buscarPainel();
+        return comVersao(painel, painel.validadeProxima());
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar alertas",
+               description = "Server-Sent Events: envia o painel atual na conexão e um evento 'alertas' a cada nova versão")
+    public SseEmitter acompanhar() {
+        return canalAlertas.inscrever(alertaService.buscarPainel());
+    }
+
+    // Com o ETag na resposta, o Spring devolve 304 sem corpo quando o If-None-Match traz a versão atual
+    private static <T> ResponseEntity<T> comVersao(PainelAlertasDTO painel, T corpo) {
+        return ResponseEntity.ok()
+                .eTag(painel.versao())
+                .cacheControl(CacheControl.noCache())
+                .body(corpo);
     }
 }
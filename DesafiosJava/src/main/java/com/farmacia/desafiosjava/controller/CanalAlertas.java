@@ -0,0 +1,164 @@
+package com.farmacia.desafiosjava.controller;
+
+import com.farmacia.desafiosjava.dto.PainelAlertasDTO;
+import com.farmacia.desafiosjava.event.AlertasAtualizadosEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Conexões SSE que acompanham o painel de alertas. Cada cliente recebe o painel atual ao se
+ * inscrever e um novo evento a cada versão.
+ *
+ * <p>Cada conexão é escrita por uma thread virtual própria e guarda só o evento mais recente
+ * ainda não enviado: o painel é completo a cada versão, então um cliente lento pula versões
+ * intermediárias em vez de acumular uma fila. Um cliente com um envio parado há mais de
+ * {@code alertas.sse.atraso-maximo-ms} é desconectado e não atrasa os demais.</p>
+ */
+@Component
+@Slf4j
+class CanalAlertas {
+
+    static final String EVENTO = "alertas";
+
+    private final Map<SseEmitter, Inscrito> inscritos = new ConcurrentHashMap<>();
+    private final ExecutorService envio = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("alertas-sse-", 0).factory());
+
+    @Value("${alertas.sse.timeout-ms:1800000}")
+    private Long timeoutMs;
+
+    @Value("${alertas.sse.atraso-maximo-ms:10000}")
+    private long atrasoMaximoMs;
+
+    SseEmitter inscrever(PainelAlertasDTO atual) {
+        return inscrever(new SseEmitter(timeoutMs), atual);
+    }
+
+    SseEmitter inscrever(SseEmitter emitter, PainelAlertasDTO atual) {
+        emitter.onCompletion(() -> inscritos.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(erro -> inscritos.remove(emitter));
+        Inscrito inscrito = new Inscrito(emitter, evento(atual));
+        inscritos.put(emitter, inscrito);
+        // Enviado nesta thread, antes de a resposta começar: o Spring guarda os eventos e os escreve
+        // em seguida. Uma atualização publicada enquanto isso sai logo depois do painel inicial
+        inscrito.esvaziar();
+        return emitter;
+    }
+
+    int quantidadeInscritos() {
+        return inscritos.size();
+    }
+
+    @EventListener
+    public void aoAtualizarAlertas(AlertasAtualizadosEvent evento) {
+        SseEmitter.SseEventBuilder atualizacao = evento(evento.painel());
+        inscritos.values().forEach(inscrito -> inscrito.entregar(atualizacao, true));
+    }
+
+    // Comentário periódico: mantém a conexão aberta em proxies e descobre clientes que já saíram
+    @Scheduled(fixedRateString = "${alertas.sse.heartbeat-ms:30000}")
+    public void manterConexoes() {
+        inscritos.values().forEach(inscrito -> inscrito.entregar(SseEmitter.event().comment("ping"), false));
+    }
+
+    @PreDestroy
+    void encerrar() {
+        // Um complete espera o envio em andamento na conexão: nenhum deles segura o encerramento
+        inscritos.keySet().forEach(emitter -> envio.execute(emitter::complete));
+        envio.shutdown();
+    }
+
+    private static SseEmitter.SseEventBuilder evento(PainelAlertasDTO painel) {
+        return SseEmitter.event().name(EVENTO).id(painel.versao()).data(painel);
+    }
+
+    private final class Inscrito {
+
+        private final SseEmitter emitter;
+        private final AtomicReference<SseEmitter.SseEventBuilder> pendente = new AtomicReference<>();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        // System.nanoTime() do início do envio em andamento; 0 sem envio
+        private volatile long envioIniciadoEm;
+
+        // Criado com o painel inicial pendente e o envio reservado para quem se inscreve
+        Inscrito(SseEmitter emitter, SseEmitter.SseEventBuilder inicial) {
+            this.emitter = emitter;
+            this.pendente.set(inicial);
+            this.enviando.set(true);
+        }
+
+        // Painéis substituem o pendente; o ping só ocupa a vez se não houver nada para enviar
+        void entregar(SseEmitter.SseEventBuilder evento, boolean substituir) {
+            if (substituir) {
+                pendente.set(evento);
+            } else if (!pendente.compareAndSet(null, evento)) {
+                return;
+            }
+
+            if (enviando.compareAndSet(false, true)) {
+                envio.execute(this::esvaziar);
+            } else if (atrasado()) {
+                descartar("envio parado há mais de " + atrasoMaximoMs + " ms");
+            }
+        }
+
+        void esvaziar() {
+            try {
+                SseEmitter.SseEventBuilder evento;
+                while ((evento = pendente.getAndSet(null)) != null) {
+                    envioIniciadoEm = System.nanoTime();
+                    if (!enviar(evento)) {
+                        return;
+                    }
+                }
+            } finally {
+                envioIniciadoEm = 0;
+                enviando.set(false);
+            }
+            // Evento que chegou entre o fim do laço e a liberação acima
+            if (pendente.get() != null && enviando.compareAndSet(false, true)) {
+                envio.execute(this::esvaziar);
+            }
+        }
+
+        private boolean atrasado() {
+            long inicio = envioIniciadoEm;
+            return inicio != 0 && System.nanoTime() - inicio > TimeUnit.MILLISECONDS.toNanos(atrasoMaximoMs);
+        }
+
+        private boolean enviar(SseEmitter.SseEventBuilder evento) {
+            try {
+                emitter.send(evento);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou emitter já encerrado
+                inscritos.remove(emitter);
+                log.debug("Conexão SSE de alertas descartada: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        private void descartar(String motivo) {
+            if (inscritos.remove(emitter, this)) {
+                log.info("Conexão SSE de alertas descartada: {}", motivo);
+                // O complete espera o envio parado terminar: roda fora da thread que publicou
+                envio.execute(emitter::complete);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.farmacia.desafiosjava.controller;
 import com.farmacia.desafiosjava.dto.CategoriaRequestDTO;
 import com.farmacia.desafiosjava.dto.CategoriaResponseDTO;
 import com.farmacia.desafiosjava.dto.MessageResponseDTO;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
 import com.farmacia.desafiosjava.service.CategoriaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -21,6 +23,7 @@ import java.util.List;
 public class CategoriaController {
 
     private final CategoriaService categoriaService;
+    private final RespostaNdjson respostaNdjson;
 
     @PostMapping
     @Operation(summary = "Criar categoria", description = "Cria uma nova categoria de medicamento")
@@ -36,6 +39,29 @@ public class CategoriaController {
         return ResponseEntity.ok(categorias);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(summary = "Listar categorias por cursor",
+               description = "Lista categorias em ordem de id, com até limit registros (máx. 500; padrão 100 quando só after é informado) após o id informado em after. Use proximoCursor como after da próxima página.")
+    public ResponseEntity<PaginaCursorDTO<CategoriaResponseDTO>> listarPagina(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(categoriaService.listarPagina(after, limit));
+    }
+
+    // Só com after: continua do cursor com a página padrão, em vez de cair na listagem completa
+    @GetMapping(params = {"after", "!limit"})
+    @Operation(hidden = true)
+    public ResponseEntity<PaginaCursorDTO<CategoriaResponseDTO>> listarPaginaPadrao(@RequestParam Long after) {
+        return listarPagina(after, PaginaCursorDTO.LIMITE_PADRAO);
+    }
+
+    @GetMapping(produces = RespostaNdjson.NDJSON)
+    @Operation(summary = "Exportar categorias (NDJSON)",
+               description = "Envia categorias em streaming, um JSON por linha, lidos do banco em lotes")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return respostaNdjson.de(categoriaService::exportarTodas);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar categoria", description = "Busca uma categoria por ID")
     public ResponseEntity<CategoriaResponseDTO> buscarPorId(@PathVariable Long id) {
@@ -3,6 +3,9 @@ package com.farmacia.desafiosjava.controller;
 import com.farmacia.desafiosjava.dto.ClienteCreateResponseDTO;
 import com.farmacia.desafiosjava.dto.ClienteRequestDTO;
 import com.farmacia.desafiosjava.dto.ClienteResponseDTO;
+import com.farmacia.desafiosjava.dto.ClienteResumoDTO;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
+import com.farmacia.desafiosjava.service.ClienteResumoService;
 import com.farmacia.desafiosjava.service.ClienteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -21,6 +25,8 @@ import java.util.List;
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final ClienteResumoService clienteResumoService;
+    private final RespostaNdjson respostaNdjson;
 
     @PostMapping
     @Operation(summary = "Criar cliente", 
@@ -46,10 +52,40 @@ public class ClienteController {
         return ResponseEntity.ok(clientes);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(summary = "Listar clientes por cursor",
+               description = "Lista clientes em ordem de id, com até limit registros (máx. 500; padrão 100 quando só after é informado) após o id informado em after. Use proximoCursor como after da próxima página.")
+    public ResponseEntity<PaginaCursorDTO<ClienteResponseDTO>> listarPagina(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(clienteService.listarPagina(after, limit));
+    }
+
+    // Só com after: continua do cursor com a página padrão, em vez de cair na listagem completa
+    @GetMapping(params = {"after", "!limit"})
+    @Operation(hidden = true)
+    public ResponseEntity<PaginaCursorDTO<ClienteResponseDTO>> listarPaginaPadrao(@RequestParam Long after) {
+        return listarPagina(after, PaginaCursorDTO.LIMITE_PADRAO);
+    }
+
+    @GetMapping(produces = RespostaNdjson.NDJSON)
+    @Operation(summary = "Exportar clientes (NDJSON)",
+               description = "Envia clientes em streaming, um JSON por linha, lidos do banco em lotes")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return respostaNdjson.de(clienteService::exportarTodos);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar cliente", description = "Busca um cliente por ID")
     public ResponseEntity<ClienteResponseDTO> buscarPorId(@PathVariable Long id) {
         ClienteResponseDTO cliente = clienteService.buscarPorId(id);
         return ResponseEntity.ok(cliente);
     }
+
+    @GetMapping("/{id}/resumo")
+    @Operation(summary = "Resumo de compras do cliente",
+               description = "Total gasto, quantidade de compras, ticket médio, últimas vendas e medicamentos mais comprados, atualizados a cada venda")
+    public ResponseEntity<ClienteResumoDTO> buscarResumo(@PathVariable Long id) {
+        return ResponseEntity.ok(clienteResumoService.buscar(id));
+    }
 }
@@ -1,15 +1,18 @@
 package com.farmacia.desafiosjava.controller;
 
 import com.farmacia.desafiosjava.dto.EstoqueResponseDTO;
+import com.farmacia.desafiosjava.dto.HistoricoMovimentacoesDTO;
 import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueRequestDTO;
 import com.farmacia.desafiosjava.service.EstoqueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -51,4 +54,17 @@ public class EstoqueController {
         EstoqueResponseDTO response = estoqueService.buscarEstoqueConsolidado(medicamentoId);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/{medicamentoId}/movimentacoes")
+    @Operation(summary = "Histórico de movimentações",
+               description = "Lista as movimentações do medicamento entre de e ate (padrão: últimos 30 dias; máx. 366 dias), " +
+                       "da mais recente para a mais antiga, com até limit registros (máx. 500). Use proximoCursor como after da próxima página.")
+    public ResponseEntity<HistoricoMovimentacoesDTO> listarMovimentacoes(
+            @PathVariable Long medicamentoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(estoqueService.buscarMovimentacoes(medicamentoId, de, ate, after, limit));
+    }
 }
@@ -0,0 +1,51 @@
+package com.farmacia.desafiosjava.controller;
+
+import com.farmacia.desafiosjava.dto.ItemVendaExportacaoDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoExportacaoDTO;
+import com.farmacia.desafiosjava.service.ExportacaoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/exportacoes")
+@RequiredArgsConstructor
+@Tag(name = "Exportações", description = "Vendas e movimentações de estoque em CSV para o financeiro")
+public class ExportacaoController {
+
+    private final ExportacaoService exportacaoService;
+    private final RespostaCsv respostaCsv;
+
+    @GetMapping(value = "/vendas", produces = RespostaCsv.CSV)
+    @Operation(summary = "Exportar vendas (CSV)",
+               description = "Um item de venda por linha entre de e ate (inclusive), em streaming; gzip se o cliente enviar Accept-Encoding: gzip")
+    public ResponseEntity<StreamingResponseBody> exportarVendas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        exportacaoService.validarPeriodo(de, ate);
+        return respostaCsv.de("vendas-" + de + "-" + ate + ".csv", ItemVendaExportacaoDTO.COLUNAS,
+                ItemVendaExportacaoDTO::valores, RespostaCsv.aceitaGzip(acceptEncoding),
+                destino -> exportacaoService.exportarItensVenda(de, ate, destino));
+    }
+
+    @GetMapping(value = "/movimentacoes", produces = RespostaCsv.CSV)
+    @Operation(summary = "Exportar movimentações de estoque (CSV)",
+               description = "Uma movimentação por linha entre de e ate (inclusive), em streaming; gzip se o cliente enviar Accept-Encoding: gzip")
+    public ResponseEntity<StreamingResponseBody> exportarMovimentacoes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        exportacaoService.validarPeriodo(de, ate);
+        return respostaCsv.de("movimentacoes-" + de + "-" + ate + ".csv", MovimentacaoExportacaoDTO.COLUNAS,
+                MovimentacaoExportacaoDTO::valores, RespostaCsv.aceitaGzip(acceptEncoding),
+                destino -> exportacaoService.exportarMovimentacoes(de, ate, destino));
+    }
+}
@@ -1,9 +1,12 @@
 package com.farmacia.desafiosjava.controller;
 
 import com.farmacia.desafiosjava.dto.AlterarStatusDTO;
+import com.farmacia.desafiosjava.dto.ImportacaoMedicamentosResponseDTO;
 import com.farmacia.desafiosjava.dto.MedicamentoRequestDTO;
 import com.farmacia.desafiosjava.dto.MedicamentoResponseDTO;
 import com.farmacia.desafiosjava.dto.MessageResponseDTO;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
+import com.farmacia.desafiosjava.service.ImportacaoMedicamentoService;
 import com.farmacia.desafiosjava.service.MedicamentoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,7 +15,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -22,6 +27,8 @@ import java.util.List;
 public class MedicamentoController {
 
     private final MedicamentoService medicamentoService;
+    private final ImportacaoMedicamentoService importacaoMedicamentoService;
+    private final RespostaNdjson respostaNdjson;
 
     @PostMapping
     @Operation(summary = "Criar medicamento", 
@@ -31,6 +38,20 @@ public class MedicamentoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(value = "/importacao", consumes = "text/csv")
+    @Operation(summary = "Importar medicamentos (CSV)",
+               description = "Importa um catálogo em CSV com cabeçalho (nome, dosagem, preco, descricao, ativo, categoriaId ou categoria). Linhas inválidas ou duplicadas não interrompem a importação e são listadas no relatório de erros.")
+    public ResponseEntity<ImportacaoMedicamentosResponseDTO> importarCsv(InputStream corpo) {
+        return ResponseEntity.ok(importacaoMedicamentoService.importarCsv(corpo));
+    }
+
+    @PostMapping(value = "/importacao", consumes = RespostaNdjson.NDJSON)
+    @Operation(summary = "Importar medicamentos (NDJSON)",
+               description = "Importa um catálogo com um medicamento em JSON por linha. Linhas inválidas ou duplicadas não interrompem a importação e são listadas no relatório de erros.")
+    public ResponseEntity<ImportacaoMedicamentosResponseDTO> importarNdjson(InputStream corpo) {
+        return ResponseEntity.ok(importacaoMedicamentoService.importarNdjson(corpo));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar medicamento", description = "Atualiza os dados de um medicamento existente")
     public ResponseEntity<MedicamentoResponseDTO> atualizar(
@@ -47,6 +68,38 @@ public class MedicamentoController {
         return ResponseEntity.ok(medicamentos);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(summary = "Listar medicamentos por cursor",
+               description = "Lista medicamentos em ordem de id, com até limit registros (máx. 500; padrão 100 quando só after é informado) após o id informado em after. Use proximoCursor como after da próxima página.")
+    public ResponseEntity<PaginaCursorDTO<MedicamentoResponseDTO>> listarPagina(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(medicamentoService.listarPagina(after, limit));
+    }
+
+    // Só com after: continua do cursor com a página padrão, em vez de cair na listagem completa
+    @GetMapping(params = {"after", "!limit"})
+    @Operation(hidden = true)
+    public ResponseEntity<PaginaCursorDTO<MedicamentoResponseDTO>> listarPaginaPadrao(@RequestParam Long after) {
+        return listarPagina(after, PaginaCursorDTO.LIMITE_PADRAO);
+    }
+
+    @GetMapping(produces = RespostaNdjson.NDJSON)
+    @Operation(summary = "Exportar medicamentos (NDJSON)",
+               description = "Envia medicamentos em streaming, um JSON por linha, lidos do banco em lotes")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return respostaNdjson.de(medicamentoService::exportarTodos);
+    }
+
+    @GetMapping("/busca")
+    @Operation(summary = "Buscar medicamentos por texto",
+               description = "Busca por nome, dosagem e descrição sem diferenciar acentos e maiúsculas, tolerando erros de digitação. Nomes que começam com o termo vêm primeiro, depois os mais parecidos. Retorna até limit resultados (padrão 20, máx. 100).")
+    public ResponseEntity<List<MedicamentoResponseDTO>> buscar(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(medicamentoService.buscar(q, limit));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar medicamento", description = "Busca um medicamento por ID")
     public ResponseEntity<MedicamentoResponseDTO> buscarPorId(@PathVariable Long id) {
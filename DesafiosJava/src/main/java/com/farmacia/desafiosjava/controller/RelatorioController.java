@@ -0,0 +1,78 @@
+package com.farmacia.desafiosjava.controller;
+
+import com.farmacia.desafiosjava.domain.VendaAgregada;
+import com.farmacia.desafiosjava.dto.MessageResponseDTO;
+import com.farmacia.desafiosjava.dto.PontoSerieVendasDTO;
+import com.farmacia.desafiosjava.dto.RankingVendasDTO;
+import com.farmacia.desafiosjava.dto.ResumoVendasDTO;
+import com.farmacia.desafiosjava.service.RelatorioVendasService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/relatorios/vendas")
+@RequiredArgsConstructor
+@Tag(name = "Relatórios", description = "Receita, unidades e ticket médio das vendas por período")
+public class RelatorioController {
+
+    private final RelatorioVendasService relatorioVendasService;
+
+    @GetMapping
+    @Operation(summary = "Totais de vendas",
+               description = "Vendas, unidades, receita e ticket médio entre de e ate (inclusive), no total ou de um medicamento ou categoria (0 = sem categoria)")
+    public ResponseEntity<ResumoVendasDTO> resumo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(required = false) Long medicamentoId,
+            @RequestParam(required = false) Long categoriaId) {
+        return ResponseEntity.ok(relatorioVendasService.resumo(de, ate, medicamentoId, categoriaId));
+    }
+
+    @GetMapping("/serie")
+    @Operation(summary = "Série temporal de vendas",
+               description = "Totais por HORA (até 31 dias), DIA (até 1096 dias) ou MES; períodos sem vendas não aparecem")
+    public ResponseEntity<List<PontoSerieVendasDTO>> serie(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = "DIA") VendaAgregada.Granularidade granularidade,
+            @RequestParam(required = false) Long medicamentoId,
+            @RequestParam(required = false) Long categoriaId) {
+        return ResponseEntity.ok(relatorioVendasService.serie(de, ate, granularidade, medicamentoId, categoriaId));
+    }
+
+    @GetMapping("/medicamentos")
+    @Operation(summary = "Medicamentos mais vendidos", description = "Medicamentos com maior receita no período (limit máx. 100)")
+    public ResponseEntity<List<RankingVendasDTO>> rankingMedicamentos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(relatorioVendasService.rankingMedicamentos(de, ate, limit));
+    }
+
+    @GetMapping("/categorias")
+    @Operation(summary = "Categorias mais vendidas", description = "Categorias com maior receita no período (limit máx. 100)")
+    public ResponseEntity<List<RankingVendasDTO>> rankingCategorias(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(relatorioVendasService.rankingCategorias(de, ate, limit));
+    }
+
+    @PostMapping("/reconstrucao")
+    @Operation(summary = "Reconstruir vendas agregadas",
+               description = "Recalcula os meses de de a ate (formato 2025-01) a partir das vendas gravadas; só meses fechados")
+    public ResponseEntity<MessageResponseDTO> reconstruir(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth de,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth ate) {
+        int linhas = relatorioVendasService.reconstruir(de, ate);
+        return ResponseEntity.ok(new MessageResponseDTO("Vendas agregadas reconstruídas: " + linhas + " linhas"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.farmacia.desafiosjava.controller;
+
+import com.farmacia.desafiosjava.util.CsvUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Monta respostas CSV para download escritas à medida que as linhas são lidas, compactadas com gzip
+ * durante o envio quando o cliente aceita.
+ */
+@Component
+class RespostaCsv {
+
+    static final String CSV = "text/csv";
+
+    private static final int BUFFER = 64 * 1024;
+
+    <T> ResponseEntity<StreamingResponseBody> de(String arquivo, List<String> colunas, Function<T, List<Object>> valores,
+                                                 boolean gzip, Consumer<Consumer<T>> exportacao) {
+        StreamingResponseBody corpo = saida -> {
+            GZIPOutputStream compactada = gzip ? new GZIPOutputStream(saida, BUFFER) : null;
+            Writer escritor = new BufferedWriter(
+                    new OutputStreamWriter(gzip ? compactada : saida, StandardCharsets.UTF_8), BUFFER);
+            CsvUtils.escreverLinha(escritor, colunas);
+            exportacao.accept(linha -> escrever(escritor, valores.apply(linha)));
+            escritor.flush();
+            if (compactada != null) {
+                compactada.finish();
+            }
+        };
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return resposta.body(corpo);
+    }
+
+    /**
+     * Se o cabeçalho Accept-Encoding do cliente inclui gzip.
+     */
+    static boolean aceitaGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static void escrever(Writer escritor, List<Object> valores) {
+        try {
+            CsvUtils.escreverLinha(escritor, valores);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.farmacia.desafiosjava.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Monta respostas NDJSON (um objeto JSON por linha) escritas à medida que os registros são lidos,
+ * sem materializar a listagem inteira em memória.
+ */
+@Component
+@RequiredArgsConstructor
+class RespostaNdjson {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    <T> ResponseEntity<StreamingResponseBody> de(Consumer<Consumer<T>> exportacao) {
+        StreamingResponseBody corpo = saida -> {
+            exportacao.accept(item -> escrever(saida, item));
+            saida.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(corpo);
+    }
+
+    private void escrever(OutputStream saida, Object item) {
+        try {
+            saida.write(objectMapper.writeValueAsBytes(item));
+            saida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
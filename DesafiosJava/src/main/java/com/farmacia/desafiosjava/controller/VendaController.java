@@ -1,5 +1,8 @@
 package com.farmacia.desafiosjava.controller;
 
+import com.farmacia.desafiosjava.dto.HistoricoComprasDTO;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
+import com.farmacia.desafiosjava.dto.VendaRegistradaDTO;
 import com.farmacia.desafiosjava.dto.VendaRequestDTO;
 import com.farmacia.desafiosjava.dto.VendaResponseDTO;
 import com.farmacia.desafiosjava.service.VendaService;
@@ -10,7 +13,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -19,14 +24,27 @@ import java.util.List;
 @Tag(name = "Vendas", description = "Gerenciamento de vendas")
 public class VendaController {
 
+    // Presente (true) quando a resposta é a venda já registrada com a mesma Idempotency-Key
+    static final String REPETIDA = "Idempotent-Replayed";
+
     private final VendaService vendaService;
+    private final RespostaNdjson respostaNdjson;
 
     @PostMapping
     @Operation(summary = "Criar venda", 
-               description = "Registra uma nova venda. Valida estoque, medicamentos ativos/vencidos e idade do cliente (18+). Atualiza estoque automaticamente.")
-    public ResponseEntity<VendaResponseDTO> criar(@Valid @RequestBody VendaRequestDTO request) {
-        VendaResponseDTO response = vendaService.criar(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+               description = "Registra uma nova venda. Valida estoque, medicamentos ativos/vencidos e idade do cliente (18+). Atualiza estoque automaticamente. " +
+                       "Com o cabeçalho Idempotency-Key, repetir a mesma requisição devolve a venda já registrada sem baixar o estoque de novo, " +
+                       "com o cabeçalho Idempotent-Replayed: true na resposta.")
+    public ResponseEntity<VendaResponseDTO> criar(
+            @Valid @RequestBody VendaRequestDTO request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia,
+            Principal usuario) {
+        VendaRegistradaDTO registrada = vendaService.registrar(request, usuario.getName(), chaveIdempotencia);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.CREATED);
+        if (registrada.repetida()) {
+            resposta.header(REPETIDA, "true");
+        }
+        return resposta.body(registrada.venda());
     }
 
     @GetMapping
@@ -36,6 +54,29 @@ public class VendaController {
         return ResponseEntity.ok(vendas);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(summary = "Listar vendas por cursor",
+               description = "Lista vendas em ordem de id, com até limit registros (máx. 500; padrão 100 quando só after é informado) após o id informado em after. Use proximoCursor como after da próxima página.")
+    public ResponseEntity<PaginaCursorDTO<VendaResponseDTO>> listarPagina(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(vendaService.listarPagina(after, limit));
+    }
+
+    // Só com after: continua do cursor com a página padrão, em vez de cair na listagem completa
+    @GetMapping(params = {"after", "!limit"})
+    @Operation(hidden = true)
+    public ResponseEntity<PaginaCursorDTO<VendaResponseDTO>> listarPaginaPadrao(@RequestParam Long after) {
+        return listarPagina(after, PaginaCursorDTO.LIMITE_PADRAO);
+    }
+
+    @GetMapping(produces = RespostaNdjson.NDJSON)
+    @Operation(summary = "Exportar vendas (NDJSON)",
+               description = "Envia vendas em streaming, um JSON por linha, lidos do banco em lotes")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return respostaNdjson.de(vendaService::exportarTodas);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar venda", description = "Busca uma venda por ID")
     public ResponseEntity<VendaResponseDTO> buscarPorId(@PathVariable Long id) {
@@ -49,4 +90,22 @@ public class VendaController {
         List<VendaResponseDTO> vendas = vendaService.listarPorCliente(clienteId);
         return ResponseEntity.ok(vendas);
     }
+
+    @GetMapping(value = "/cliente/{clienteId}", params = "limit")
+    @Operation(summary = "Histórico de compras do cliente",
+               description = "Lista as vendas do cliente da mais recente para a mais antiga, com até limit registros (máx. 500; padrão 100 quando só after é informado). Use proximoCursor como after da próxima página.")
+    public ResponseEntity<HistoricoComprasDTO> listarPorClientePagina(
+            @PathVariable Long clienteId,
+            @RequestParam(required = false) String after,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(vendaService.listarPorCliente(clienteId, after, limit));
+    }
+
+    @GetMapping(value = "/cliente/{clienteId}", params = {"after", "!limit"})
+    @Operation(hidden = true)
+    public ResponseEntity<HistoricoComprasDTO> listarPorClientePaginaPadrao(
+            @PathVariable Long clienteId,
+            @RequestParam String after) {
+        return listarPorClientePagina(clienteId, after, PaginaCursorDTO.LIMITE_PADRAO);
+    }
 }
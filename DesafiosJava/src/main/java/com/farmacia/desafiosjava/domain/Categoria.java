@@ -7,8 +7,12 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
 @Table(name = "categorias")
 @Data
 @NoArgsConstructor
@@ -16,7 +20,8 @@ import lombok.NoArgsConstructor;
 public class Categoria {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categorias_seq")
+    @SequenceGenerator(name = "categorias_seq", sequenceName = "categorias_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome da categoria é obrigatório")
@@ -27,6 +32,13 @@ public class Categoria {
     @Column(name = "nome_normalizado", unique = true, nullable = false)
     private String nomeNormalizado;
 
+    // Limites próprios dos alertas; nulo usa os padrões da aplicação
+    @Column(name = "limite_estoque_baixo")
+    private Integer limiteEstoqueBaixo;
+
+    @Column(name = "dias_alerta_validade")
+    private Integer diasAlertaValidade;
+
     @PrePersist
     @PreUpdate
     private void normalizarNome() {
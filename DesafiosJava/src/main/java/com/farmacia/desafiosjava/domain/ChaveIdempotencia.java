@@ -0,0 +1,53 @@
+package com.farmacia.desafiosjava.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key de uma venda: reservada no início da transação da venda e associada a ela
+ * na gravação. Mantida pelo IdempotenciaVendaService até {@code expiraEm}.
+ */
+@Entity
+@Table(name = "vendas_idempotencia")
+@IdClass(ChaveIdempotencia.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveIdempotencia {
+
+    public static final int TAMANHO_MAXIMO = 100;
+
+    // Chaves são do usuário autenticado: a de outro usuário nunca devolve a venda dele
+    @Id
+    @Column(name = "usuario", length = 100)
+    private String usuario;
+
+    @Id
+    @Column(name = "chave", length = TAMANHO_MAXIMO)
+    private String chave;
+
+    @Column(name = "hash_requisicao", nullable = false, length = 64)
+    private String hashRequisicao;
+
+    @Column(name = "venda_id")
+    private Long vendaId;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private String usuario;
+        private String chave;
+    }
+}
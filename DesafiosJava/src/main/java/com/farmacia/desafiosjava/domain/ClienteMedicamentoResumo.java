@@ -0,0 +1,61 @@
+package com.farmacia.desafiosjava.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Quantidade e valor comprados de um medicamento por um cliente, somados a cada venda.
+ * Atualizado com a linha de {@link ClienteResumo} do cliente travada.
+ */
+@Entity
+@Table(name = "cliente_medicamento_resumo")
+@IdClass(ClienteMedicamentoResumo.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteMedicamentoResumo {
+
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Id
+    @Column(name = "medicamento_id")
+    private Long medicamentoId;
+
+    @Column(name = "quantidade", nullable = false)
+    private Integer quantidade = 0;
+
+    @Column(name = "valor_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal = BigDecimal.ZERO;
+
+    @Column(name = "ultima_compra", nullable = false)
+    private LocalDateTime ultimaCompra;
+
+    // Nome no momento da última compra, para a lista de mais comprados do resumo
+    @Transient
+    private String nome;
+
+    public void registrarItem(ItemVenda item, LocalDateTime dataHora) {
+        quantidade += item.getQuantidade();
+        valorTotal = valorTotal.add(item.getSubtotal());
+        if (ultimaCompra == null || dataHora.isAfter(ultimaCompra)) {
+            ultimaCompra = dataHora;
+        }
+        nome = item.getMedicamento().getNome();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private Long clienteId;
+        private Long medicamentoId;
+    }
+}
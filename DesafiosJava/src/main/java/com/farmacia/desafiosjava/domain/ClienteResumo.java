@@ -0,0 +1,115 @@
+package com.farmacia.desafiosjava.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumo das compras de um cliente: totais, últimas vendas e medicamentos mais comprados.
+ *
+ * <p>Mantido pelo ClienteResumoService na mesma transação de cada venda, com a linha travada; as
+ * listas são guardadas em JSON para que a tela do cliente leia uma única linha. Como as quantidades
+ * por medicamento só crescem, os mais comprados são atualizados só com os medicamentos da venda
+ * (ver {@link ClienteMedicamentoResumo}), sem reler o histórico.</p>
+ */
+@Entity
+@Table(name = "cliente_resumo")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteResumo {
+
+    public static final int ULTIMAS_VENDAS = 10;
+    public static final int MAIS_COMPRADOS = 5;
+
+    private static final Comparator<VendaRecente> ORDEM_VENDAS =
+            Comparator.comparing(VendaRecente::dataHora).thenComparing(VendaRecente::vendaId).reversed();
+    // Em empate de quantidade, o comprado mais recentemente: o mesmo critério da carga inicial (V6)
+    private static final Comparator<MedicamentoComprado> ORDEM_MAIS_COMPRADOS =
+            Comparator.comparing(MedicamentoComprado::quantidade).reversed()
+                    .thenComparing(Comparator.comparing(MedicamentoComprado::ultimaCompra).reversed())
+                    .thenComparing(MedicamentoComprado::medicamentoId);
+
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Column(name = "quantidade_compras", nullable = false)
+    private Integer quantidadeCompras = 0;
+
+    @Column(name = "valor_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal = BigDecimal.ZERO;
+
+    @Column(name = "primeira_compra")
+    private LocalDateTime primeiraCompra;
+
+    @Column(name = "ultima_compra")
+    private LocalDateTime ultimaCompra;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "ultimas_vendas")
+    private List<VendaRecente> ultimasVendas = new ArrayList<>();
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "mais_comprados")
+    private List<MedicamentoComprado> maisComprados = new ArrayList<>();
+
+    @UpdateTimestamp
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public record VendaRecente(Long vendaId,
+                               @JsonFormat(shape = JsonFormat.Shape.STRING) LocalDateTime dataHora,
+                               BigDecimal valorTotal,
+                               Integer quantidadeItens) {
+    }
+
+    public record MedicamentoComprado(Long medicamentoId, String nome, Integer quantidade,
+                                      @JsonFormat(shape = JsonFormat.Shape.STRING) LocalDateTime ultimaCompra) {
+    }
+
+    /**
+     * Soma a venda aos totais. {@code acumulados} são os totais do cliente, já com esta venda, de
+     * cada medicamento vendido nela.
+     */
+    public void registrarVenda(Venda venda, Collection<ClienteMedicamentoResumo> acumulados) {
+        quantidadeCompras += 1;
+        valorTotal = valorTotal.add(venda.getValorTotal());
+        if (primeiraCompra == null || venda.getDataHora().isBefore(primeiraCompra)) {
+            primeiraCompra = venda.getDataHora();
+        }
+        if (ultimaCompra == null || venda.getDataHora().isAfter(ultimaCompra)) {
+            ultimaCompra = venda.getDataHora();
+        }
+
+        // Listas novas a cada venda: o Hibernate detecta a alteração comparando os valores
+        List<VendaRecente> vendas = new ArrayList<>(ultimasVendas == null ? List.of() : ultimasVendas);
+        vendas.add(new VendaRecente(venda.getId(), venda.getDataHora(), venda.getValorTotal(), venda.getItensVenda().size()));
+        vendas.sort(ORDEM_VENDAS);
+        ultimasVendas = List.copyOf(vendas.subList(0, Math.min(vendas.size(), ULTIMAS_VENDAS)));
+
+        // Um medicamento fora da lista não ganhou compras nesta venda: continua atrás do último da lista
+        Map<Long, MedicamentoComprado> candidatos = new LinkedHashMap<>();
+        (maisComprados == null ? List.<MedicamentoComprado>of() : maisComprados)
+                .forEach(comprado -> candidatos.put(comprado.medicamentoId(), comprado));
+        for (ClienteMedicamentoResumo acumulado : acumulados) {
+            candidatos.put(acumulado.getMedicamentoId(), new MedicamentoComprado(acumulado.getMedicamentoId(),
+                    acumulado.getNome(), acumulado.getQuantidade(), acumulado.getUltimaCompra()));
+        }
+        maisComprados = candidatos.values().stream().sorted(ORDEM_MAIS_COMPRADOS).limit(MAIS_COMPRADOS).toList();
+    }
+}
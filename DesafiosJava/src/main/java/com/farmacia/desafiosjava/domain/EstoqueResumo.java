@@ -0,0 +1,106 @@
+package com.farmacia.desafiosjava.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Saldo consolidado dos lotes disponíveis (ativos e com quantidade) de um medicamento.
+ *
+ * <p>Mantido pelo EstoqueService na mesma transação de cada entrada, saída ou venda; a linha é
+ * travada antes dos lotes, o que também serializa as movimentações do medicamento. A quantidade
+ * não vencida depende do dia: vale para {@code dataReferencia}, ou para qualquer dia enquanto
+ * nenhum lote com saldo estiver vencido.</p>
+ */
+@Entity
+@Table(name = "estoque_resumo")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstoqueResumo {
+
+    @Id
+    @Column(name = "medicamento_id")
+    private Long medicamentoId;
+
+    @Column(name = "quantidade_total", nullable = false)
+    private Integer quantidadeTotal = 0;
+
+    @Column(name = "quantidade_nao_vencida", nullable = false)
+    private Integer quantidadeNaoVencida = 0;
+
+    @Column(name = "quantidade_lotes", nullable = false)
+    private Integer quantidadeLotes = 0;
+
+    @Column(name = "primeiro_vencimento")
+    private LocalDate primeiroVencimento;
+
+    @Column(name = "data_referencia", nullable = false)
+    private LocalDate dataReferencia;
+
+    @UpdateTimestamp
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    /**
+     * Quantidade não vencida em {@code hoje}, ou {@code null} se há lotes que venceram depois
+     * do último cálculo (é preciso somar os lotes).
+     */
+    public Integer quantidadeNaoVencidaEm(LocalDate hoje) {
+        if (primeiroVencimento == null || !primeiroVencimento.isBefore(hoje)) {
+            return quantidadeTotal;
+        }
+        return hoje.equals(dataReferencia) ? quantidadeNaoVencida : null;
+    }
+
+    public boolean possuiVencidos(LocalDate hoje) {
+        return primeiroVencimento != null && primeiroVencimento.isBefore(hoje);
+    }
+
+    public void registrarEntrada(int quantidade, LocalDate vencimento, LocalDate hoje) {
+        Integer naoVencida = quantidadeNaoVencidaEm(hoje);
+        quantidadeTotal += quantidade;
+        quantidadeLotes += 1;
+        if (primeiroVencimento == null || vencimento.isBefore(primeiroVencimento)) {
+            primeiroVencimento = vencimento;
+        }
+        if (naoVencida != null) {
+            quantidadeNaoVencida = naoVencida + (vencimento.isBefore(hoje) ? 0 : quantidade);
+            dataReferencia = hoje;
+        }
+    }
+
+    /**
+     * Refaz o resumo a partir de todos os lotes disponíveis do medicamento (lotes zerados ou inativos são ignorados).
+     */
+    public void recalcular(Collection<Estoque> lotes, LocalDate hoje) {
+        int total = 0;
+        int naoVencida = 0;
+        int quantidade = 0;
+        LocalDate primeiro = null;
+        for (Estoque lote : lotes) {
+            if (!lote.getAtivo() || lote.getQuantidadeDisponivel() <= 0) {
+                continue;
+            }
+            total += lote.getQuantidadeDisponivel();
+            quantidade++;
+            if (!lote.getDataVencimento().isBefore(hoje)) {
+                naoVencida += lote.getQuantidadeDisponivel();
+            }
+            if (primeiro == null || lote.getDataVencimento().isBefore(primeiro)) {
+                primeiro = lote.getDataVencimento();
+            }
+        }
+        quantidadeTotal = total;
+        quantidadeNaoVencida = naoVencida;
+        quantidadeLotes = quantidade;
+        primeiroVencimento = primeiro;
+        dataReferencia = hoje;
+    }
+}
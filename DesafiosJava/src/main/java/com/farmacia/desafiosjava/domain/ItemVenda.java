@@ -18,7 +18,8 @@ import java.math.BigDecimal;
 public class ItemVenda {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "itens_venda_seq")
+    @SequenceGenerator(name = "itens_venda_seq", sequenceName = "itens_venda_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
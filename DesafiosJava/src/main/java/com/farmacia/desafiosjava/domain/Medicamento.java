@@ -7,12 +7,16 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medicamentos")
 @Table(name = "medicamentos", uniqueConstraints = {
         @UniqueConstraint(name = "uk_medicamento_nome_dosagem", columnNames = {"nome_normalizado", "dosagem"})
 })
@@ -22,7 +26,8 @@ import java.time.LocalDateTime;
 public class Medicamento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medicamentos_seq")
+    @SequenceGenerator(name = "medicamentos_seq", sequenceName = "medicamentos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome do medicamento é obrigatório")
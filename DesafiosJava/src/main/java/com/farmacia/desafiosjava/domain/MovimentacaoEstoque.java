@@ -6,10 +6,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
 
 import java.time.LocalDateTime;
 
+/**
+ * Ledger de movimentações de estoque: as linhas só são inseridas, nunca alteradas.
+ *
+ * <p>No PostgreSQL a tabela é particionada por mês de {@code data_movimentacao} (migration V3),
+ * com chave primária {@code (id, data_movimentacao)}; o id continua único por vir de sequence.</p>
+ */
 @Entity
+@Immutable
 @Table(name = "movimentacoes_estoque")
 @Data
 @NoArgsConstructor
@@ -17,7 +25,8 @@ import java.time.LocalDateTime;
 public class MovimentacaoEstoque {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimentacoes_estoque_seq")
+    @SequenceGenerator(name = "movimentacoes_estoque_seq", sequenceName = "movimentacoes_estoque_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Medicamento é obrigatório")
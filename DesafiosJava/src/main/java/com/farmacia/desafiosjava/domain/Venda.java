@@ -21,7 +21,8 @@ import java.util.List;
 public class Venda {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vendas_seq")
+    @SequenceGenerator(name = "vendas_seq", sequenceName = "vendas_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Cliente é obrigatório")
@@ -0,0 +1,95 @@
+package com.farmacia.desafiosjava.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Vendas, unidades e receita de um período (hora, dia ou mês) no total, de uma categoria ou de um
+ * medicamento. Somadas a cada venda pelo relatório de vendas; nunca lidas como entidade nas consultas.
+ */
+@Entity
+@Table(name = "vendas_agregadas")
+@IdClass(VendaAgregada.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendaAgregada {
+
+    /**
+     * Fatias das linhas TOTAL e CATEGORIA: vendas simultâneas atualizam linhas diferentes.
+     */
+    public static final int FATIAS = 8;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimensao", length = 20)
+    private Dimensao dimensao;
+
+    // 0 para TOTAL e para os medicamentos sem categoria
+    @Id
+    @Column(name = "chave")
+    private Long chave;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularidade", length = 10)
+    private Granularidade granularidade;
+
+    @Id
+    @Column(name = "periodo")
+    private LocalDateTime periodo;
+
+    @Id
+    @Column(name = "fatia")
+    private Short fatia;
+
+    @Column(name = "vendas", nullable = false)
+    private Integer vendas;
+
+    @Column(name = "unidades", nullable = false)
+    private Long unidades;
+
+    @Column(name = "receita", nullable = false, precision = 16, scale = 2)
+    private BigDecimal receita;
+
+    public enum Dimensao {
+        TOTAL,
+        CATEGORIA,
+        MEDICAMENTO
+    }
+
+    public enum Granularidade {
+        HORA,
+        DIA,
+        MES;
+
+        /**
+         * Início do período que contém {@code dataHora}.
+         */
+        public LocalDateTime inicio(LocalDateTime dataHora) {
+            return switch (this) {
+                case HORA -> dataHora.truncatedTo(ChronoUnit.HOURS);
+                case DIA -> dataHora.truncatedTo(ChronoUnit.DAYS);
+                case MES -> dataHora.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            };
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private Dimensao dimensao;
+        private Long chave;
+        private Granularidade granularidade;
+        private LocalDateTime periodo;
+        private Short fatia;
+    }
+}
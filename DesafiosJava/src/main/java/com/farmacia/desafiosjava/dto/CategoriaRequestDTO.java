@@ -1,5 +1,6 @@
 package com.farmacia.desafiosjava.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,4 +13,11 @@ public class CategoriaRequestDTO {
 
     @NotBlank(message = "Nome da categoria é obrigatório")
     private String nome;
+
+    // Opcionais: sem valor, a categoria usa os limites padrão dos alertas
+    @Min(value = 1, message = "Limite de estoque baixo deve ser maior que zero")
+    private Integer limiteEstoqueBaixo;
+
+    @Min(value = 1, message = "Dias de alerta de validade deve ser maior que zero")
+    private Integer diasAlertaValidade;
 }
@@ -11,4 +11,6 @@ public class CategoriaResponseDTO {
 
     private Long id;
     private String nome;
+    private Integer limiteEstoqueBaixo;
+    private Integer diasAlertaValidade;
 }
@@ -0,0 +1,43 @@
+package com.farmacia.desafiosjava.dto;
+
+import com.farmacia.desafiosjava.domain.ClienteResumo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resumo das compras do cliente: totais, as últimas {@value ClienteResumo#ULTIMAS_VENDAS} vendas e os
+ * {@value ClienteResumo#MAIS_COMPRADOS} medicamentos mais comprados (com o nome da última compra).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteResumoDTO {
+
+    private Long clienteId;
+    private Integer quantidadeCompras;
+    private BigDecimal valorTotal;
+    private BigDecimal ticketMedio;
+    private LocalDateTime primeiraCompra;
+    private LocalDateTime ultimaCompra;
+    private List<ClienteResumo.VendaRecente> ultimasVendas;
+    private List<ClienteResumo.MedicamentoComprado> maisComprados;
+
+    public static ClienteResumoDTO de(ClienteResumo resumo) {
+        BigDecimal ticketMedio = resumo.getQuantidadeCompras() == 0 ? BigDecimal.ZERO
+                : resumo.getValorTotal().divide(BigDecimal.valueOf(resumo.getQuantidadeCompras()), 2, RoundingMode.HALF_EVEN);
+        return new ClienteResumoDTO(resumo.getClienteId(), resumo.getQuantidadeCompras(), resumo.getValorTotal(), ticketMedio,
+                resumo.getPrimeiraCompra(), resumo.getUltimaCompra(),
+                resumo.getUltimasVendas() == null ? List.of() : resumo.getUltimasVendas(),
+                resumo.getMaisComprados() == null ? List.of() : resumo.getMaisComprados());
+    }
+
+    public static ClienteResumoDTO semCompras(Long clienteId) {
+        return new ClienteResumoDTO(clienteId, 0, BigDecimal.ZERO, BigDecimal.ZERO, null, null, List.of(), List.of());
+    }
+}
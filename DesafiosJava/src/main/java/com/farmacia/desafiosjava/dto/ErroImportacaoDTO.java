@@ -0,0 +1,9 @@
+package com.farmacia.desafiosjava.dto;
+
+/**
+ * Linha do arquivo que não foi importada e o motivo.
+ *
+ * @param linha número da linha no arquivo (a partir de 1, contando o cabeçalho do CSV)
+ */
+public record ErroImportacaoDTO(long linha, String mensagem) {
+}
@@ -0,0 +1,22 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página das vendas de um cliente, da mais recente para a mais antiga. Para buscar a próxima
+ * página, repita a consulta com {@code after=proximoCursor}; quando {@code proximoCursor} é nulo
+ * não há mais vendas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricoComprasDTO {
+
+    private Long clienteId;
+    private List<VendaResponseDTO> itens;
+    private String proximoCursor;
+}
@@ -0,0 +1,25 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Página do histórico de movimentações de um medicamento no período {@code de..ate}, da mais
+ * recente para a mais antiga. Para buscar a próxima página, repita a consulta com
+ * {@code after=proximoCursor}; quando {@code proximoCursor} é nulo o período terminou.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricoMovimentacoesDTO {
+
+    private Long medicamentoId;
+    private LocalDate de;
+    private LocalDate ate;
+    private List<MovimentacaoEstoqueResponseDTO> itens;
+    private String proximoCursor;
+}
@@ -0,0 +1,17 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoMedicamentosResponseDTO {
+
+    private long linhasProcessadas;
+    private long importados;
+    private List<ErroImportacaoDTO> erros;
+}
@@ -0,0 +1,29 @@
+package com.farmacia.desafiosjava.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Linha da exportação de vendas: um item com os dados da venda, lido por projeção (sem entidades).
+ */
+public record ItemVendaExportacaoDTO(
+        Long vendaId,
+        LocalDateTime dataHora,
+        Long clienteId,
+        Long itemId,
+        Long medicamentoId,
+        String medicamentoNome,
+        Integer quantidade,
+        BigDecimal precoUnitario
+) {
+
+    public static final List<String> COLUNAS = List.of("venda_id", "data_hora", "cliente_id", "item_id",
+            "medicamento_id", "medicamento_nome", "quantidade", "preco_unitario", "subtotal");
+
+    public List<Object> valores() {
+        return Arrays.asList(vendaId, dataHora, clienteId, itemId, medicamentoId, medicamentoNome, quantidade,
+                precoUnitario, precoUnitario.multiply(BigDecimal.valueOf(quantidade)));
+    }
+}
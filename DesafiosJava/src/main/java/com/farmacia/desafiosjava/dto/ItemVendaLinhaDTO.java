@@ -0,0 +1,28 @@
+package com.farmacia.desafiosjava.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Item de venda já achatado com o nome do medicamento, lido por projeção para montar
+ * as respostas de várias vendas de uma só vez.
+ */
+public record ItemVendaLinhaDTO(
+        Long vendaId,
+        Long id,
+        Long medicamentoId,
+        String medicamentoNome,
+        Integer quantidade,
+        BigDecimal precoUnitario
+) {
+
+    public ItemVendaResponseDTO toResponseDTO() {
+        return new ItemVendaResponseDTO(
+                id,
+                medicamentoId,
+                medicamentoNome,
+                quantidade,
+                precoUnitario,
+                precoUnitario.multiply(BigDecimal.valueOf(quantidade))
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package com.farmacia.desafiosjava.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Lote disponível com vencimento próximo e a antecedência de alerta da categoria do medicamento.
+ */
+public record LoteVencimentoDTO(
+        Long medicamentoId,
+        String medicamentoNome,
+        Integer quantidade,
+        LocalDate dataVencimento,
+        Integer diasAlerta
+) {
+}
@@ -0,0 +1,7 @@
+package com.farmacia.desafiosjava.dto;
+
+/**
+ * Colunas da constraint uk_medicamento_nome_dosagem, lidas por projeção na checagem de duplicados.
+ */
+public record MedicamentoChaveDTO(String nomeNormalizado, String dosagem) {
+}
@@ -0,0 +1,17 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha da importação em massa: mesmos campos do cadastro unitário, com a categoria
+ * podendo vir pelo id ou pelo nome (comparado sem acentos/maiúsculas).
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class MedicamentoImportacaoDTO extends MedicamentoRequestDTO {
+
+    private String categoria;
+}
@@ -0,0 +1,7 @@
+package com.farmacia.desafiosjava.dto;
+
+/**
+ * Campos de texto de um medicamento lidos por projeção para o índice de busca.
+ */
+public record MedicamentoTextoDTO(Long id, String nomeNormalizado, String dosagem, String descricao) {
+}
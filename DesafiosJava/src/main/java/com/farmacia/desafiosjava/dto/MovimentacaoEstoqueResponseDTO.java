@@ -0,0 +1,20 @@
+package com.farmacia.desafiosjava.dto;
+
+import com.farmacia.desafiosjava.domain.MovimentacaoEstoque;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoEstoqueResponseDTO {
+
+    private Long id;
+    private MovimentacaoEstoque.TipoMovimentacao tipo;
+    private Integer quantidade;
+    private LocalDateTime dataMovimentacao;
+    private String observacao;
+}
@@ -0,0 +1,29 @@
+package com.farmacia.desafiosjava.dto;
+
+import com.farmacia.desafiosjava.domain.MovimentacaoEstoque;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Linha da exportação de movimentações de estoque, lida por projeção (sem entidades).
+ */
+public record MovimentacaoExportacaoDTO(
+        Long id,
+        LocalDateTime dataMovimentacao,
+        Long medicamentoId,
+        String medicamentoNome,
+        MovimentacaoEstoque.TipoMovimentacao tipo,
+        Integer quantidade,
+        String observacao
+) {
+
+    public static final List<String> COLUNAS = List.of("id", "data_movimentacao", "medicamento_id", "medicamento_nome",
+            "tipo", "quantidade", "observacao");
+
+    public List<Object> valores() {
+        // Arrays.asList aceita a observação nula (vira campo vazio no CSV)
+        return Arrays.asList(id, dataMovimentacao, medicamentoId, medicamentoNome, tipo, quantidade, observacao);
+    }
+}
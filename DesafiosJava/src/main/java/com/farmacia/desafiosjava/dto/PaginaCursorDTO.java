@@ -0,0 +1,43 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem por cursor (keyset). Para buscar a próxima página, envie
+ * {@code after=proximoCursor}; quando {@code proximoCursor} é nulo não há mais registros.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+
+    // Tamanho da página quando o cliente envia after sem limit
+    public static final int LIMITE_PADRAO = 100;
+
+    private List<T> itens;
+    private Long proximoCursor;
+
+    /**
+     * Monta a página a partir de até {@code limit + 1} registros em ordem de id:
+     * o registro excedente só indica que existe uma próxima página.
+     */
+    public static <E, T> PaginaCursorDTO<T> de(List<E> registros, int limit, Function<E, Long> id, Function<E, T> conversor) {
+        return deLote(registros, limit, id, pagina -> pagina.stream().map(conversor).toList());
+    }
+
+    /**
+     * Como {@link #de}, mas convertendo a página inteira de uma vez (ex.: para buscar os filhos em uma consulta).
+     */
+    public static <E, T> PaginaCursorDTO<T> deLote(List<E> registros, int limit, Function<E, Long> id,
+                                                   Function<List<E>, List<T>> conversor) {
+        boolean temProxima = registros.size() > limit;
+        List<E> pagina = temProxima ? registros.subList(0, limit) : registros;
+        Long proximoCursor = temProxima ? id.apply(pagina.getLast()) : null;
+        return new PaginaCursorDTO<>(conversor.apply(pagina), proximoCursor);
+    }
+}
@@ -0,0 +1,16 @@
+package com.farmacia.desafiosjava.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Alertas de estoque baixo e de validade próxima calculados juntos. A versão só muda quando
+ * o conteúdo muda e é usada como ETag e como id dos eventos enviados por SSE.
+ */
+public record PainelAlertasDTO(
+        String versao,
+        LocalDateTime geradoEm,
+        List<AlertaEstoqueBaixoDTO> estoqueBaixo,
+        List<AlertaValidadeProximaDTO> validadeProxima
+) {
+}
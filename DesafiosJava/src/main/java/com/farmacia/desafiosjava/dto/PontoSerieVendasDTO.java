@@ -0,0 +1,27 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Totais de vendas de uma hora, dia ou mês (início do período) da série temporal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PontoSerieVendasDTO {
+
+    private LocalDateTime periodo;
+    private Long vendas;
+    private Long unidades;
+    private BigDecimal receita;
+    private BigDecimal ticketMedio;
+
+    public PontoSerieVendasDTO(LocalDateTime periodo, Long vendas, Long unidades, BigDecimal receita) {
+        this(periodo, vendas, unidades, receita, ResumoVendasDTO.ticketMedio(receita, vendas));
+    }
+}
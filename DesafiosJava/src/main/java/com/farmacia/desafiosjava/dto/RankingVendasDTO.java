@@ -0,0 +1,28 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais de vendas de um medicamento ou de uma categoria no período, para os rankings por receita.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingVendasDTO {
+
+    private Long id;
+    private String nome;
+    private Long vendas;
+    private Long unidades;
+    private BigDecimal receita;
+    private BigDecimal ticketMedio;
+
+    // Projeção das somas por chave; o nome é preenchido depois
+    public RankingVendasDTO(Long id, Long vendas, Long unidades, BigDecimal receita) {
+        this(id, null, vendas, unidades, receita, ResumoVendasDTO.ticketMedio(receita, vendas));
+    }
+}
@@ -0,0 +1,36 @@
+package com.farmacia.desafiosjava.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Vendas, unidades vendidas, receita e ticket médio de um período (no total, de uma categoria ou de
+ * um medicamento). O ticket médio é a receita dividida pelas vendas com ao menos um item contado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoVendasDTO {
+
+    private Long vendas;
+    private Long unidades;
+    private BigDecimal receita;
+    private BigDecimal ticketMedio;
+
+    // Projeção das somas; sem linhas no período, as somas vêm nulas
+    public ResumoVendasDTO(Long vendas, Long unidades, BigDecimal receita) {
+        this.vendas = Objects.requireNonNullElse(vendas, 0L);
+        this.unidades = Objects.requireNonNullElse(unidades, 0L);
+        this.receita = Objects.requireNonNullElse(receita, BigDecimal.ZERO);
+        this.ticketMedio = ticketMedio(this.receita, this.vendas);
+    }
+
+    static BigDecimal ticketMedio(BigDecimal receita, long vendas) {
+        return vendas == 0 ? BigDecimal.ZERO : receita.divide(BigDecimal.valueOf(vendas), 2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,8 @@
+package com.farmacia.desafiosjava.dto;
+
+/**
+ * Resultado do registro de uma venda. {@code repetida} indica que a Idempotency-Key já tinha sido
+ * usada nessa requisição e {@code venda} é a venda gravada na primeira vez.
+ */
+public record VendaRegistradaDTO(VendaResponseDTO venda, boolean repetida) {
+}
@@ -0,0 +1,10 @@
+package com.farmacia.desafiosjava.event;
+
+import com.farmacia.desafiosjava.dto.PainelAlertasDTO;
+
+/**
+ * Publicado pelo PainelAlertas quando o conteúdo dos alertas muda e uma nova versão do painel
+ * passa a ser servida.
+ */
+public record AlertasAtualizadosEvent(PainelAlertasDTO painel) {
+}
@@ -0,0 +1,8 @@
+package com.farmacia.desafiosjava.event;
+
+/**
+ * Publicado pelo CategoriaService quando os limites de alerta de uma categoria são definidos ou alterados.
+ * Os ouvintes tratam o evento após o commit da transação.
+ */
+public record CategoriaAlteradaEvent(Long categoriaId) {
+}
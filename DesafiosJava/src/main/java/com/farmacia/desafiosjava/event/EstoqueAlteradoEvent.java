@@ -0,0 +1,25 @@
+package com.farmacia.desafiosjava.event;
+
+import com.farmacia.desafiosjava.domain.Estoque;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Publicado pelo EstoqueService sempre que lotes mudam de saldo (entrada, saída ou venda)
+ * ou quando todo o estoque de um medicamento é removido. Os ouvintes tratam o evento
+ * após o commit da transação.
+ */
+public record EstoqueAlteradoEvent(Set<Long> medicamentoIds) {
+
+    public static EstoqueAlteradoEvent lotesAlterados(Collection<Estoque> lotes) {
+        return new EstoqueAlteradoEvent(lotes.stream()
+                .map(lote -> lote.getMedicamento().getId())
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public static EstoqueAlteradoEvent medicamentoRemovido(Long medicamentoId) {
+        return new EstoqueAlteradoEvent(Set.of(medicamentoId));
+    }
+}
@@ -0,0 +1,8 @@
+package com.farmacia.desafiosjava.event;
+
+/**
+ * Publicado pelo MedicamentoService quando um medicamento é alterado, tem o status trocado
+ * ou é removido. Os ouvintes tratam o evento após o commit da transação.
+ */
+public record MedicamentoAlteradoEvent(Long medicamentoId) {
+}
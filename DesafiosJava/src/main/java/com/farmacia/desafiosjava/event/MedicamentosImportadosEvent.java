@@ -0,0 +1,10 @@
+package com.farmacia.desafiosjava.event;
+
+import java.util.List;
+
+/**
+ * Publicado pelo ImportacaoMedicamentoService a cada lote gravado de uma importação, com os
+ * medicamentos criados. Os ouvintes tratam o evento após o commit da transação do lote.
+ */
+public record MedicamentosImportadosEvent(List<Long> medicamentoIds) {
+}
@@ -0,0 +1,8 @@
+package com.farmacia.desafiosjava.event;
+
+/**
+ * Publicado quando um usuário é criado, removido ou tem o papel alterado.
+ * O CustomUserDetailsService descarta o principal em cache após o commit da transação.
+ */
+public record UsuarioAlteradoEvent(String username) {
+}
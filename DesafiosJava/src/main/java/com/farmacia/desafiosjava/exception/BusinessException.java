@@ -1,8 +1,19 @@
 package com.farmacia.desafiosjava.exception;
 
 public class BusinessException extends RuntimeException {
+
+    private final MotivoRecusa motivo;
     
     public BusinessException(String message) {
+        this(message, MotivoRecusa.OUTRO);
+    }
+
+    public BusinessException(String message, MotivoRecusa motivo) {
         super(message);
+        this.motivo = motivo;
+    }
+
+    public MotivoRecusa getMotivo() {
+        return motivo;
     }
 }
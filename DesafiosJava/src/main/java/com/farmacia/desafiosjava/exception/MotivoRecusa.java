@@ -0,0 +1,22 @@
+package com.farmacia.desafiosjava.exception;
+
+import java.util.Locale;
+
+/**
+ * Motivo de recusa de uma operação de negócio, usado como tag das métricas (valores fixos,
+ * ao contrário da mensagem, que leva nomes e quantidades).
+ */
+public enum MotivoRecusa {
+    IDADE_MINIMA,
+    SEM_ITENS,
+    MEDICAMENTO_INATIVO,
+    ESTOQUE_INSUFICIENTE,
+    ESTOQUE_VENCIDO,
+    DISPUTA_LOCK,
+    CHAVE_IDEMPOTENCIA,
+    OUTRO;
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,10 +1,17 @@
 package com.farmacia.desafiosjava.repository;
 
 import com.farmacia.desafiosjava.domain.Categoria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
@@ -18,4 +25,18 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     boolean existsByNomeNormalizado(String nomeNormalizado);
 
     boolean existsByNomeNormalizadoAndIdNot(String nomeNormalizado, Long id);
+
+    // Listagem por cursor (keyset): registros com id maior que o cursor, em ordem de id
+    List<Categoria> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Listagem completa em streaming; o Stream deve ser consumido e fechado dentro da transação
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Categoria> streamAllByOrderByIdAsc();
+
+    // Maior antecedência de alerta de validade definida por categoria (nulo se nenhuma define)
+    @Query("SELECT MAX(c.diasAlertaValidade) FROM Categoria c")
+    Integer findMaiorDiasAlertaValidade();
 }
@@ -0,0 +1,40 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.domain.ChaveIdempotencia;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, ChaveIdempotencia.Chave> {
+
+    // Reserva a chave; 0 se ela já existe. Com a mesma chave ainda em uso por outra transação, o
+    // INSERT espera o fim dela: 1 se a outra venda falhou (rollback), 0 se foi gravada. A tabela
+    // afetada é declarada para o Hibernate não invalidar todo o cache de 2º nível (catálogo)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "vendas_idempotencia"))
+    @Query(value = "INSERT INTO vendas_idempotencia (usuario, chave, hash_requisicao, criado_em, expira_em) " +
+            "VALUES (:usuario, :chave, :hashRequisicao, :criadoEm, :expiraEm) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int reservar(String usuario, String chave, String hashRequisicao, LocalDateTime criadoEm, LocalDateTime expiraEm);
+
+    // Toma para a nova requisição uma chave vencida que a limpeza ainda não apagou; 0 se ela ainda vale.
+    // Como no INSERT, espera a transação que estiver tomando a mesma chave e reavalia o vencimento
+    @Modifying
+    @Query("UPDATE ChaveIdempotencia c SET c.hashRequisicao = :hashRequisicao, c.vendaId = null, c.criadoEm = :criadoEm, " +
+            "c.expiraEm = :expiraEm WHERE c.usuario = :usuario AND c.chave = :chave AND c.expiraEm < :criadoEm")
+    int assumirVencida(String usuario, String chave, String hashRequisicao, LocalDateTime criadoEm, LocalDateTime expiraEm);
+
+    @Modifying
+    @Query("UPDATE ChaveIdempotencia c SET c.vendaId = :vendaId WHERE c.usuario = :usuario AND c.chave = :chave")
+    int associarVenda(String usuario, String chave, Long vendaId);
+
+    @Modifying
+    @Query("DELETE FROM ChaveIdempotencia c WHERE c.expiraEm < :agora")
+    int deleteExpiradas(LocalDateTime agora);
+}
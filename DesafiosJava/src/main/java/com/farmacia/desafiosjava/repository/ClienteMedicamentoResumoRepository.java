@@ -0,0 +1,28 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.domain.ClienteMedicamentoResumo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ClienteMedicamentoResumoRepository extends JpaRepository<ClienteMedicamentoResumo, ClienteMedicamentoResumo.Chave> {
+
+    List<ClienteMedicamentoResumo> findByClienteIdAndMedicamentoIdIn(Long clienteId, Collection<Long> medicamentoIds);
+
+    // Cria, zeradas, as linhas dos medicamentos que o cliente ainda não tinha comprado (as demais ficam como estão)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cliente_medicamento_resumo"))
+    @Query(value = "INSERT INTO cliente_medicamento_resumo (cliente_id, medicamento_id, quantidade, valor_total, ultima_compra) " +
+            "SELECT :clienteId, m.id, 0, 0, :dataHora FROM medicamentos m WHERE m.id IN (:medicamentoIds) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int criarAusentes(Long clienteId, Collection<Long> medicamentoIds, LocalDateTime dataHora);
+}
@@ -0,0 +1,33 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.domain.ClienteResumo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ClienteResumoRepository extends JpaRepository<ClienteResumo, Long> {
+
+    // SELECT ... FOR UPDATE do resumo: vendas concorrentes do mesmo cliente esperam umas pelas outras.
+    // Travado depois dos resumos de estoque, sempre na mesma ordem em todas as vendas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ClienteResumo r WHERE r.clienteId = :clienteId")
+    Optional<ClienteResumo> findParaAtualizacao(Long clienteId);
+
+    // Cria o resumo na primeira compra do cliente. Com ON CONFLICT, duas primeiras compras simultâneas
+    // não falham: a segunda espera a primeira. A tabela afetada é declarada para o Hibernate não
+    // invalidar todo o cache de 2º nível (catálogo)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cliente_resumo"))
+    @Query(value = "INSERT INTO cliente_resumo (cliente_id, quantidade_compras, valor_total, atualizado_em) " +
+            "VALUES (:clienteId, 0, 0, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int criarSeAusente(Long clienteId);
+}
@@ -1,11 +1,15 @@
 package com.farmacia.desafiosjava.repository;
 
 import com.farmacia.desafiosjava.domain.Estoque;
+import com.farmacia.desafiosjava.dto.LoteVencimentoDTO;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +20,12 @@ public interface EstoqueRepository extends JpaRepository<Estoque, Long> {
     @Query("SELECT e FROM Estoque e WHERE e.medicamento.id = :medicamentoId AND e.ativo = true AND e.quantidadeDisponivel > 0 ORDER BY e.dataVencimento ASC, e.criadoEm ASC")
     List<Estoque> findEstoquesDisponiveis(Long medicamentoId);
 
+    // Lotes disponíveis de vários medicamentos com SELECT ... FOR UPDATE. A ordem por id garante que vendas concorrentes
+    // travem os lotes sempre na mesma sequência (sem deadlock); a ordem FIFO é refeita em memória
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Estoque e WHERE e.medicamento.id IN :medicamentoIds AND e.ativo = true AND e.quantidadeDisponivel > 0 ORDER BY e.id ASC")
+    List<Estoque> findEstoquesDisponiveisParaAtualizacao(Collection<Long> medicamentoIds);
+
     // Buscar todos os estoques de um medicamento (incluindo zerados)
     @Query("SELECT e FROM Estoque e WHERE e.medicamento.id = :medicamentoId ORDER BY e.dataVencimento ASC")
     List<Estoque> findAllByMedicamentoId(Long medicamentoId);
@@ -27,13 +37,23 @@ public interface EstoqueRepository extends JpaRepository<Estoque, Long> {
     @Query("SELECT e FROM Estoque e WHERE e.medicamento.id = :medicamentoId AND e.dataVencimento < :dataAtual AND e.quantidadeDisponivel > 0")
     List<Estoque> findEstoquesVencidos(Long medicamentoId, LocalDate dataAtual);
 
-    // Buscar entradas com vencimento próximo (para alertas)
-    @Query("SELECT e FROM Estoque e WHERE e.medicamento.ativo = true AND e.medicamento.deletado = false AND e.ativo = true AND e.quantidadeDisponivel > 0 AND e.dataVencimento BETWEEN :dataInicio AND :dataFim ORDER BY e.dataVencimento ASC")
-    List<Estoque> findEstoquesComVencimentoProximo(LocalDate dataInicio, LocalDate dataFim);
+    // Buscar lotes com vencimento próximo (para alertas), com a antecedência de alerta da categoria
+    // (ou diasPadrao); dataFim é o maior horizonte entre as categorias e o filtro fino fica com quem chama
+    @Query("SELECT new com.farmacia.desafiosjava.dto.LoteVencimentoDTO(m.id, m.nome, e.quantidadeDisponivel, e.dataVencimento, " +
+            "COALESCE(c.diasAlertaValidade, :diasPadrao)) " +
+            "FROM Estoque e JOIN e.medicamento m LEFT JOIN m.categoria c " +
+            "WHERE m.ativo = true AND m.deletado = false AND e.ativo = true AND e.quantidadeDisponivel > 0 " +
+            "AND e.dataVencimento BETWEEN :dataInicio AND :dataFim ORDER BY e.dataVencimento ASC, e.id ASC")
+    List<LoteVencimentoDTO> findEstoquesComVencimentoProximo(LocalDate dataInicio, LocalDate dataFim, Integer diasPadrao);
 
-    // Buscar entradas com estoque baixo (soma das quantidades < limite)
-    @Query("SELECT e FROM Estoque e WHERE e.medicamento.ativo = true AND e.medicamento.deletado = false AND e.ativo = true AND e.quantidadeDisponivel > 0 GROUP BY e.medicamento HAVING SUM(e.quantidadeDisponivel) < :limite")
-    List<Estoque> findEstoqueBaixo(Integer limite);
+    // Mesma consulta restrita a alguns medicamentos (atualização incremental dos alertas)
+    @Query("SELECT new com.farmacia.desafiosjava.dto.LoteVencimentoDTO(m.id, m.nome, e.quantidadeDisponivel, e.dataVencimento, " +
+            "COALESCE(c.diasAlertaValidade, :diasPadrao)) " +
+            "FROM Estoque e JOIN e.medicamento m LEFT JOIN m.categoria c " +
+            "WHERE m.id IN :medicamentoIds AND m.ativo = true AND m.deletado = false AND e.ativo = true AND e.quantidadeDisponivel > 0 " +
+            "AND e.dataVencimento BETWEEN :dataInicio AND :dataFim ORDER BY e.dataVencimento ASC, e.id ASC")
+    List<LoteVencimentoDTO> findEstoquesComVencimentoProximo(Collection<Long> medicamentoIds, LocalDate dataInicio,
+                                                            LocalDate dataFim, Integer diasPadrao);
 
     // Calcular quantidade total disponível de um medicamento
     @Query("SELECT COALESCE(SUM(e.quantidadeDisponivel), 0) FROM Estoque e WHERE e.medicamento.id = :medicamentoId AND e.ativo = true AND e.quantidadeDisponivel > 0")
@@ -0,0 +1,59 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.domain.EstoqueResumo;
+import com.farmacia.desafiosjava.dto.AlertaEstoqueBaixoDTO;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EstoqueResumoRepository extends JpaRepository<EstoqueResumo, Long> {
+
+    // SELECT ... FOR UPDATE dos resumos, sempre em ordem de medicamento: toda movimentação trava o resumo
+    // antes dos lotes, e movimentações concorrentes do mesmo medicamento esperam umas pelas outras
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM EstoqueResumo r WHERE r.medicamentoId IN :medicamentoIds ORDER BY r.medicamentoId ASC")
+    List<EstoqueResumo> findParaAtualizacao(Collection<Long> medicamentoIds);
+
+    // Cria os resumos que ainda não existem (medicamento nunca movimentado) a partir dos lotes.
+    // Com ON CONFLICT, duas transações criando o mesmo resumo não falham: a segunda espera a primeira.
+    // A tabela afetada é declarada para o Hibernate não invalidar todo o cache de 2º nível (catálogo)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "estoque_resumo"))
+    @Query(value = "INSERT INTO estoque_resumo (medicamento_id, quantidade_total, quantidade_nao_vencida, quantidade_lotes, " +
+            "primeiro_vencimento, data_referencia, atualizado_em) " +
+            "SELECT m.id, COALESCE(SUM(e.quantidade_disponivel), 0), " +
+            "COALESCE(SUM(CASE WHEN e.data_vencimento >= :hoje THEN e.quantidade_disponivel ELSE 0 END), 0), " +
+            "COUNT(e.id), MIN(e.data_vencimento), :hoje, CURRENT_TIMESTAMP " +
+            "FROM medicamentos m LEFT JOIN estoque e ON e.medicamento_id = m.id AND e.ativo = TRUE AND e.quantidade_disponivel > 0 " +
+            "WHERE m.id IN (:medicamentoIds) GROUP BY m.id " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int criarAusentes(Collection<Long> medicamentoIds, LocalDate hoje);
+
+    // Medicamentos ativos com estoque baixo (0 < saldo < limite), lidos do resumo. O limite é o da
+    // categoria do medicamento, ou o padrão quando a categoria não define (ou não há categoria)
+    @Query("SELECT new com.farmacia.desafiosjava.dto.AlertaEstoqueBaixoDTO(m.id, m.nome, r.quantidadeTotal, " +
+            "COALESCE(c.limiteEstoqueBaixo, :limitePadrao), m.preco) " +
+            "FROM EstoqueResumo r JOIN Medicamento m ON m.id = r.medicamentoId LEFT JOIN m.categoria c " +
+            "WHERE m.ativo = true AND m.deletado = false AND r.quantidadeTotal > 0 " +
+            "AND r.quantidadeTotal < COALESCE(c.limiteEstoqueBaixo, :limitePadrao)")
+    List<AlertaEstoqueBaixoDTO> findAlertasEstoqueBaixo(Integer limitePadrao);
+
+    // Mesma consulta restrita a alguns medicamentos (atualização incremental dos alertas)
+    @Query("SELECT new com.farmacia.desafiosjava.dto.AlertaEstoqueBaixoDTO(m.id, m.nome, r.quantidadeTotal, " +
+            "COALESCE(c.limiteEstoqueBaixo, :limitePadrao), m.preco) " +
+            "FROM EstoqueResumo r JOIN Medicamento m ON m.id = r.medicamentoId LEFT JOIN m.categoria c " +
+            "WHERE r.medicamentoId IN :medicamentoIds AND m.ativo = true AND m.deletado = false AND r.quantidadeTotal > 0 " +
+            "AND r.quantidadeTotal < COALESCE(c.limiteEstoqueBaixo, :limitePadrao)")
+    List<AlertaEstoqueBaixoDTO> findAlertasEstoqueBaixo(Collection<Long> medicamentoIds, Integer limitePadrao);
+}
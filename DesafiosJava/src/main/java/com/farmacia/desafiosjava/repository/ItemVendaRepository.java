@@ -1,9 +1,19 @@
 package com.farmacia.desafiosjava.repository;
 
 import com.farmacia.desafiosjava.domain.ItemVenda;
+import com.farmacia.desafiosjava.dto.ItemVendaLinhaDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ItemVendaRepository extends JpaRepository<ItemVenda, Long> {
+public interface ItemVendaRepository extends JpaRepository<ItemVenda, Long>, ItemVendaRepositoryCustom {
+
+    // Itens de várias vendas em uma única consulta, sem carregar as entidades Medicamento/Categoria
+    @Query("SELECT new com.farmacia.desafiosjava.dto.ItemVendaLinhaDTO(i.venda.id, i.id, m.id, m.nome, i.quantidade, i.precoUnitario) " +
+            "FROM ItemVenda i JOIN i.medicamento m WHERE i.venda.id IN :vendaIds ORDER BY i.venda.id, i.id")
+    List<ItemVendaLinhaDTO> findLinhasByVendaIdIn(Collection<Long> vendaIds);
 }
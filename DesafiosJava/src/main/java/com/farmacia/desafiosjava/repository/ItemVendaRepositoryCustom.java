@@ -0,0 +1,15 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.dto.ItemVendaExportacaoDTO;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface ItemVendaRepositoryCustom {
+
+    /**
+     * Itens das vendas com data e hora em [inicio, fim), em ordem de venda e item, lidos do cursor do
+     * banco {@code fetchSize} linhas por vez. O Stream deve ser consumido e fechado dentro da transação.
+     */
+    Stream<ItemVendaExportacaoDTO> streamExportacao(LocalDateTime inicio, LocalDateTime fim, int fetchSize);
+}
@@ -0,0 +1,29 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.dto.ItemVendaExportacaoDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+class ItemVendaRepositoryCustomImpl implements ItemVendaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<ItemVendaExportacaoDTO> streamExportacao(LocalDateTime inicio, LocalDateTime fim, int fetchSize) {
+        // Projeção: nenhuma entidade entra no contexto de persistência, a memória não cresce com o total de linhas
+        return entityManager.createQuery("SELECT new com.farmacia.desafiosjava.dto.ItemVendaExportacaoDTO(" +
+                        "v.id, v.dataHora, v.cliente.id, i.id, m.id, m.nome, i.quantidade, i.precoUnitario) " +
+                        "FROM ItemVenda i JOIN i.venda v JOIN i.medicamento m " +
+                        "WHERE v.dataHora >= :inicio AND v.dataHora < :fim " +
+                        "ORDER BY v.dataHora, v.id, i.id", ItemVendaExportacaoDTO.class)
+                .setParameter("inicio", inicio)
+                .setParameter("fim", fim)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+}
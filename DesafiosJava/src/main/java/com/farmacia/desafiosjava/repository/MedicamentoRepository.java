@@ -1,15 +1,23 @@
 package com.farmacia.desafiosjava.repository;
 
 import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.MedicamentoChaveDTO;
+import com.farmacia.desafiosjava.dto.MedicamentoTextoDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface MedicamentoRepository extends JpaRepository<Medicamento, Long> {
+public interface MedicamentoRepository extends JpaRepository<Medicamento, Long>, MedicamentoRepositoryCustom {
 
     Optional<Medicamento> findByNome(String nome);
 
@@ -27,6 +35,9 @@ public interface MedicamentoRepository extends JpaRepository<Medicamento, Long>
 
     boolean existsByNomeNormalizadoAndDosagemAndIdNot(String nomeNormalizado, String dosagem, Long id);
 
+    // Checagem de duplicados da importação: uma consulta por lote de linhas (inclui soft deleted, que mantêm a constraint)
+    List<MedicamentoChaveDTO> findChavesByNomeNormalizadoIn(Collection<String> nomesNormalizados);
+
     List<Medicamento> findByAtivoTrue();
 
     List<Medicamento> findByDeletadoFalse();
@@ -41,4 +52,24 @@ public interface MedicamentoRepository extends JpaRepository<Medicamento, Long>
 
     @Query("SELECT COUNT(m) > 0 FROM Medicamento m JOIN MovimentacaoEstoque me ON me.medicamento.id = m.id WHERE m.id = :medicamentoId")
     boolean temMovimentacoes(Long medicamentoId);
+
+    // Listagem por cursor (keyset): registros com id maior que o cursor, em ordem de id
+    List<Medicamento> findByDeletadoFalseAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Listagem completa em streaming; o Stream deve ser consumido e fechado dentro da transação
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Medicamento> streamByDeletadoFalseOrderByIdAsc();
+
+    // Textos do catálogo para o índice de busca, sem carregar as entidades
+    @Query("SELECT new com.farmacia.desafiosjava.dto.MedicamentoTextoDTO(m.id, m.nomeNormalizado, m.dosagem, m.descricao) " +
+            "FROM Medicamento m WHERE m.deletado = false")
+    List<MedicamentoTextoDTO> findTextosBusca();
+
+    // Mesma consulta restrita a alguns medicamentos (atualização incremental do índice)
+    @Query("SELECT new com.farmacia.desafiosjava.dto.MedicamentoTextoDTO(m.id, m.nomeNormalizado, m.dosagem, m.descricao) " +
+            "FROM Medicamento m WHERE m.id IN :ids AND m.deletado = false")
+    List<MedicamentoTextoDTO> findTextosBusca(Collection<Long> ids);
 }
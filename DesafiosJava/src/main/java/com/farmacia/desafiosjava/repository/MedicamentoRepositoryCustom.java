@@ -0,0 +1,15 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.domain.Medicamento;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MedicamentoRepositoryCustom {
+
+    /**
+     * Carrega vários medicamentos pelo id consultando antes o cache de 2º nível;
+     * só os ausentes do cache são buscados no banco, em um único SELECT.
+     */
+    List<Medicamento> findAllByIdUsandoCache(Collection<Long> ids);
+}
@@ -1,15 +1,30 @@
 package com.farmacia.desafiosjava.repository;
 
 import com.farmacia.desafiosjava.domain.MovimentacaoEstoque;
+import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueResponseDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface MovimentacaoEstoqueRepository extends JpaRepository<MovimentacaoEstoque, Long> {
+public interface MovimentacaoEstoqueRepository extends JpaRepository<MovimentacaoEstoque, Long>, MovimentacaoEstoqueRepositoryCustom {
 
     List<MovimentacaoEstoque> findByMedicamentoIdOrderByDataMovimentacaoDesc(Long medicamentoId);
 
+    // Histórico do medicamento a partir de inicio, do mais recente para o mais antigo, por cursor (keyset):
+    // entram as movimentações antes de fim e, no próprio instante fim, as de id menor que idLimite.
+    // O filtro por período faz o PostgreSQL ler só as partições mensais envolvidas.
+    @Query("SELECT new com.farmacia.desafiosjava.dto.MovimentacaoEstoqueResponseDTO(m.id, m.tipo, m.quantidade, m.dataMovimentacao, m.observacao) " +
+            "FROM MovimentacaoEstoque m " +
+            "WHERE m.medicamento.id = :medicamentoId AND m.dataMovimentacao >= :inicio AND m.dataMovimentacao <= :fim " +
+            "AND (m.dataMovimentacao < :fim OR m.id < :idLimite) " +
+            "ORDER BY m.dataMovimentacao DESC, m.id DESC")
+    List<MovimentacaoEstoqueResponseDTO> findHistorico(Long medicamentoId, LocalDateTime inicio, LocalDateTime fim,
+                                                       Long idLimite, Limit limit);
+
     void deleteByMedicamentoId(Long medicamentoId);
 }
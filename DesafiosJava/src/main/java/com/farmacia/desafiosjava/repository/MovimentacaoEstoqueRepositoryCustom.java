@@ -0,0 +1,15 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.dto.MovimentacaoExportacaoDTO;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface MovimentacaoEstoqueRepositoryCustom {
+
+    /**
+     * Movimentações com data em [inicio, fim), em ordem de id, lidas do cursor do banco
+     * {@code fetchSize} linhas por vez. O Stream deve ser consumido e fechado dentro da transação.
+     */
+    Stream<MovimentacaoExportacaoDTO> streamExportacao(LocalDateTime inicio, LocalDateTime fim, int fetchSize);
+}
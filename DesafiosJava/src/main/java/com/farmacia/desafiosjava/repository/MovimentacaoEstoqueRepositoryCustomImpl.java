@@ -0,0 +1,30 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.dto.MovimentacaoExportacaoDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+class MovimentacaoEstoqueRepositoryCustomImpl implements MovimentacaoEstoqueRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<MovimentacaoExportacaoDTO> streamExportacao(LocalDateTime inicio, LocalDateTime fim, int fetchSize) {
+        // O período limita as partições mensais lidas; em ordem de id, o PostgreSQL percorre a chave
+        // primária de cada partição em vez de ordenar milhões de linhas antes de entregar a primeira
+        return entityManager.createQuery("SELECT new com.farmacia.desafiosjava.dto.MovimentacaoExportacaoDTO(" +
+                        "mov.id, mov.dataMovimentacao, m.id, m.nome, mov.tipo, mov.quantidade, mov.observacao) " +
+                        "FROM MovimentacaoEstoque mov JOIN mov.medicamento m " +
+                        "WHERE mov.dataMovimentacao >= :inicio AND mov.dataMovimentacao < :fim " +
+                        "ORDER BY mov.id", MovimentacaoExportacaoDTO.class)
+                .setParameter("inicio", inicio)
+                .setParameter("fim", fim)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+}
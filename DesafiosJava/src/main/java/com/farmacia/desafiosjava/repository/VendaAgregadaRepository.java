@@ -0,0 +1,47 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.domain.VendaAgregada;
+import com.farmacia.desafiosjava.dto.PontoSerieVendasDTO;
+import com.farmacia.desafiosjava.dto.RankingVendasDTO;
+import com.farmacia.desafiosjava.dto.ResumoVendasDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas dos relatórios de vendas. Um período [inicio, fim) é lido como dias iniciais
+ * [inicio, inicioMeses), meses inteiros [inicioMeses, fimMeses) e dias finais [fimMeses, fim):
+ * poucas linhas por chave mesmo em períodos de anos.
+ */
+@Repository
+public interface VendaAgregadaRepository extends JpaRepository<VendaAgregada, VendaAgregada.Chave>, VendaAgregadaRepositoryCustom {
+
+    String FAIXAS = "((a.granularidade = com.farmacia.desafiosjava.domain.VendaAgregada.Granularidade.DIA " +
+            "AND a.periodo >= :inicio AND a.periodo < :inicioMeses) " +
+            "OR (a.granularidade = com.farmacia.desafiosjava.domain.VendaAgregada.Granularidade.MES " +
+            "AND a.periodo >= :inicioMeses AND a.periodo < :fimMeses) " +
+            "OR (a.granularidade = com.farmacia.desafiosjava.domain.VendaAgregada.Granularidade.DIA " +
+            "AND a.periodo >= :fimMeses AND a.periodo < :fim))";
+
+    @Query("SELECT new com.farmacia.desafiosjava.dto.ResumoVendasDTO(SUM(a.vendas), SUM(a.unidades), SUM(a.receita)) " +
+            "FROM VendaAgregada a WHERE a.dimensao = :dimensao AND a.chave = :chave AND " + FAIXAS)
+    ResumoVendasDTO somar(VendaAgregada.Dimensao dimensao, Long chave, LocalDateTime inicio,
+                          LocalDateTime inicioMeses, LocalDateTime fimMeses, LocalDateTime fim);
+
+    @Query("SELECT new com.farmacia.desafiosjava.dto.RankingVendasDTO(a.chave, SUM(a.vendas), SUM(a.unidades), SUM(a.receita)) " +
+            "FROM VendaAgregada a WHERE a.dimensao = :dimensao AND " + FAIXAS + " " +
+            "GROUP BY a.chave ORDER BY SUM(a.receita) DESC, a.chave")
+    List<RankingVendasDTO> ranking(VendaAgregada.Dimensao dimensao, LocalDateTime inicio, LocalDateTime inicioMeses,
+                                   LocalDateTime fimMeses, LocalDateTime fim, Limit limit);
+
+    // Soma as fatias de cada período
+    @Query("SELECT new com.farmacia.desafiosjava.dto.PontoSerieVendasDTO(a.periodo, SUM(a.vendas), SUM(a.unidades), SUM(a.receita)) " +
+            "FROM VendaAgregada a WHERE a.dimensao = :dimensao AND a.chave = :chave AND a.granularidade = :granularidade " +
+            "AND a.periodo >= :inicio AND a.periodo < :fim GROUP BY a.periodo ORDER BY a.periodo")
+    List<PontoSerieVendasDTO> serie(VendaAgregada.Dimensao dimensao, Long chave, VendaAgregada.Granularidade granularidade,
+                                    LocalDateTime inicio, LocalDateTime fim);
+}
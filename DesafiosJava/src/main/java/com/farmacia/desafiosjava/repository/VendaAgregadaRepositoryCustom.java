@@ -0,0 +1,23 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.domain.VendaAgregada;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface VendaAgregadaRepositoryCustom {
+
+    /**
+     * Soma as parcelas (vendas, unidades e receita) às linhas das respectivas chaves, criando as que
+     * ainda não existem: dois comandos em batch, qualquer que seja a quantidade de parcelas.
+     */
+    void acumular(List<VendaAgregada> parcelas);
+
+    /**
+     * Apaga as linhas de todas as granularidades com período em [inicio, fim) e as calcula de novo a
+     * partir de vendas e itens_venda. Os limites devem ser inícios de mês.
+     *
+     * @return quantidade de linhas gravadas
+     */
+    int reconstruir(LocalDateTime inicio, LocalDateTime fim);
+}
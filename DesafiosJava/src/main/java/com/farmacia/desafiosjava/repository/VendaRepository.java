@@ -1,13 +1,51 @@
 package com.farmacia.desafiosjava.repository;
 
 import com.farmacia.desafiosjava.domain.Venda;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VendaRepository extends JpaRepository<Venda, Long> {
 
+    // As consultas de leitura trazem o cliente no mesmo SELECT; os itens vêm de ItemVendaRepository.findLinhasByVendaIdIn
+    @EntityGraph(attributePaths = "cliente")
     List<Venda> findByClienteIdOrderByDataHoraDesc(Long clienteId);
+
+    @EntityGraph(attributePaths = "cliente")
+    Optional<Venda> findComClienteById(Long id);
+
+    // Histórico do cliente por cursor (data e id da última venda entregue), pelo índice idx_vendas_cliente_data_hora
+    @EntityGraph(attributePaths = "cliente")
+    List<Venda> findByClienteIdOrderByDataHoraDescIdDesc(Long clienteId, Limit limit);
+
+    @EntityGraph(attributePaths = "cliente")
+    @Query("SELECT v FROM Venda v WHERE v.cliente.id = :clienteId AND v.dataHora <= :dataHora " +
+            "AND (v.dataHora < :dataHora OR v.id < :idLimite) ORDER BY v.dataHora DESC, v.id DESC")
+    List<Venda> findHistoricoCliente(Long clienteId, LocalDateTime dataHora, Long idLimite, Limit limit);
+
+    @EntityGraph(attributePaths = "cliente")
+    List<Venda> findAllByOrderByIdAsc();
+
+    // Listagem por cursor (keyset): registros com id maior que o cursor, em ordem de id
+    @EntityGraph(attributePaths = "cliente")
+    List<Venda> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Listagem completa em streaming; o Stream deve ser consumido e fechado dentro da transação
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(attributePaths = "cliente")
+    Stream<Venda> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,65 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Estoque;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.exception.MotivoRecusa;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Regras de alocação FIFO sobre lotes já carregados em memória.
+ * Os lotes devem chegar ordenados por data de vencimento e data de criação.
+ */
+final class AlocadorFifo {
+
+    private AlocadorFifo() {
+    }
+
+    static int quantidadeNaoVencida(List<Estoque> lotes, LocalDate hoje) {
+        int total = 0;
+        for (Estoque lote : lotes) {
+            if (!lote.getDataVencimento().isBefore(hoje)) {
+                total += lote.getQuantidadeDisponivel();
+            }
+        }
+        return total;
+    }
+
+    static boolean possuiVencidos(List<Estoque> lotes, LocalDate hoje) {
+        for (Estoque lote : lotes) {
+            if (lote.getDataVencimento().isBefore(hoje) && lote.getQuantidadeDisponivel() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Baixa a quantidade dos lotes elegíveis em ordem FIFO, alterando as entidades em memória.
+     *
+     * @return lotes que tiveram a quantidade alterada
+     */
+    static List<Estoque> alocar(List<Estoque> lotes, int quantidade, Predicate<Estoque> elegivel) {
+        List<Estoque> alterados = new ArrayList<>();
+        int quantidadeRestante = quantidade;
+
+        for (Estoque lote : lotes) {
+            if (quantidadeRestante <= 0) break;
+            if (lote.getQuantidadeDisponivel() <= 0 || !elegivel.test(lote)) continue;
+
+            int baixa = Math.min(lote.getQuantidadeDisponivel(), quantidadeRestante);
+            lote.setQuantidadeDisponivel(lote.getQuantidadeDisponivel() - baixa);
+            quantidadeRestante -= baixa;
+            alterados.add(lote);
+        }
+
+        if (quantidadeRestante > 0) {
+            throw new BusinessException("Estoque insuficiente. Faltam " + quantidadeRestante + " unidades", MotivoRecusa.ESTOQUE_INSUFICIENTE);
+        }
+
+        return alterados;
+    }
+}
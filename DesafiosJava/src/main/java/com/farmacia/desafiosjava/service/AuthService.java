@@ -4,15 +4,24 @@ import com.farmacia.desafiosjava.config.JwtUtil;
 import com.farmacia.desafiosjava.domain.Usuario;
 import com.farmacia.desafiosjava.dto.LoginRequestDTO;
 import com.farmacia.desafiosjava.dto.LoginResponseDTO;
+import com.farmacia.desafiosjava.event.UsuarioAlteradoEvent;
 import com.farmacia.desafiosjava.exception.BusinessException;
 import com.farmacia.desafiosjava.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -21,18 +30,37 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
-    @Transactional
+    // Sem transação: a consulta do usuário tem a própria, e a conexão não fica presa durante o BCrypt.
+    // A autenticação (consulta do usuário + BCrypt) é medida no timer farmacia.auth.login
     public LoginResponseDTO login(LoginRequestDTO request) {
+        Authentication authentication;
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "erro";
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getSenha())
             );
+            resultado = "sucesso";
+        } catch (InternalAuthenticationServiceException e) {
+            // Falha ao consultar o usuário (ex.: nenhuma conexão livre no pool), não credencial inválida
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
         } catch (Exception e) {
+            resultado = "credenciais_invalidas";
             throw new BusinessException("Credenciais inválidas");
+        } finally {
+            amostra.stop(meterRegistry.timer("farmacia.auth.login", "resultado", resultado));
         }
 
-        String token = jwtUtil.generateToken(request.getUsername());
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        String token = jwtUtil.generateToken(request.getUsername(), roles);
         return new LoginResponseDTO(token, "Bearer", request.getUsername());
     }
 
@@ -48,5 +76,7 @@ public class AuthService {
         usuario.setRole("USER");
 
         usuarioRepository.save(usuario);
+        // Descartado só após o commit: antes dele, outra requisição poderia recolocar no cache o estado anterior
+        eventPublisher.publishEvent(new UsuarioAlteradoEvent(usuario.getUsername()));
     }
 }
@@ -3,16 +3,22 @@ package com.farmacia.desafiosjava.service;
 import com.farmacia.desafiosjava.domain.Categoria;
 import com.farmacia.desafiosjava.dto.CategoriaRequestDTO;
 import com.farmacia.desafiosjava.dto.CategoriaResponseDTO;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
+import com.farmacia.desafiosjava.event.CategoriaAlteradaEvent;
 import com.farmacia.desafiosjava.exception.BusinessException;
 import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
 import com.farmacia.desafiosjava.repository.CategoriaRepository;
 import com.farmacia.desafiosjava.repository.MedicamentoRepository;
 import com.farmacia.desafiosjava.util.StringUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +27,8 @@ public class CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
     private final MedicamentoRepository medicamentoRepository;
+    private final ListagemStreaming listagemStreaming;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CategoriaResponseDTO criar(CategoriaRequestDTO request) {
@@ -32,8 +40,14 @@ public class CategoriaService {
 
         Categoria categoria = new Categoria();
         categoria.setNome(request.getNome());
+        categoria.setLimiteEstoqueBaixo(request.getLimiteEstoqueBaixo());
+        categoria.setDiasAlertaValidade(request.getDiasAlertaValidade());
 
         categoria = categoriaRepository.save(categoria);
+        // Sem medicamentos ainda, mas a antecedência pode ampliar a faixa de vencimentos lida pelos alertas
+        if (categoria.getDiasAlertaValidade() != null) {
+            eventPublisher.publishEvent(new CategoriaAlteradaEvent(categoria.getId()));
+        }
         return toResponseDTO(categoria);
     }
 
@@ -44,6 +58,18 @@ public class CategoriaService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<CategoriaResponseDTO> listarPagina(Long after, int limit) {
+        int tamanho = ListagemStreaming.validarLimite(limit);
+        List<Categoria> registros = categoriaRepository.findByIdGreaterThanOrderByIdAsc(ListagemStreaming.cursorInicial(after), Limit.of(tamanho + 1));
+        return PaginaCursorDTO.de(registros, tamanho, Categoria::getId, this::toResponseDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarTodas(Consumer<CategoriaResponseDTO> destino) {
+        listagemStreaming.percorrer(categoriaRepository.streamAllByOrderByIdAsc(), this::toResponseDTO, destino);
+    }
+
     @Transactional(readOnly = true)
     public CategoriaResponseDTO buscarPorId(Long id) {
         Categoria categoria = categoriaRepository.findById(id)
@@ -63,8 +89,18 @@ public class CategoriaService {
             throw new BusinessException("Já existe uma categoria com este nome (independente de acentos ou maiúsculas/minúsculas)");
         }
 
+        // Os limites valem para os medicamentos já vinculados: alterá-los muda os alertas
+        boolean limitesAlterados = !Objects.equals(categoria.getLimiteEstoqueBaixo(), request.getLimiteEstoqueBaixo())
+                || !Objects.equals(categoria.getDiasAlertaValidade(), request.getDiasAlertaValidade());
+
         categoria.setNome(request.getNome());
+        categoria.setLimiteEstoqueBaixo(request.getLimiteEstoqueBaixo());
+        categoria.setDiasAlertaValidade(request.getDiasAlertaValidade());
         categoria = categoriaRepository.save(categoria);
+
+        if (limitesAlterados) {
+            eventPublisher.publishEvent(new CategoriaAlteradaEvent(id));
+        }
         return toResponseDTO(categoria);
     }
 
@@ -83,6 +119,7 @@ public class CategoriaService {
     }
 
     private CategoriaResponseDTO toResponseDTO(Categoria categoria) {
-        return new CategoriaResponseDTO(categoria.getId(), categoria.getNome());
+        return new CategoriaResponseDTO(categoria.getId(), categoria.getNome(),
+                categoria.getLimiteEstoqueBaixo(), categoria.getDiasAlertaValidade());
     }
 }
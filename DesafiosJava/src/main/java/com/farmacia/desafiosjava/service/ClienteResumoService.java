@@ -0,0 +1,79 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.ClienteMedicamentoResumo;
+import com.farmacia.desafiosjava.domain.ClienteResumo;
+import com.farmacia.desafiosjava.domain.ItemVenda;
+import com.farmacia.desafiosjava.domain.Venda;
+import com.farmacia.desafiosjava.dto.ClienteResumoDTO;
+import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
+import com.farmacia.desafiosjava.repository.ClienteMedicamentoResumoRepository;
+import com.farmacia.desafiosjava.repository.ClienteRepository;
+import com.farmacia.desafiosjava.repository.ClienteResumoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ClienteResumoService {
+
+    private final ClienteResumoRepository clienteResumoRepository;
+    private final ClienteMedicamentoResumoRepository clienteMedicamentoResumoRepository;
+    private final ClienteRepository clienteRepository;
+
+    /**
+     * Soma uma venda já gravada ao resumo do cliente, na transação da venda. A linha do resumo fica
+     * travada até o commit; os totais por medicamento são atualizados sob esse lock.
+     */
+    @Transactional
+    public void registrarVenda(Venda venda) {
+        Long clienteId = venda.getCliente().getId();
+        ClienteResumo resumo = travarResumo(clienteId);
+        Map<Long, ClienteMedicamentoResumo> acumulados = carregarAcumulados(venda);
+
+        for (ItemVenda item : venda.getItensVenda()) {
+            acumulados.get(item.getMedicamento().getId()).registrarItem(item, venda.getDataHora());
+        }
+        resumo.registrarVenda(venda, acumulados.values());
+    }
+
+    /**
+     * Resumo das compras do cliente: uma leitura pela chave primária.
+     */
+    @Transactional(readOnly = true)
+    public ClienteResumoDTO buscar(Long clienteId) {
+        return clienteResumoRepository.findById(clienteId)
+                .map(ClienteResumoDTO::de)
+                .orElseGet(() -> {
+                    // Sem resumo: distingue "sem compras" de "cliente inexistente"
+                    if (!clienteRepository.existsById(clienteId)) {
+                        throw new ResourceNotFoundException("Cliente não encontrado");
+                    }
+                    return ClienteResumoDTO.semCompras(clienteId);
+                });
+    }
+
+    private ClienteResumo travarResumo(Long clienteId) {
+        return clienteResumoRepository.findParaAtualizacao(clienteId).orElseGet(() -> {
+            clienteResumoRepository.criarSeAusente(clienteId);
+            return clienteResumoRepository.findParaAtualizacao(clienteId).orElseThrow();
+        });
+    }
+
+    private Map<Long, ClienteMedicamentoResumo> carregarAcumulados(Venda venda) {
+        Long clienteId = venda.getCliente().getId();
+        Set<Long> medicamentoIds = venda.getItensVenda().stream()
+                .map(item -> item.getMedicamento().getId())
+                .collect(Collectors.toSet());
+        // Dois comandos por venda, qualquer que seja a cesta: cria as linhas que faltam (ON CONFLICT
+        // ignora as existentes) e lê todas
+        clienteMedicamentoResumoRepository.criarAusentes(clienteId, medicamentoIds, venda.getDataHora());
+        return clienteMedicamentoResumoRepository.findByClienteIdAndMedicamentoIdIn(clienteId, medicamentoIds).stream()
+                .collect(Collectors.toMap(ClienteMedicamentoResumo::getMedicamentoId, Function.identity()));
+    }
+}
@@ -4,16 +4,19 @@ import com.farmacia.desafiosjava.domain.Cliente;
 import com.farmacia.desafiosjava.dto.ClienteCreateResponseDTO;
 import com.farmacia.desafiosjava.dto.ClienteRequestDTO;
 import com.farmacia.desafiosjava.dto.ClienteResponseDTO;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
 import com.farmacia.desafiosjava.exception.BusinessException;
 import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
 import com.farmacia.desafiosjava.repository.ClienteRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +24,7 @@ import java.util.stream.Collectors;
 public class ClienteService {
 
     private final ClienteRepository clienteRepository;
+    private final ListagemStreaming listagemStreaming;
 
     @Transactional
     public ClienteCreateResponseDTO criar(ClienteRequestDTO request) {
@@ -117,6 +121,18 @@ public class ClienteService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ClienteResponseDTO> listarPagina(Long after, int limit) {
+        int tamanho = ListagemStreaming.validarLimite(limit);
+        List<Cliente> registros = clienteRepository.findByIdGreaterThanOrderByIdAsc(ListagemStreaming.cursorInicial(after), Limit.of(tamanho + 1));
+        return PaginaCursorDTO.de(registros, tamanho, Cliente::getId, this::toResponseDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarTodos(Consumer<ClienteResponseDTO> destino) {
+        listagemStreaming.percorrer(clienteRepository.streamAllByOrderByIdAsc(), this::toResponseDTO, destino);
+    }
+
     @Transactional(readOnly = true)
     public ClienteResponseDTO buscarPorId(Long id) {
         Cliente cliente = clienteRepository.findById(id)
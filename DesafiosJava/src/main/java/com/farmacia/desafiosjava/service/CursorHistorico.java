@@ -0,0 +1,27 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.exception.BusinessException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Posição em um histórico listado do mais recente para o mais antigo (data e id do último registro
+ * entregue), no formato {@code <data ISO>_<id>}.
+ */
+record CursorHistorico(LocalDateTime dataHora, long id) {
+
+    static CursorHistorico ler(String texto) {
+        int separador = texto.lastIndexOf('_');
+        try {
+            return new CursorHistorico(LocalDateTime.parse(texto.substring(0, Math.max(separador, 0))),
+                    Long.parseLong(texto.substring(separador + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new BusinessException("Cursor inválido: " + texto);
+        }
+    }
+
+    String texto() {
+        return dataHora + "_" + id;
+    }
+}
@@ -1,27 +1,51 @@
 package com.farmacia.desafiosjava.service;
 
 import com.farmacia.desafiosjava.domain.Usuario;
+import com.farmacia.desafiosjava.event.UsuarioAlteradoEvent;
 import com.farmacia.desafiosjava.repository.UsuarioRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.Collections;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
 
+    // Principals das requisições autenticadas por JWT, sem a senha; acertos e falhas publicados como cache.* {cache=principals}
+    private final Cache<String, UserDetails> principals;
+
+    public CustomUserDetailsService(UsuarioRepository usuarioRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${seguranca.principal-cache.ttl-segundos:60}") long ttlSegundos,
+                                    @Value("${seguranca.principal-cache.tamanho-maximo:10000}") long tamanhoMaximo) {
+        this.usuarioRepository = usuarioRepository;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumSize(tamanhoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    /**
+     * Usado no login: sempre vai ao banco, pois precisa da senha atual para conferir as credenciais.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
+        Usuario usuario = buscarUsuario(username);
 
         return new User(
                 usuario.getUsername(),
@@ -29,4 +53,36 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + usuario.getRole()))
         );
     }
+
+    /**
+     * Usado a cada requisição autenticada por token: o principal fica em cache por alguns segundos,
+     * evitando um SELECT em usuarios por chamada à API.
+     */
+    public UserDetails carregarPrincipal(String username) throws UsernameNotFoundException {
+        return principals.get(username, chave -> {
+            Usuario usuario = buscarUsuario(chave);
+            return new User(
+                    usuario.getUsername(),
+                    "",
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + usuario.getRole()))
+            );
+        });
+    }
+
+    /**
+     * Deve ser chamado sempre que o usuário for criado, removido ou tiver o papel alterado.
+     */
+    public void invalidarPrincipal(String username) {
+        principals.invalidate(username);
+    }
+
+    @TransactionalEventListener
+    public void aoAlterarUsuario(UsuarioAlteradoEvent evento) {
+        invalidarPrincipal(evento.username());
+    }
+
+    private Usuario buscarUsuario(String username) {
+        return usuarioRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
+    }
 }
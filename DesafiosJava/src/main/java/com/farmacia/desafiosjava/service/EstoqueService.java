@@ -1,29 +1,64 @@
 package com.farmacia.desafiosjava.service;
 
 import com.farmacia.desafiosjava.domain.Estoque;
+import com.farmacia.desafiosjava.domain.EstoqueResumo;
+import com.farmacia.desafiosjava.domain.ItemVenda;
 import com.farmacia.desafiosjava.domain.Medicamento;
 import com.farmacia.desafiosjava.domain.MovimentacaoEstoque;
 import com.farmacia.desafiosjava.dto.EstoqueResponseDTO;
+import com.farmacia.desafiosjava.dto.HistoricoMovimentacoesDTO;
 import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueRequestDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueResponseDTO;
 import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.event.EstoqueAlteradoEvent;
+import com.farmacia.desafiosjava.exception.MotivoRecusa;
 import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
 import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import com.farmacia.desafiosjava.repository.EstoqueResumoRepository;
 import com.farmacia.desafiosjava.repository.MedicamentoRepository;
 import com.farmacia.desafiosjava.repository.MovimentacaoEstoqueRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class EstoqueService {
 
     private final EstoqueRepository estoqueRepository;
+    private final EstoqueResumoRepository estoqueResumoRepository;
     private final MedicamentoRepository medicamentoRepository;
     private final MovimentacaoEstoqueRepository movimentacaoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    // Período do histórico de movimentações quando não informado, e o maior aceito em uma consulta
+    static final int PERIODO_PADRAO_DIAS = 30;
+    static final int PERIODO_MAXIMO_DIAS = 366;
+
+    private static final Comparator<Estoque> ORDEM_FIFO = Comparator
+            .comparing(Estoque::getDataVencimento)
+            .thenComparing(Estoque::getCriadoEm)
+            .thenComparing(Estoque::getId);
 
     @Transactional
     public EstoqueResponseDTO registrarEntrada(MovimentacaoEstoqueRequestDTO request) {
@@ -35,6 +70,8 @@ public class EstoqueService {
             throw new BusinessException("Data de vencimento deve ser futura");
         }
 
+        EstoqueResumo resumo = travarResumos(Set.of(medicamento.getId())).get(medicamento.getId());
+
         // Gerar número de lote se não fornecido
         String numeroLote = request.getObservacao() != null && !request.getObservacao().isEmpty()
             ? request.getObservacao()
@@ -49,6 +86,7 @@ public class EstoqueService {
         estoque.setAtivo(true);
 
         estoque = estoqueRepository.save(estoque);
+        resumo.registrarEntrada(estoque.getQuantidadeDisponivel(), estoque.getDataVencimento(), LocalDate.now());
 
         // Registrar movimentação
         MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
@@ -58,6 +96,8 @@ public class EstoqueService {
         movimentacao.setObservacao("Lote: " + numeroLote + " - Vencimento: " + request.getDataVencimento());
         movimentacaoRepository.save(movimentacao);
 
+        eventPublisher.publishEvent(EstoqueAlteradoEvent.lotesAlterados(List.of(estoque)));
+
         return toResponseDTO(estoque);
     }
 
@@ -66,14 +106,15 @@ public class EstoqueService {
         Medicamento medicamento = medicamentoRepository.findById(request.getMedicamentoId())
                 .orElseThrow(() -> new ResourceNotFoundException("Medicamento não encontrado"));
 
-        // Verificar estoque total disponível
-        Integer quantidadeTotal = estoqueRepository.calcularQuantidadeTotal(request.getMedicamentoId());
+        // Verificar estoque total disponível (o resumo travado tem o saldo exato do medicamento)
+        EstoqueResumo resumo = travarResumos(Set.of(medicamento.getId())).get(medicamento.getId());
+        Integer quantidadeTotal = resumo.getQuantidadeTotal();
         if (quantidadeTotal < request.getQuantidade()) {
-            throw new BusinessException("Estoque insuficiente. Disponível: " + quantidadeTotal);
+            throw new BusinessException("Estoque insuficiente. Disponível: " + quantidadeTotal, MotivoRecusa.ESTOQUE_INSUFICIENTE);
         }
 
         // Baixar estoque usando FIFO
-        baixarEstoqueFIFO(request.getMedicamentoId(), request.getQuantidade());
+        List<Estoque> lotesAlterados = baixarEstoqueFIFO(resumo, request.getQuantidade());
 
         // Registrar movimentação
         MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
@@ -83,6 +124,8 @@ public class EstoqueService {
         movimentacao.setObservacao(request.getObservacao());
         movimentacaoRepository.save(movimentacao);
 
+        eventPublisher.publishEvent(EstoqueAlteradoEvent.lotesAlterados(lotesAlterados));
+
         // Retornar primeiro estoque disponível como resposta
         List<Estoque> estoquesDisponiveis = estoqueRepository.findEstoquesDisponiveis(request.getMedicamentoId());
         if (!estoquesDisponiveis.isEmpty()) {
@@ -110,74 +153,217 @@ public class EstoqueService {
         Medicamento medicamento = medicamentoRepository.findById(medicamentoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Medicamento não encontrado"));
 
-        Integer quantidadeTotal = estoqueRepository.calcularQuantidadeTotal(medicamentoId);
-
-        // Buscar data de vencimento mais próxima
-        List<Estoque> estoquesDisponiveis = estoqueRepository.findEstoquesDisponiveis(medicamentoId);
-        LocalDate dataVencimento = estoquesDisponiveis.isEmpty() ? null : estoquesDisponiveis.getFirst().getDataVencimento();
+        Integer quantidadeTotal;
+        LocalDate dataVencimento;
+        Optional<EstoqueResumo> resumo = estoqueResumoRepository.findById(medicamentoId);
+        if (resumo.isPresent()) {
+            quantidadeTotal = resumo.get().getQuantidadeTotal();
+            dataVencimento = resumo.get().getPrimeiroVencimento();
+        } else {
+            // Medicamento ainda sem resumo (nunca movimentado): soma os lotes
+            quantidadeTotal = estoqueRepository.calcularQuantidadeTotal(medicamentoId);
+            List<Estoque> estoquesDisponiveis = estoqueRepository.findEstoquesDisponiveis(medicamentoId);
+            dataVencimento = estoquesDisponiveis.isEmpty() ? null : estoquesDisponiveis.getFirst().getDataVencimento();
+        }
 
         return new EstoqueResponseDTO(null, medicamento.getId(), medicamento.getNome(), quantidadeTotal, dataVencimento);
     }
 
-    @Transactional
-    public void baixarEstoque(Long medicamentoId, Integer quantidade) {
-        baixarEstoqueFIFO(medicamentoId, quantidade);
+    /**
+     * Histórico de movimentações do medicamento entre {@code de} e {@code ate} (inclusive), da mais
+     * recente para a mais antiga, em páginas de até {@code limit} registros. O período é limitado
+     * para que a consulta leia só as partições mensais necessárias; sem datas, usa os últimos
+     * {@value #PERIODO_PADRAO_DIAS} dias.
+     */
+    @Transactional(readOnly = true)
+    public HistoricoMovimentacoesDTO buscarMovimentacoes(Long medicamentoId, LocalDate de, LocalDate ate, String after, int limit) {
+        if (!medicamentoRepository.existsById(medicamentoId)) {
+            throw new ResourceNotFoundException("Medicamento não encontrado");
+        }
 
-        // Registrar movimentação de venda
-        Medicamento medicamento = medicamentoRepository.findById(medicamentoId)
-                .orElseThrow(() -> new ResourceNotFoundException("Medicamento não encontrado"));
+        int tamanho = ListagemStreaming.validarLimite(limit);
+        LocalDate ultimoDia = ate != null ? ate : LocalDate.now();
+        LocalDate primeiroDia = de != null ? de : ultimoDia.minusDays(PERIODO_PADRAO_DIAS - 1);
+        if (primeiroDia.isAfter(ultimoDia)) {
+            throw new BusinessException("A data inicial (de) deve ser anterior ou igual à data final (ate)");
+        }
+        if (ChronoUnit.DAYS.between(primeiroDia, ultimoDia) >= PERIODO_MAXIMO_DIAS) {
+            throw new BusinessException("O período consultado deve ter no máximo " + PERIODO_MAXIMO_DIAS + " dias");
+        }
 
-        MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
-        movimentacao.setMedicamento(medicamento);
-        movimentacao.setTipo(MovimentacaoEstoque.TipoMovimentacao.VENDA);
-        movimentacao.setQuantidade(quantidade);
-        movimentacao.setObservacao("Baixa automática por venda (FIFO)");
-        movimentacaoRepository.save(movimentacao);
-    }
+        // Primeira página: tudo antes do fim do último dia. Seguintes: antes da última movimentação entregue
+        LocalDateTime fim = ultimoDia.plusDays(1).atStartOfDay();
+        long idLimite = Long.MIN_VALUE;
+        if (after != null) {
+            CursorHistorico cursor = CursorHistorico.ler(after);
+            if (!cursor.dataHora().isBefore(fim)) {
+                throw new BusinessException("O cursor informado está fora do período consultado");
+            }
+            fim = cursor.dataHora();
+            idLimite = cursor.id();
+        }
 
-    private void baixarEstoqueFIFO(Long medicamentoId, Integer quantidade) {
-        // Buscar estoques disponíveis ordenados por FIFO
-        List<Estoque> estoquesDisponiveis = estoqueRepository.findEstoquesDisponiveis(medicamentoId);
+        List<MovimentacaoEstoqueResponseDTO> registros = movimentacaoRepository.findHistorico(
+                medicamentoId, primeiroDia.atStartOfDay(), fim, idLimite, Limit.of(tamanho + 1));
 
-        Integer quantidadeRestante = quantidade;
+        // O registro excedente só indica que existe uma próxima página
+        boolean temProxima = registros.size() > tamanho;
+        List<MovimentacaoEstoqueResponseDTO> pagina = temProxima ? registros.subList(0, tamanho) : registros;
+        String proximoCursor = temProxima ? new CursorHistorico(pagina.getLast().getDataMovimentacao(), pagina.getLast().getId()).texto() : null;
 
-        for (Estoque estoque : estoquesDisponiveis) {
-            if (quantidadeRestante <= 0) break;
+        return new HistoricoMovimentacoesDTO(medicamentoId, primeiroDia, ultimoDia, pagina, proximoCursor);
+    }
 
-            if (estoque.getQuantidadeDisponivel() >= quantidadeRestante) {
-                // Este estoque tem quantidade suficiente
-                estoque.setQuantidadeDisponivel(estoque.getQuantidadeDisponivel() - quantidadeRestante);
-                quantidadeRestante = 0;
-            } else {
-                // Usar todo este estoque e continuar
-                quantidadeRestante -= estoque.getQuantidadeDisponivel();
-                estoque.setQuantidadeDisponivel(0);
+    /**
+     * Baixa o estoque de todos os itens de uma venda com um número constante de consultas:
+     * os lotes de todos os medicamentos são carregados de uma vez, a alocação FIFO é feita
+     * em memória e as alterações saem em lote no flush da transação.
+     */
+    @Transactional
+    public void baixarEstoqueVenda(List<ItemVenda> itens) {
+        Set<Long> medicamentoIds = itens.stream()
+                .map(item -> item.getMedicamento().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        LocalDate hoje = LocalDate.now();
+
+        // Os resumos são travados antes dos lotes; com eles, cestas sem estoque são recusadas sem carregar lotes
+        Map<Long, EstoqueResumo> resumos = travarResumos(medicamentoIds);
+        verificarDisponibilidadeNoResumo(itens, resumos, hoje);
+
+        Map<Long, List<Estoque>> lotesPorMedicamento = carregarLotesParaBaixa(medicamentoIds);
+        List<MovimentacaoEstoque> movimentacoes = new ArrayList<>(itens.size());
+        List<Estoque> lotesAlterados = new ArrayList<>();
+
+        for (ItemVenda item : itens) {
+            Medicamento medicamento = item.getMedicamento();
+            List<Estoque> lotes = lotesPorMedicamento.getOrDefault(medicamento.getId(), List.of());
+
+            // Validar estoque não vencido (já descontando o que foi alocado para itens anteriores)
+            if (AlocadorFifo.quantidadeNaoVencida(lotes, hoje) < item.getQuantidade()) {
+                // Verifica se tem lotes vencidos para mensagem mais específica
+                if (AlocadorFifo.possuiVencidos(lotes, hoje)) {
+                    throw new BusinessException("Não há estoque válido (não vencido) suficiente para o medicamento: " + medicamento.getNome(),
+                            MotivoRecusa.ESTOQUE_VENCIDO);
+                }
+                throw new BusinessException("Estoque insuficiente para o medicamento: " + medicamento.getNome(), MotivoRecusa.ESTOQUE_INSUFICIENTE);
             }
 
-            estoqueRepository.save(estoque);
+            // Lotes vencidos nunca são vendidos
+            List<Estoque> alocados = AlocadorFifo.alocar(lotes, item.getQuantidade(), lote -> !lote.getDataVencimento().isBefore(hoje));
+            registrarLotesBaixados("venda", alocados.size());
+            lotesAlterados.addAll(alocados);
+
+            MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
+            movimentacao.setMedicamento(medicamento);
+            movimentacao.setTipo(MovimentacaoEstoque.TipoMovimentacao.VENDA);
+            movimentacao.setQuantidade(item.getQuantidade());
+            movimentacao.setObservacao("Baixa automática por venda (FIFO)");
+            movimentacoes.add(movimentacao);
         }
 
-        if (quantidadeRestante > 0) {
-            throw new BusinessException("Estoque insuficiente. Faltam " + quantidadeRestante + " unidades");
+        lotesPorMedicamento.forEach((medicamentoId, lotes) -> resumos.get(medicamentoId).recalcular(lotes, hoje));
+
+        // Os lotes alterados e os resumos são entidades gerenciadas: os UPDATEs saem no flush, agrupados em batch
+        movimentacaoRepository.saveAll(movimentacoes);
+
+        eventPublisher.publishEvent(EstoqueAlteradoEvent.lotesAlterados(lotesAlterados));
+    }
+
+    private void verificarDisponibilidadeNoResumo(List<ItemVenda> itens, Map<Long, EstoqueResumo> resumos, LocalDate hoje) {
+        Map<Long, Integer> quantidadePorMedicamento = new LinkedHashMap<>();
+        Map<Long, Medicamento> medicamentos = new LinkedHashMap<>();
+        for (ItemVenda item : itens) {
+            quantidadePorMedicamento.merge(item.getMedicamento().getId(), item.getQuantidade(), Integer::sum);
+            medicamentos.putIfAbsent(item.getMedicamento().getId(), item.getMedicamento());
+        }
+
+        quantidadePorMedicamento.forEach((medicamentoId, quantidade) -> {
+            Medicamento medicamento = medicamentos.get(medicamentoId);
+            EstoqueResumo resumo = resumos.get(medicamentoId);
+            // Sem a quantidade não vencida de hoje (lotes venceram desde o cálculo), a alocação confere nos lotes
+            Integer naoVencida = resumo.quantidadeNaoVencidaEm(hoje);
+            if (naoVencida != null && naoVencida < quantidade) {
+                if (resumo.possuiVencidos(hoje)) {
+                    throw new BusinessException("Não há estoque válido (não vencido) suficiente para o medicamento: " + medicamento.getNome(),
+                            MotivoRecusa.ESTOQUE_VENCIDO);
+                }
+                throw new BusinessException("Estoque insuficiente para o medicamento: " + medicamento.getNome(), MotivoRecusa.ESTOQUE_INSUFICIENTE);
+            }
+        });
+    }
+
+    private List<Estoque> baixarEstoqueFIFO(EstoqueResumo resumo, Integer quantidade) {
+        // Buscar estoques disponíveis ordenados por FIFO
+        List<Estoque> estoquesDisponiveis = carregarLotesParaBaixa(Set.of(resumo.getMedicamentoId()))
+                .getOrDefault(resumo.getMedicamentoId(), List.of());
+
+        List<Estoque> alterados = AlocadorFifo.alocar(estoquesDisponiveis, quantidade, lote -> true);
+        registrarLotesBaixados("saida", alterados.size());
+        resumo.recalcular(estoquesDisponiveis, LocalDate.now());
+        return estoqueRepository.saveAll(alterados);
+    }
+
+    // Lotes tocados por uma alocação FIFO: quanto maior, mais linhas travadas e atualizadas por item
+    private void registrarLotesBaixados(String operacao, int lotes) {
+        meterRegistry.summary("farmacia.estoque.baixa.lotes", "operacao", operacao).record(lotes);
+    }
+
+    /**
+     * Trava (SELECT ... FOR UPDATE) os resumos dos medicamentos, criando os que ainda não existem.
+     */
+    private Map<Long, EstoqueResumo> travarResumos(Collection<Long> medicamentoIds) {
+        Map<Long, EstoqueResumo> resumos = estoqueResumoRepository.findParaAtualizacao(medicamentoIds).stream()
+                .collect(Collectors.toMap(EstoqueResumo::getMedicamentoId, Function.identity()));
+
+        if (resumos.size() < medicamentoIds.size()) {
+            Set<Long> ausentes = new HashSet<>(medicamentoIds);
+            ausentes.removeAll(resumos.keySet());
+            estoqueResumoRepository.criarAusentes(ausentes, LocalDate.now());
+            estoqueResumoRepository.findParaAtualizacao(ausentes)
+                    .forEach(resumo -> resumos.put(resumo.getMedicamentoId(), resumo));
         }
+        return resumos;
+    }
+
+    /**
+     * Carrega os lotes disponíveis agrupados por medicamento, em ordem FIFO, travados até o fim
+     * da transação. Chamado com os resumos já travados (que sozinhos serializam as vendas de um
+     * medicamento); o lock dos lotes protege também contra quem altera lotes sem passar pelo resumo.
+     */
+    private Map<Long, List<Estoque>> carregarLotesParaBaixa(Collection<Long> medicamentoIds) {
+        return estoqueRepository.findEstoquesDisponiveisParaAtualizacao(medicamentoIds).stream()
+                .sorted(ORDEM_FIFO)
+                .collect(Collectors.groupingBy(e -> e.getMedicamento().getId()));
     }
 
     @Transactional(readOnly = true)
     public boolean verificarEstoqueDisponivel(Long medicamentoId, Integer quantidade) {
-        Integer quantidadeTotal = estoqueRepository.calcularQuantidadeTotal(medicamentoId);
-        return quantidadeTotal >= quantidade;
+        return quantidadeTotal(medicamentoId) >= quantidade;
     }
 
     @Transactional(readOnly = true)
     public boolean verificarEstoqueDisponivelNaoVencido(Long medicamentoId, Integer quantidade) {
-        Integer quantidadeNaoVencida = estoqueRepository.calcularQuantidadeTotalNaoVencida(medicamentoId, LocalDate.now());
+        LocalDate hoje = LocalDate.now();
+        // Resumo com lotes vencidos desde o último cálculo (quantidade desconhecida) ou ausente: soma os lotes
+        Integer quantidadeNaoVencida = estoqueResumoRepository.findById(medicamentoId)
+                .map(resumo -> resumo.quantidadeNaoVencidaEm(hoje))
+                .orElseGet(() -> estoqueRepository.calcularQuantidadeTotalNaoVencida(medicamentoId, hoje));
         return quantidadeNaoVencida >= quantidade;
     }
 
     @Transactional(readOnly = true)
     public boolean medicamentoTemVencidos(Long medicamentoId) {
-        List<Estoque> vencidos = estoqueRepository.findEstoquesVencidos(medicamentoId, LocalDate.now());
-        return !vencidos.isEmpty();
+        LocalDate hoje = LocalDate.now();
+        return estoqueResumoRepository.findById(medicamentoId)
+                .map(resumo -> resumo.possuiVencidos(hoje))
+                .orElseGet(() -> !estoqueRepository.findEstoquesVencidos(medicamentoId, hoje).isEmpty());
+    }
+
+    private Integer quantidadeTotal(Long medicamentoId) {
+        return estoqueResumoRepository.findById(medicamentoId)
+                .map(EstoqueResumo::getQuantidadeTotal)
+                .orElseGet(() -> estoqueRepository.calcularQuantidadeTotal(medicamentoId));
     }
 
     private EstoqueResponseDTO toResponseDTO(Estoque estoque) {
@@ -190,4 +376,3 @@ public class EstoqueService {
         );
     }
 }
-
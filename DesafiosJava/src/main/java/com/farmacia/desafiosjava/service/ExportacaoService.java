@@ -0,0 +1,68 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.dto.ItemVendaExportacaoDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoExportacaoDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.ItemVendaRepository;
+import com.farmacia.desafiosjava.repository.MovimentacaoEstoqueRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Exportações para o financeiro: as linhas saem do cursor do banco direto para o destino, sem
+ * montar a listagem em memória, qualquer que seja o tamanho do período.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportacaoService {
+
+    private final ItemVendaRepository itemVendaRepository;
+    private final MovimentacaoEstoqueRepository movimentacaoRepository;
+
+    // Linhas trazidas do banco por ida e volta (memória por exportação ~ fetch size linhas)
+    @Value("${exportacoes.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Itens das vendas entre {@code de} e {@code ate} (inclusive), um por linha com os dados da venda.
+     */
+    @Transactional(readOnly = true)
+    public void exportarItensVenda(LocalDate de, LocalDate ate, Consumer<ItemVendaExportacaoDTO> destino) {
+        validarPeriodo(de, ate);
+        try (Stream<ItemVendaExportacaoDTO> itens = itemVendaRepository.streamExportacao(
+                de.atStartOfDay(), ate.plusDays(1).atStartOfDay(), fetchSize)) {
+            itens.forEach(destino);
+        }
+    }
+
+    /**
+     * Movimentações de estoque entre {@code de} e {@code ate} (inclusive).
+     */
+    @Transactional(readOnly = true)
+    public void exportarMovimentacoes(LocalDate de, LocalDate ate, Consumer<MovimentacaoExportacaoDTO> destino) {
+        validarPeriodo(de, ate);
+        try (Stream<MovimentacaoExportacaoDTO> movimentacoes = movimentacaoRepository.streamExportacao(
+                de.atStartOfDay(), ate.plusDays(1).atStartOfDay(), fetchSize)) {
+            movimentacoes.forEach(destino);
+        }
+    }
+
+    /**
+     * Chamado também pelo controller antes de iniciar a resposta: depois do primeiro byte enviado,
+     * o erro já não pode virar um 400.
+     */
+    public void validarPeriodo(LocalDate de, LocalDate ate) {
+        if (de == null || ate == null) {
+            throw new BusinessException("Informe a data inicial (de) e a final (ate)");
+        }
+        if (de.isAfter(ate)) {
+            throw new BusinessException("A data inicial (de) deve ser anterior ou igual à data final (ate)");
+        }
+    }
+}
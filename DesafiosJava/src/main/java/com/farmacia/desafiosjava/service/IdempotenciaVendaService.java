@@ -0,0 +1,108 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.ChaveIdempotencia;
+import com.farmacia.desafiosjava.dto.ItemVendaDTO;
+import com.farmacia.desafiosjava.dto.VendaRequestDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.exception.MotivoRecusa;
+import com.farmacia.desafiosjava.repository.ChaveIdempotenciaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Chaves de idempotência do registro de vendas (cabeçalho Idempotency-Key).
+ *
+ * <p>A chave é reservada na transação da própria venda, antes da baixa de estoque: uma repetição
+ * que chega enquanto a original ainda está em andamento espera na chave primária e, quando a
+ * original termina, recebe a venda gravada em vez de alocar os lotes de novo. Se a venda falhar,
+ * a reserva sai no rollback e a repetição é processada normalmente.</p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotenciaVendaService {
+
+    private final ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+
+    @Value("${vendas.idempotencia.validade-horas:24}")
+    private long validadeHoras;
+
+    /**
+     * Reserva a chave do usuário para a venda em andamento. Vazio se a venda deve ser registrada
+     * (chave nova ou vencida); com o id da venda já gravada se a chave ainda válida foi usada antes
+     * para a mesma requisição.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Long> reservar(String usuario, String chave, VendaRequestDTO request) {
+        if (chave.isBlank() || chave.length() > ChaveIdempotencia.TAMANHO_MAXIMO) {
+            throw new BusinessException("Idempotency-Key deve ter de 1 a " + ChaveIdempotencia.TAMANHO_MAXIMO + " caracteres",
+                    MotivoRecusa.CHAVE_IDEMPOTENCIA);
+        }
+
+        String hash = hash(request);
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime expiraEm = agora.plusHours(validadeHoras);
+        if (chaveIdempotenciaRepository.reservar(usuario, chave, hash, agora, expiraEm) == 1
+                || chaveIdempotenciaRepository.assumirVencida(usuario, chave, hash, agora, expiraEm) == 1) {
+            return Optional.empty();
+        }
+
+        // A linha existente é de uma transação já confirmada, portanto com a venda associada
+        ChaveIdempotencia existente = chaveIdempotenciaRepository.findById(new ChaveIdempotencia.Chave(usuario, chave))
+                .filter(registro -> registro.getVendaId() != null)
+                .orElseThrow(() -> new BusinessException("Idempotency-Key em uso por outra operação. Tente novamente.",
+                        MotivoRecusa.CHAVE_IDEMPOTENCIA));
+        if (!existente.getHashRequisicao().equals(hash)) {
+            throw new BusinessException("Idempotency-Key já usada em uma venda com outro cliente ou outros itens",
+                    MotivoRecusa.CHAVE_IDEMPOTENCIA);
+        }
+        return Optional.of(existente.getVendaId());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void associarVenda(String usuario, String chave, Long vendaId) {
+        chaveIdempotenciaRepository.associarVenda(usuario, chave, vendaId);
+    }
+
+    /**
+     * Apaga as chaves vencidas. Uma chave vencida já não devolve a venda dela mesmo antes da limpeza:
+     * a próxima requisição com a chave a assume.
+     */
+    @Scheduled(cron = "${vendas.idempotencia.limpeza.cron:0 0 * * * *}")
+    @Transactional
+    public int removerExpiradas() {
+        int removidas = chaveIdempotenciaRepository.deleteExpiradas(LocalDateTime.now());
+        if (removidas > 0) {
+            log.info("Chaves de idempotência vencidas removidas: {}", removidas);
+        }
+        return removidas;
+    }
+
+    // Cliente e itens na ordem enviada: a repetição de uma requisição chega idêntica
+    private static String hash(VendaRequestDTO request) {
+        StringBuilder conteudo = new StringBuilder().append(request.getClienteId());
+        if (request.getItens() != null) {
+            for (ItemVendaDTO item : request.getItens()) {
+                conteudo.append('|').append(item.getMedicamentoId()).append(':').append(item.getQuantidade());
+            }
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(conteudo.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Categoria;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.ErroImportacaoDTO;
+import com.farmacia.desafiosjava.dto.ImportacaoMedicamentosResponseDTO;
+import com.farmacia.desafiosjava.dto.MedicamentoChaveDTO;
+import com.farmacia.desafiosjava.dto.MedicamentoImportacaoDTO;
+import com.farmacia.desafiosjava.event.MedicamentosImportadosEvent;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.CategoriaRepository;
+import com.farmacia.desafiosjava.repository.MedicamentoRepository;
+import com.farmacia.desafiosjava.util.StringUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa do catálogo de medicamentos (CSV ou NDJSON), lida em streaming e gravada
+ * em lotes de {@value #LINHAS_POR_LOTE} linhas, cada lote em sua própria transação.
+ *
+ * <p>As categorias são carregadas uma única vez, os duplicados de cada lote são checados com uma
+ * única consulta e os INSERTs vão em batches JDBC (ids por sequence, ver {@link Medicamento}).
+ * Linhas inválidas não interrompem a importação: entram no relatório de erros.</p>
+ */
+@Service
+@Slf4j
+public class ImportacaoMedicamentoService {
+
+    static final int LINHAS_POR_LOTE = 500;
+
+    private static final Set<String> COLUNAS_OBRIGATORIAS = Set.of("nome", "dosagem", "preco");
+
+    private final MedicamentoRepository medicamentoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader leitorJson;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ImportacaoMedicamentoService(MedicamentoRepository medicamentoRepository,
+                                        CategoriaRepository categoriaRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        ObjectMapper objectMapper,
+                                        Validator validator,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.medicamentoRepository = medicamentoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leitorJson = objectMapper.readerFor(MedicamentoImportacaoDTO.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Importa um CSV com cabeçalho. Colunas reconhecidas: nome, dosagem, preco (obrigatórias),
+     * descricao, ativo, categoriaId e categoria (nome). Separador vírgula ou ponto e vírgula,
+     * detectado pelo cabeçalho; campos podem vir entre aspas duplas.
+     */
+    public ImportacaoMedicamentosResponseDTO importarCsv(InputStream entrada) {
+        try (BufferedReader leitor = abrir(entrada)) {
+            String cabecalho = leitor.readLine();
+            if (cabecalho == null || cabecalho.isBlank()) {
+                throw new BusinessException("Arquivo CSV vazio: a primeira linha deve ser o cabeçalho");
+            }
+            LinhaCsv colunas;
+            try {
+                colunas = LinhaCsv.cabecalho(removerBom(cabecalho));
+            } catch (LinhaInvalidaException e) {
+                throw new BusinessException("Cabeçalho do CSV inválido: " + e.getMessage());
+            }
+            return importar(leitor, 2, colunas::converter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Importa NDJSON: um objeto JSON por linha, com os campos de {@link MedicamentoImportacaoDTO}.
+     */
+    public ImportacaoMedicamentosResponseDTO importarNdjson(InputStream entrada) {
+        try (BufferedReader leitor = abrir(entrada)) {
+            return importar(leitor, 1, linha -> {
+                try {
+                    return leitorJson.readValue(removerBom(linha));
+                } catch (JsonProcessingException e) {
+                    throw new LinhaInvalidaException("JSON inválido: " + e.getOriginalMessage());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ImportacaoMedicamentosResponseDTO importar(BufferedReader leitor, long primeiraLinha,
+                                                       Function<String, MedicamentoImportacaoDTO> conversor) throws IOException {
+        Importacao importacao = new Importacao(categoriaRepository.findAll());
+        List<LinhaImportacao> lote = new ArrayList<>(LINHAS_POR_LOTE);
+
+        long numero = primeiraLinha - 1;
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            numero++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            importacao.linhasProcessadas++;
+
+            LinhaImportacao convertida = importacao.validar(numero, linha, conversor);
+            if (convertida != null) {
+                lote.add(convertida);
+            }
+            if (lote.size() == LINHAS_POR_LOTE) {
+                gravarLote(lote, importacao);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravarLote(lote, importacao);
+        }
+
+        log.info("Importação de medicamentos: {} linhas, {} importadas, {} com erro",
+                importacao.linhasProcessadas, importacao.importados, importacao.erros.size());
+        importacao.erros.sort(Comparator.comparingLong(ErroImportacaoDTO::linha));
+        return new ImportacaoMedicamentosResponseDTO(importacao.linhasProcessadas, importacao.importados, importacao.erros);
+    }
+
+    private void gravarLote(List<LinhaImportacao> lote, Importacao importacao) {
+        List<LinhaImportacao> duplicadas = new ArrayList<>();
+        try {
+            int gravados = transactionTemplate.execute(status -> {
+                // Uma consulta por lote para os nomes já cadastrados; a dosagem é comparada em memória
+                Set<String> nomes = lote.stream().map(LinhaImportacao::nomeNormalizado).collect(Collectors.toSet());
+                Set<String> existentes = medicamentoRepository.findChavesByNomeNormalizadoIn(nomes).stream()
+                        .map(chave -> chave(chave.nomeNormalizado(), chave.dosagem()))
+                        .collect(Collectors.toSet());
+
+                List<Medicamento> novos = new ArrayList<>(lote.size());
+                for (LinhaImportacao linha : lote) {
+                    if (existentes.contains(linha.chave())) {
+                        duplicadas.add(linha);
+                    } else {
+                        novos.add(linha.medicamento());
+                    }
+                }
+                medicamentoRepository.saveAll(novos);
+                eventPublisher.publishEvent(new MedicamentosImportadosEvent(novos.stream().map(Medicamento::getId).toList()));
+                return novos.size();
+            });
+            importacao.importados += gravados;
+            duplicadas.forEach(linha -> importacao.erro(linha.numero(), "Já existe um medicamento com este nome e dosagem"));
+        } catch (DataAccessException e) {
+            // Ex.: o mesmo medicamento cadastrado por outra requisição durante a importação
+            log.warn("Lote da importação de medicamentos não gravado: {}", e.getMostSpecificCause().getMessage());
+            for (LinhaImportacao linha : lote) {
+                importacao.erro(linha.numero(), "Lote não gravado por conflito com outra alteração no catálogo; reenvie esta linha");
+            }
+        }
+    }
+
+    private static BufferedReader abrir(InputStream entrada) {
+        return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+    }
+
+    // Planilhas exportadas no Windows costumam começar com BOM
+    private static String removerBom(String linha) {
+        return !linha.isEmpty() && linha.charAt(0) == '\uFEFF' ? linha.substring(1) : linha;
+    }
+
+    // Aceita "1234.50" e o formato de planilhas em português, "1234,50" ou "1.234,50".
+    // Com os dois separadores, a vírgula precisa ser o decimal; "1,234.50" segue como está e é recusado
+    private static String normalizarPreco(String preco) {
+        int virgula = preco.lastIndexOf(',');
+        if (virgula < 0 || virgula < preco.lastIndexOf('.')) {
+            return preco;
+        }
+        return preco.replace(".", "").replace(',', '.');
+    }
+
+    private static String chave(String nomeNormalizado, String dosagem) {
+        return nomeNormalizado + '\u0000' + dosagem;
+    }
+
+    private record LinhaImportacao(long numero, String nomeNormalizado, String chave, Medicamento medicamento) {
+    }
+
+    /**
+     * Estado de uma importação: categorias, chaves já vistas no arquivo e relatório.
+     */
+    private class Importacao {
+
+        private final Map<Long, Categoria> categoriasPorId = new HashMap<>();
+        private final Map<String, Categoria> categoriasPorNome = new HashMap<>();
+        private final Set<String> chavesDoArquivo = new HashSet<>();
+        private final List<ErroImportacaoDTO> erros = new ArrayList<>();
+        private long linhasProcessadas;
+        private long importados;
+
+        Importacao(List<Categoria> categorias) {
+            for (Categoria categoria : categorias) {
+                categoriasPorId.put(categoria.getId(), categoria);
+                categoriasPorNome.put(categoria.getNomeNormalizado(), categoria);
+            }
+        }
+
+        void erro(long linha, String mensagem) {
+            erros.add(new ErroImportacaoDTO(linha, mensagem));
+        }
+
+        /**
+         * Converte e valida a linha sem ir ao banco.
+         *
+         * @return a linha pronta para gravar, ou {@code null} se foi para o relatório de erros
+         */
+        LinhaImportacao validar(long numero, String linha, Function<String, MedicamentoImportacaoDTO> conversor) {
+            MedicamentoImportacaoDTO item;
+            try {
+                item = conversor.apply(linha);
+            } catch (LinhaInvalidaException e) {
+                erro(numero, e.getMessage());
+                return null;
+            }
+
+            Set<ConstraintViolation<MedicamentoImportacaoDTO>> violacoes = validator.validate(item);
+            if (!violacoes.isEmpty()) {
+                erro(numero, violacoes.stream()
+                        .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return null;
+            }
+
+            Categoria categoria = null;
+            if (item.getCategoriaId() != null) {
+                categoria = categoriasPorId.get(item.getCategoriaId());
+                if (categoria == null) {
+                    erro(numero, "Categoria não encontrada: " + item.getCategoriaId());
+                    return null;
+                }
+            } else if (item.getCategoria() != null && !item.getCategoria().isBlank()) {
+                categoria = categoriasPorNome.get(StringUtils.normalizeString(item.getCategoria()));
+                if (categoria == null) {
+                    erro(numero, "Categoria não encontrada: " + item.getCategoria());
+                    return null;
+                }
+            }
+
+            String nomeNormalizado = StringUtils.normalizeString(item.getNome());
+            String chave = chave(nomeNormalizado, item.getDosagem());
+            if (!chavesDoArquivo.add(chave)) {
+                erro(numero, "Medicamento com este nome e dosagem repetido no arquivo");
+                return null;
+            }
+
+            Medicamento medicamento = new Medicamento();
+            medicamento.setNome(item.getNome());
+            medicamento.setDescricao(item.getDescricao());
+            medicamento.setDosagem(item.getDosagem());
+            medicamento.setPreco(item.getPreco());
+            medicamento.setAtivo(item.getAtivo() != null ? item.getAtivo() : true);
+            medicamento.setCategoria(categoria);
+            return new LinhaImportacao(numero, nomeNormalizado, chave, medicamento);
+        }
+    }
+
+    /**
+     * Linha que não pôde ser lida (JSON/CSV malformado ou valor com formato inválido).
+     */
+    private static class LinhaInvalidaException extends RuntimeException {
+
+        LinhaInvalidaException(String mensagem) {
+            super(mensagem);
+        }
+    }
+
+    /**
+     * Posições das colunas conhecidas no cabeçalho do CSV e conversão de cada linha.
+     */
+    private record LinhaCsv(char separador, Map<String, Integer> colunas) {
+
+        static LinhaCsv cabecalho(String cabecalho) {
+            char separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+            List<String> nomes = campos(cabecalho, separador);
+
+            Map<String, Integer> colunas = new HashMap<>();
+            for (int i = 0; i < nomes.size(); i++) {
+                colunas.putIfAbsent(nomes.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+            List<String> ausentes = COLUNAS_OBRIGATORIAS.stream().filter(coluna -> !colunas.containsKey(coluna)).sorted().toList();
+            if (!ausentes.isEmpty()) {
+                throw new BusinessException("Colunas obrigatórias ausentes no cabeçalho do CSV: " + String.join(", ", ausentes));
+            }
+            return new LinhaCsv(separador, colunas);
+        }
+
+        MedicamentoImportacaoDTO converter(String linha) {
+            List<String> valores = campos(linha, separador);
+
+            MedicamentoImportacaoDTO item = new MedicamentoImportacaoDTO();
+            item.setNome(valor(valores, "nome"));
+            item.setDescricao(valor(valores, "descricao"));
+            item.setDosagem(valor(valores, "dosagem"));
+            item.setCategoria(valor(valores, "categoria"));
+
+            String preco = valor(valores, "preco");
+            if (preco != null) {
+                try {
+                    item.setPreco(new BigDecimal(normalizarPreco(preco)));
+                } catch (NumberFormatException e) {
+                    throw new LinhaInvalidaException("Preço inválido: " + preco);
+                }
+            }
+
+            String categoriaId = valor(valores, "categoriaid");
+            if (categoriaId != null) {
+                try {
+                    item.setCategoriaId(Long.valueOf(categoriaId));
+                } catch (NumberFormatException e) {
+                    throw new LinhaInvalidaException("Categoria inválida: " + categoriaId);
+                }
+            }
+
+            String ativo = valor(valores, "ativo");
+            if (ativo != null) {
+                item.setAtivo(switch (ativo.toLowerCase(Locale.ROOT)) {
+                    case "true", "sim", "s", "1" -> true;
+                    case "false", "nao", "não", "n", "0" -> false;
+                    default -> throw new LinhaInvalidaException("Valor inválido para ativo: " + ativo);
+                });
+            }
+            return item;
+        }
+
+        private String valor(List<String> valores, String coluna) {
+            Integer indice = colunas.get(coluna);
+            if (indice == null || indice >= valores.size()) {
+                return null;
+            }
+            String valor = valores.get(indice).trim();
+            return valor.isEmpty() ? null : valor;
+        }
+
+        // Campos separados, com suporte a aspas duplas ("" dentro das aspas é uma aspa literal)
+        private static List<String> campos(String linha, char separador) {
+            List<String> campos = new ArrayList<>();
+            StringBuilder atual = new StringBuilder();
+            boolean entreAspas = false;
+            for (int i = 0; i < linha.length(); i++) {
+                char c = linha.charAt(i);
+                if (entreAspas) {
+                    if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        atual.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreAspas = false;
+                    } else {
+                        atual.append(c);
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == separador) {
+                    campos.add(atual.toString());
+                    atual.setLength(0);
+                } else {
+                    atual.append(c);
+                }
+            }
+            if (entreAspas) {
+                throw new LinhaInvalidaException("Aspas sem fechamento (campos com quebra de linha não são suportados)");
+            }
+            campos.add(atual.toString());
+            return campos;
+        }
+    }
+}
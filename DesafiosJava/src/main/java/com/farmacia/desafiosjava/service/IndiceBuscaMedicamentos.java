@@ -0,0 +1,117 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.dto.MedicamentoTextoDTO;
+import com.farmacia.desafiosjava.event.MedicamentoAlteradoEvent;
+import com.farmacia.desafiosjava.event.MedicamentosImportadosEvent;
+import com.farmacia.desafiosjava.repository.MedicamentoRepository;
+import com.farmacia.desafiosjava.util.StringUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice de busca textual do catálogo (nome, dosagem e descrição), mantido em memória.
+ *
+ * <p>Construído na subida e refeito periodicamente. Após o commit de cada alteração ou lote de
+ * importação, só os medicamentos afetados são lidos de novo no banco; quando as alterações
+ * acumuladas passam de {@code medicamentos.busca.max-alteracoes}, o índice é refeito inteiro.</p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IndiceBuscaMedicamentos {
+
+    private final MedicamentoRepository medicamentoRepository;
+
+    // Serializa construção e atualizações: a consulta e a troca do índice não podem intercalar com outra thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile IndiceTrigramas indice;
+
+    // Fração mínima dos trigramas do termo que o medicamento precisa ter (nome valendo o dobro da descrição)
+    @Value("${medicamentos.busca.similaridade-minima:0.5}")
+    private double similaridadeMinima;
+
+    @Value("${medicamentos.busca.max-alteracoes:1000}")
+    private int maxAlteracoes;
+
+    /**
+     * Ids dos medicamentos mais parecidos com o termo (já normalizado), do mais relevante ao menos.
+     */
+    public List<Long> buscar(String termoNormalizado, int limite) {
+        IndiceTrigramas atual = indice;
+        if (atual == null) {
+            reconstruir();
+            atual = indice;
+        }
+        return atual.buscar(termoNormalizado, limite, similaridadeMinima);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${medicamentos.busca.reconstrucao-ms:600000}", initialDelayString = "${medicamentos.busca.reconstrucao-ms:600000}")
+    public void reconstruir() {
+        lock.lock();
+        try {
+            long inicio = System.nanoTime();
+            List<IndiceTrigramas.Documento> documentos = medicamentoRepository.findTextosBusca().stream()
+                    .map(IndiceBuscaMedicamentos::documento)
+                    .toList();
+            indice = IndiceTrigramas.construir(documentos);
+            log.debug("Índice de busca de medicamentos reconstruído: {} medicamentos em {} ms",
+                    documentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void aoAlterarMedicamento(MedicamentoAlteradoEvent evento) {
+        atualizar(Set.of(evento.medicamentoId()));
+    }
+
+    @TransactionalEventListener
+    public void aoImportarMedicamentos(MedicamentosImportadosEvent evento) {
+        atualizar(evento.medicamentoIds());
+    }
+
+    private void atualizar(Collection<Long> medicamentoIds) {
+        if (medicamentoIds.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            IndiceTrigramas atual = indice;
+            if (atual == null) {
+                // Ainda não carregado: a primeira busca lê o catálogo já com a alteração
+                return;
+            }
+            if (atual.alteracoes() + medicamentoIds.size() > maxAlteracoes) {
+                reconstruir();
+                return;
+            }
+            List<IndiceTrigramas.Documento> documentos = medicamentoRepository.findTextosBusca(medicamentoIds).stream()
+                    .map(IndiceBuscaMedicamentos::documento)
+                    .toList();
+            indice = atual.comAlteracoes(medicamentoIds, documentos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static IndiceTrigramas.Documento documento(MedicamentoTextoDTO texto) {
+        return IndiceTrigramas.documento(texto.id(),
+                Objects.requireNonNullElse(texto.nomeNormalizado(), ""),
+                Objects.requireNonNullElse(StringUtils.normalizeString(texto.dosagem()), ""),
+                StringUtils.normalizeString(texto.descricao()));
+    }
+}
@@ -0,0 +1,247 @@
+package com.farmacia.desafiosjava.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Índice invertido de trigramas do catálogo, imutável: cada alteração gera uma nova instância.
+ *
+ * <p>Os textos chegam normalizados ({@code StringUtils.normalizeString}); cada palavra vira os
+ * trigramas de {@code "  palavra "}, como no pg_trgm. A pontuação de um medicamento é a fração dos
+ * trigramas da consulta encontrados nele, com peso 2 no nome e dosagem e peso 1 só na descrição.
+ * Uma letra trocada ainda deixa a maioria dos trigramas em comum, e um começo de palavra tem
+ * todos os seus trigramas no nome.</p>
+ *
+ * <p>Os documentos carregados na construção ficam em arrays e listas de postings; os alterados
+ * depois disso ficam à parte, avaliados um a um, até a próxima reconstrução.</p>
+ */
+final class IndiceTrigramas {
+
+    // Descrições muito longas não aumentam a chance de achar o medicamento, só a memória do índice
+    static final int DESCRICAO_MAXIMA = 1000;
+
+    private static final Comparator<Candidato> ORDEM = Comparator
+            .comparing(Candidato::prefixo).reversed()
+            .thenComparing(Comparator.comparingInt(Candidato::pontos).reversed())
+            .thenComparing(Candidato::nome)
+            .thenComparingLong(Candidato::id);
+
+    /**
+     * Texto de um medicamento já decomposto em trigramas (arrays ordenados, sem repetição).
+     */
+    record Documento(long id, String nome, long[] trigramasNome, long[] trigramasDescricao) {
+    }
+
+    private record Candidato(long id, String nome, boolean prefixo, int pontos) {
+    }
+
+    private final long[] ids;
+    private final String[] nomes;
+    // Posting: (posição do documento << 1) | 1 se o trigrama está no nome ou na dosagem
+    private final Map<Long, int[]> postings;
+    // Documentos da construção que não valem mais (alterados ou removidos depois dela)
+    private final Set<Long> substituidos;
+    private final List<Documento> alterados;
+
+    private IndiceTrigramas(long[] ids, String[] nomes, Map<Long, int[]> postings,
+                            Set<Long> substituidos, List<Documento> alterados) {
+        this.ids = ids;
+        this.nomes = nomes;
+        this.postings = postings;
+        this.substituidos = substituidos;
+        this.alterados = alterados;
+    }
+
+    static Documento documento(long id, String nomeNormalizado, String dosagemNormalizada, String descricaoNormalizada) {
+        long[] nome = trigramas(nomeNormalizado + " " + dosagemNormalizada);
+        String descricao = descricaoNormalizada == null ? "" : descricaoNormalizada;
+        if (descricao.length() > DESCRICAO_MAXIMA) {
+            descricao = descricao.substring(0, DESCRICAO_MAXIMA);
+        }
+        // Trigramas que também estão no nome já contam com o peso maior
+        long[] apenasDescricao = Arrays.stream(trigramas(descricao))
+                .filter(trigrama -> Arrays.binarySearch(nome, trigrama) < 0)
+                .toArray();
+        return new Documento(id, nomeNormalizado, nome, apenasDescricao);
+    }
+
+    static IndiceTrigramas construir(List<Documento> documentos) {
+        int total = documentos.size();
+        long[] ids = new long[total];
+        String[] nomes = new String[total];
+        Map<Long, ListaPostings> listas = new HashMap<>();
+
+        for (int posicao = 0; posicao < total; posicao++) {
+            Documento documento = documentos.get(posicao);
+            ids[posicao] = documento.id();
+            nomes[posicao] = documento.nome();
+            for (long trigrama : documento.trigramasNome()) {
+                listas.computeIfAbsent(trigrama, t -> new ListaPostings()).adicionar(posicao << 1 | 1);
+            }
+            for (long trigrama : documento.trigramasDescricao()) {
+                listas.computeIfAbsent(trigrama, t -> new ListaPostings()).adicionar(posicao << 1);
+            }
+        }
+
+        Map<Long, int[]> postings = HashMap.newHashMap(listas.size());
+        listas.forEach((trigrama, lista) -> postings.put(trigrama, lista.paraArray()));
+        return new IndiceTrigramas(ids, nomes, postings, Set.of(), List.of());
+    }
+
+    /**
+     * Nova versão do índice com os medicamentos {@code ids} substituídos por {@code atuais}
+     * (ids sem documento correspondente foram removidos ou não devem mais aparecer).
+     */
+    IndiceTrigramas comAlteracoes(Collection<Long> ids, List<Documento> atuais) {
+        Set<Long> novosSubstituidos = new HashSet<>(substituidos);
+        novosSubstituidos.addAll(ids);
+        List<Documento> novosAlterados = new ArrayList<>(alterados.size() + atuais.size());
+        for (Documento documento : alterados) {
+            if (!ids.contains(documento.id())) {
+                novosAlterados.add(documento);
+            }
+        }
+        novosAlterados.addAll(atuais);
+        return new IndiceTrigramas(this.ids, nomes, postings, Set.copyOf(novosSubstituidos), List.copyOf(novosAlterados));
+    }
+
+    /**
+     * Quantos medicamentos mudaram desde a construção (avaliados um a um em cada busca).
+     */
+    int alteracoes() {
+        return substituidos.size();
+    }
+
+    int tamanho() {
+        return ids.length - (int) Arrays.stream(ids).filter(substituidos::contains).count() + alterados.size();
+    }
+
+    /**
+     * Ids dos medicamentos mais parecidos com o termo (já normalizado): primeiro os nomes que começam
+     * com o termo, depois os de maior pontuação, e em empate o nome. Só entram os que têm ao menos
+     * {@code similaridadeMinima} da pontuação máxima.
+     */
+    List<Long> buscar(String termo, int limite, double similaridadeMinima) {
+        long[] consulta = trigramas(termo);
+        if (consulta.length == 0) {
+            return List.of();
+        }
+        int pontosMinimos = Math.max(1, (int) Math.ceil(similaridadeMinima * 2 * consulta.length));
+
+        PriorityQueue<Candidato> melhores = new PriorityQueue<>(limite + 1, ORDEM.reversed());
+        pontuarConstrucao(consulta, termo, pontosMinimos, limite, melhores);
+        for (Documento documento : alterados) {
+            int pontos = pontuar(consulta, documento);
+            if (pontos >= pontosMinimos) {
+                manterMelhores(documento.id(), documento.nome(), documento.nome().startsWith(termo), pontos, limite, melhores);
+            }
+        }
+
+        List<Candidato> resultado = new ArrayList<>(melhores);
+        resultado.sort(ORDEM);
+        return resultado.stream().map(Candidato::id).toList();
+    }
+
+    private void pontuarConstrucao(long[] consulta, String termo, int pontosMinimos, int limite, PriorityQueue<Candidato> melhores) {
+        short[] pontos = new short[ids.length];
+        int[] tocados = new int[Math.min(ids.length, 1024)];
+        int quantidadeTocados = 0;
+
+        for (long trigrama : consulta) {
+            int[] lista = postings.get(trigrama);
+            if (lista == null) {
+                continue;
+            }
+            for (int posting : lista) {
+                int posicao = posting >>> 1;
+                if (pontos[posicao] == 0) {
+                    if (quantidadeTocados == tocados.length) {
+                        tocados = Arrays.copyOf(tocados, Math.min(ids.length, tocados.length * 2));
+                    }
+                    tocados[quantidadeTocados++] = posicao;
+                }
+                pontos[posicao] += (short) ((posting & 1) == 1 ? 2 : 1);
+            }
+        }
+
+        for (int i = 0; i < quantidadeTocados; i++) {
+            int posicao = tocados[i];
+            if (pontos[posicao] >= pontosMinimos && !substituidos.contains(ids[posicao])) {
+                manterMelhores(ids[posicao], nomes[posicao], nomes[posicao].startsWith(termo), pontos[posicao], limite, melhores);
+            }
+        }
+    }
+
+    private static int pontuar(long[] consulta, Documento documento) {
+        int pontos = 0;
+        for (long trigrama : consulta) {
+            if (Arrays.binarySearch(documento.trigramasNome(), trigrama) >= 0) {
+                pontos += 2;
+            } else if (Arrays.binarySearch(documento.trigramasDescricao(), trigrama) >= 0) {
+                pontos += 1;
+            }
+        }
+        return pontos;
+    }
+
+    // Fila com o pior candidato no topo: mantém só os {@code limite} melhores sem ordenar todos.
+    // Termos comuns atingem boa parte do catálogo; quem já perde para o pior da fila não entra nela
+    private static void manterMelhores(long id, String nome, boolean prefixo, int pontos, int limite,
+                                       PriorityQueue<Candidato> melhores) {
+        Candidato candidato = new Candidato(id, nome, prefixo, pontos);
+        if (melhores.size() == limite && ORDEM.compare(candidato, melhores.peek()) >= 0) {
+            return;
+        }
+        melhores.add(candidato);
+        if (melhores.size() > limite) {
+            melhores.poll();
+        }
+    }
+
+    /**
+     * Trigramas das palavras (sequências de letras e dígitos) do texto, ordenados e sem repetição.
+     * Cada trigrama é guardado como três chars em um long.
+     */
+    static long[] trigramas(String texto) {
+        Set<Long> resultado = new HashSet<>();
+        int inicio = -1;
+        for (int i = 0; i <= texto.length(); i++) {
+            boolean letraOuDigito = i < texto.length() && Character.isLetterOrDigit(texto.charAt(i));
+            if (letraOuDigito && inicio < 0) {
+                inicio = i;
+            } else if (!letraOuDigito && inicio >= 0) {
+                String palavra = "  " + texto.substring(inicio, i) + " ";
+                for (int j = 0; j + 3 <= palavra.length(); j++) {
+                    resultado.add((long) palavra.charAt(j) << 32 | (long) palavra.charAt(j + 1) << 16 | palavra.charAt(j + 2));
+                }
+                inicio = -1;
+            }
+        }
+        return resultado.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static final class ListaPostings {
+
+        private int[] itens = new int[4];
+        private int tamanho;
+
+        void adicionar(int posting) {
+            if (tamanho == itens.length) {
+                itens = Arrays.copyOf(itens, tamanho * 2);
+            }
+            itens[tamanho++] = posting;
+        }
+
+        int[] paraArray() {
+            return Arrays.copyOf(itens, tamanho);
+        }
+    }
+}
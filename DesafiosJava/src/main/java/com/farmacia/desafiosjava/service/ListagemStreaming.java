@@ -0,0 +1,67 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.exception.BusinessException;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Apoio às listagens paginadas por cursor e às exportações em streaming.
+ */
+@Component
+@RequiredArgsConstructor
+class ListagemStreaming {
+
+    static final int LIMITE_MAXIMO = 500;
+
+    // Mesmo valor do fetch size das consultas em Stream dos repositórios
+    static final int REGISTROS_POR_LOTE = 500;
+
+    private final EntityManager entityManager;
+
+    static int validarLimite(int limit) {
+        if (limit < 1 || limit > LIMITE_MAXIMO) {
+            throw new BusinessException("O parâmetro limit deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+        return limit;
+    }
+
+    static long cursorInicial(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    /**
+     * Converte e entrega cada registro do Stream, limpando o contexto de persistência a cada lote
+     * para que as entidades já enviadas não fiquem acumuladas em memória.
+     * Deve ser chamado dentro de uma transação.
+     */
+    <E, T> void percorrer(Stream<E> registros, Function<E, T> conversor, Consumer<T> destino) {
+        percorrerEmLotes(registros, lote -> lote.stream().map(conversor).toList(), destino);
+    }
+
+    /**
+     * Como {@link #percorrer}, mas convertendo {@value #REGISTROS_POR_LOTE} registros de cada vez,
+     * para que o conversor possa buscar os dados relacionados do lote em uma única consulta.
+     */
+    <E, T> void percorrerEmLotes(Stream<E> registros, Function<List<E>, List<T>> conversor, Consumer<T> destino) {
+        try (registros) {
+            List<E> lote = new ArrayList<>(REGISTROS_POR_LOTE);
+            Iterator<E> iterator = registros.iterator();
+            while (iterator.hasNext()) {
+                lote.add(iterator.next());
+                if (lote.size() == REGISTROS_POR_LOTE || !iterator.hasNext()) {
+                    conversor.apply(lote).forEach(destino);
+                    lote.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
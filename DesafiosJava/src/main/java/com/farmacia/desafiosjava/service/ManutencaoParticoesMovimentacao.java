@@ -0,0 +1,66 @@
+package com.farmacia.desafiosjava.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Mantém as partições mensais de {@code movimentacoes_estoque} (PostgreSQL, migration V3).
+ *
+ * <p>Na inicialização e diariamente, cria as partições do mês atual e dos próximos meses, para
+ * que as movimentações novas não caiam na partição DEFAULT. Com retenção configurada, arquiva as
+ * partições antigas: elas saem da tabela (e das consultas de histórico) e vão, com os dados, para o
+ * schema {@code arquivo}. As funções SQL são idempotentes e serializadas por um advisory lock,
+ * então várias instâncias podem executar a rotina.</p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ManutencaoParticoesMovimentacao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${estoque.movimentacoes.particoes.enabled:false}")
+    private boolean habilitado;
+
+    @Value("${estoque.movimentacoes.particoes.meses-a-frente:3}")
+    private int mesesAFrente;
+
+    @Value("${estoque.movimentacoes.particoes.retencao-meses:0}")
+    private int retencaoMeses;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${estoque.movimentacoes.particoes.cron:0 30 3 * * *}")
+    public void executar() {
+        if (!habilitado) {
+            return;
+        }
+
+        try {
+            LocalDate hoje = LocalDate.now();
+            Integer criadas = jdbcTemplate.queryForObject("SELECT criar_particoes_movimentacoes(?, ?)",
+                    Integer.class, hoje, hoje.plusMonths(mesesAFrente));
+            int arquivadas = retencaoMeses > 0 ? arquivar(hoje.withDayOfMonth(1).minusMonths(retencaoMeses)) : 0;
+            log.info("Partições de movimentações: {} criadas, {} arquivadas", criadas, arquivadas);
+        } catch (DataAccessException e) {
+            // Sem as partições novas, as movimentações continuam sendo gravadas na partição DEFAULT
+            log.error("Falha na manutenção das partições de movimentações de estoque", e);
+        }
+    }
+
+    /**
+     * Arquiva as partições dos meses anteriores a {@code antesDe}.
+     */
+    public int arquivar(LocalDate antesDe) {
+        Integer arquivadas = jdbcTemplate.queryForObject("SELECT arquivar_particoes_movimentacoes(?)", Integer.class, antesDe);
+        return arquivadas == null ? 0 : arquivadas;
+    }
+}
@@ -5,28 +5,45 @@ import com.farmacia.desafiosjava.domain.Medicamento;
 import com.farmacia.desafiosjava.dto.CategoriaResponseDTO;
 import com.farmacia.desafiosjava.dto.MedicamentoRequestDTO;
 import com.farmacia.desafiosjava.dto.MedicamentoResponseDTO;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
+import com.farmacia.desafiosjava.event.EstoqueAlteradoEvent;
+import com.farmacia.desafiosjava.event.MedicamentoAlteradoEvent;
 import com.farmacia.desafiosjava.exception.BusinessException;
 import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
 import com.farmacia.desafiosjava.repository.CategoriaRepository;
 import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import com.farmacia.desafiosjava.repository.EstoqueResumoRepository;
 import com.farmacia.desafiosjava.repository.MedicamentoRepository;
 import com.farmacia.desafiosjava.repository.MovimentacaoEstoqueRepository;
 import com.farmacia.desafiosjava.util.StringUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MedicamentoService {
 
+    static final int BUSCA_LIMITE_MAXIMO = 100;
+    static final int BUSCA_TERMO_MINIMO = 2;
+    static final int BUSCA_TERMO_MAXIMO = 100;
+
     private final MedicamentoRepository medicamentoRepository;
     private final CategoriaRepository categoriaRepository;
     private final MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
     private final EstoqueRepository estoqueRepository;
+    private final EstoqueResumoRepository estoqueResumoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ListagemStreaming listagemStreaming;
+    private final IndiceBuscaMedicamentos indiceBusca;
 
     @Transactional
     public MedicamentoResponseDTO criar(MedicamentoRequestDTO request) {
@@ -51,6 +68,7 @@ public class MedicamentoService {
         }
 
         medicamento = medicamentoRepository.save(medicamento);
+        eventPublisher.publishEvent(new MedicamentoAlteradoEvent(medicamento.getId()));
 
         // Estoque será criado automaticamente na primeira entrada via POST /estoque/entrada
         // Isso garante que o lote seja criado junto e o sistema FIFO funcione corretamente
@@ -90,6 +108,7 @@ public class MedicamentoService {
         }
 
         medicamento = medicamentoRepository.save(medicamento);
+        eventPublisher.publishEvent(new MedicamentoAlteradoEvent(id));
         return toResponseDTO(medicamento);
     }
 
@@ -101,6 +120,43 @@ public class MedicamentoService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<MedicamentoResponseDTO> listarPagina(Long after, int limit) {
+        int tamanho = ListagemStreaming.validarLimite(limit);
+        List<Medicamento> registros = medicamentoRepository.findByDeletadoFalseAndIdGreaterThanOrderByIdAsc(ListagemStreaming.cursorInicial(after), Limit.of(tamanho + 1));
+        return PaginaCursorDTO.de(registros, tamanho, Medicamento::getId, this::toResponseDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarTodos(Consumer<MedicamentoResponseDTO> destino) {
+        listagemStreaming.percorrer(medicamentoRepository.streamByDeletadoFalseOrderByIdAsc(), this::toResponseDTO, destino);
+    }
+
+    /**
+     * Busca por nome, dosagem e descrição, sem diferenciar acentos e maiúsculas e tolerante a erros
+     * de digitação. Os ids vêm do índice em memória; as entidades, do cache de 2º nível.
+     */
+    @Transactional(readOnly = true)
+    public List<MedicamentoResponseDTO> buscar(String termo, int limit) {
+        String termoNormalizado = StringUtils.normalizeString(termo);
+        if (termoNormalizado == null || termoNormalizado.length() < BUSCA_TERMO_MINIMO || termoNormalizado.length() > BUSCA_TERMO_MAXIMO) {
+            throw new BusinessException("O termo de busca deve ter entre " + BUSCA_TERMO_MINIMO + " e " + BUSCA_TERMO_MAXIMO + " caracteres");
+        }
+        if (limit < 1 || limit > BUSCA_LIMITE_MAXIMO) {
+            throw new BusinessException("O parâmetro limit deve estar entre 1 e " + BUSCA_LIMITE_MAXIMO);
+        }
+
+        List<Long> ids = indiceBusca.buscar(termoNormalizado, limit);
+        Map<Long, Medicamento> medicamentos = medicamentoRepository.findAllByIdUsandoCache(ids).stream()
+                .collect(Collectors.toMap(Medicamento::getId, Function.identity()));
+        // Mantém a ordem de relevância do índice
+        return ids.stream()
+                .map(medicamentos::get)
+                .filter(medicamento -> medicamento != null && !medicamento.getDeletado())
+                .map(this::toResponseDTO)
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public MedicamentoResponseDTO buscarPorId(Long id) {
         Medicamento medicamento = medicamentoRepository.findById(id)
@@ -145,6 +201,7 @@ public class MedicamentoService {
             medicamento.setAtivo(false);
             medicamento.setDeletado(true);
             medicamentoRepository.save(medicamento);
+            eventPublisher.publishEvent(new MedicamentoAlteradoEvent(id));
             return "soft_delete_vendido"; // Soft delete: foi vendido
         } else {
             // Caso contrário, deletar fisicamente do banco
@@ -153,12 +210,16 @@ public class MedicamentoService {
             // 1. Deletar movimentações de estoque
             movimentacaoEstoqueRepository.deleteByMedicamentoId(id);
 
-            // 2. Deletar estoques (lotes)
+            // 2. Deletar estoques (lotes) e o resumo do estoque
             estoqueRepository.deleteByMedicamentoId(id);
+            estoqueResumoRepository.deleteById(id);
 
             // 3. Deletar o medicamento
             medicamentoRepository.deleteById(id);
 
+            eventPublisher.publishEvent(EstoqueAlteradoEvent.medicamentoRemovido(id));
+            eventPublisher.publishEvent(new MedicamentoAlteradoEvent(id));
+
             return "deleted"; // Deletado fisicamente
         }
     }
@@ -175,6 +236,7 @@ public class MedicamentoService {
 
         medicamento.setAtivo(ativo);
         medicamentoRepository.save(medicamento);
+        eventPublisher.publishEvent(new MedicamentoAlteradoEvent(id));
     }
 
     private MedicamentoResponseDTO toResponseDTO(Medicamento medicamento) {
@@ -190,7 +252,9 @@ public class MedicamentoService {
         if (medicamento.getCategoria() != null) {
             CategoriaResponseDTO categoriaDTO = new CategoriaResponseDTO(
                     medicamento.getCategoria().getId(),
-                    medicamento.getCategoria().getNome()
+                    medicamento.getCategoria().getNome(),
+                    medicamento.getCategoria().getLimiteEstoqueBaixo(),
+                    medicamento.getCategoria().getDiasAlertaValidade()
             );
             dto.setCategoria(categoriaDTO);
         }
@@ -0,0 +1,241 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.dto.AlertaEstoqueBaixoDTO;
+import com.farmacia.desafiosjava.dto.AlertaValidadeProximaDTO;
+import com.farmacia.desafiosjava.dto.LoteVencimentoDTO;
+import com.farmacia.desafiosjava.dto.PainelAlertasDTO;
+import com.farmacia.desafiosjava.event.AlertasAtualizadosEvent;
+import com.farmacia.desafiosjava.event.CategoriaAlteradaEvent;
+import com.farmacia.desafiosjava.event.EstoqueAlteradoEvent;
+import com.farmacia.desafiosjava.event.MedicamentoAlteradoEvent;
+import com.farmacia.desafiosjava.repository.CategoriaRepository;
+import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import com.farmacia.desafiosjava.repository.EstoqueResumoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Painel de alertas (estoque baixo e validade próxima) pré-calculado e servido da memória.
+ *
+ * <p>Recalculado por inteiro na subida e periodicamente (o que também atualiza os dias para
+ * vencer na virada do dia). Após o commit de cada movimentação, os medicamentos afetados são
+ * anotados e consultados de novo no banco por uma thread própria, após um pequeno atraso que
+ * junta as vendas próximas em uma única atualização: a venda não espera pelo painel. A mudança
+ * dos limites de uma categoria agenda, na mesma thread, um recálculo completo. Cada painel é imutável; a versão só avança quando o conteúdo
+ * muda, e a troca é anunciada com um {@link AlertasAtualizadosEvent}.</p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PainelAlertas {
+
+    // Prefixo das versões: instâncias diferentes atrás do mesmo balanceador nunca geram a mesma versão
+    private static final String INSTANCIA = Long.toString(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE), 36);
+
+    private static final Comparator<AlertaEstoqueBaixoDTO> ORDEM_ESTOQUE_BAIXO =
+            Comparator.comparing(AlertaEstoqueBaixoDTO::getQuantidadeAtual).thenComparing(AlertaEstoqueBaixoDTO::getMedicamentoId);
+    private static final Comparator<AlertaValidadeProximaDTO> ORDEM_VALIDADE =
+            Comparator.comparing(AlertaValidadeProximaDTO::getDataVencimento).thenComparing(AlertaValidadeProximaDTO::getMedicamentoId);
+
+    private final EstoqueResumoRepository estoqueResumoRepository;
+    private final EstoqueRepository estoqueRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Serializa os recálculos: a consulta e a troca do painel não podem intercalar com outra thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile PainelAlertasDTO painel;
+    // Protegidos pelo lock
+    private long versao;
+    private int horizonteDias;
+
+    // Medicamentos alterados desde a última atualização; agendada indica uma atualização já programada
+    // e recalculoPendente que ela deve refazer o painel inteiro
+    private final Set<Long> pendentes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recalculoPendente = new AtomicBoolean();
+    private final AtomicBoolean agendada = new AtomicBoolean();
+    private final ScheduledExecutorService atualizacoes = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "alertas-atualizacao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${alertas.atualizacao.atraso-ms:200}")
+    private long atrasoMs;
+
+    @Value("${estoque.limite-baixo:10}")
+    private Integer limiteBaixo;
+
+    @Value("${validade.dias-alerta:30}")
+    private Integer diasAlerta;
+
+    /**
+     * Painel atual; calculado na hora se ainda não foi carregado.
+     */
+    public PainelAlertasDTO atual() {
+        PainelAlertasDTO atual = painel;
+        if (atual == null) {
+            recalcular();
+            atual = painel;
+        }
+        return atual;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${alertas.recalculo-ms:300000}", initialDelayString = "${alertas.recalculo-ms:300000}")
+    public void recalcular() {
+        lock.lock();
+        try {
+            LocalDate hoje = LocalDate.now();
+            // Maior antecedência entre o padrão e as categorias: limita a faixa de vencimentos lida
+            Integer maiorDiasCategoria = categoriaRepository.findMaiorDiasAlertaValidade();
+            horizonteDias = maiorDiasCategoria == null ? diasAlerta : Math.max(diasAlerta, maiorDiasCategoria);
+
+            List<AlertaEstoqueBaixoDTO> estoqueBaixo = estoqueResumoRepository.findAlertasEstoqueBaixo(limiteBaixo);
+            List<LoteVencimentoDTO> lotes = estoqueRepository.findEstoquesComVencimentoProximo(hoje, hoje.plusDays(horizonteDias), diasAlerta);
+            publicar(new ArrayList<>(estoqueBaixo), validadeProxima(lotes, hoje));
+        } finally {
+            lock.unlock();
+        }
+        log.debug("Painel de alertas recalculado: versão {}", painel.versao());
+    }
+
+    @TransactionalEventListener
+    public void aoAlterarEstoque(EstoqueAlteradoEvent evento) {
+        agendar(evento.medicamentoIds());
+    }
+
+    @TransactionalEventListener
+    public void aoAlterarMedicamento(MedicamentoAlteradoEvent evento) {
+        agendar(Set.of(evento.medicamentoId()));
+    }
+
+    @TransactionalEventListener
+    public void aoAlterarCategoria(CategoriaAlteradaEvent evento) {
+        // Os limites valem para todos os medicamentos da categoria: mais simples refazer o painel
+        if (painel == null) {
+            return;
+        }
+        recalculoPendente.set(true);
+        programar();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        atualizacoes.shutdownNow();
+    }
+
+    // Só anota os medicamentos: a consulta e a troca do painel rodam na thread de atualização
+    private void agendar(Collection<Long> medicamentoIds) {
+        if (painel == null || medicamentoIds.isEmpty()) {
+            return;
+        }
+        pendentes.addAll(medicamentoIds);
+        programar();
+    }
+
+    private void programar() {
+        if (agendada.compareAndSet(false, true)) {
+            atualizacoes.schedule(this::atualizarPendentes, atrasoMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void atualizarPendentes() {
+        // Liberada antes de ler os pendentes: o que for anotado daqui em diante agenda outra rodada
+        agendada.set(false);
+        boolean completo = recalculoPendente.getAndSet(false);
+        Set<Long> medicamentoIds = new HashSet<>(pendentes);
+        pendentes.removeAll(medicamentoIds);
+        try {
+            // O recálculo completo já relê os medicamentos anotados
+            if (completo) {
+                recalcular();
+            } else {
+                atualizar(medicamentoIds);
+            }
+        } catch (RuntimeException e) {
+            // O recálculo periódico corrige o painel
+            log.error("Falha ao atualizar o painel de alertas ({} medicamentos, recálculo completo: {})",
+                    medicamentoIds.size(), completo, e);
+        }
+    }
+
+    private void atualizar(Collection<Long> medicamentoIds) {
+        if (painel == null || medicamentoIds.isEmpty()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            LocalDate hoje = LocalDate.now();
+            PainelAlertasDTO anterior = painel;
+
+            List<AlertaEstoqueBaixoDTO> estoqueBaixo = new ArrayList<>(anterior.estoqueBaixo());
+            estoqueBaixo.removeIf(alerta -> medicamentoIds.contains(alerta.getMedicamentoId()));
+            estoqueBaixo.addAll(estoqueResumoRepository.findAlertasEstoqueBaixo(medicamentoIds, limiteBaixo));
+
+            List<AlertaValidadeProximaDTO> validadeProxima = new ArrayList<>(anterior.validadeProxima());
+            validadeProxima.removeIf(alerta -> medicamentoIds.contains(alerta.getMedicamentoId()));
+            validadeProxima.addAll(validadeProxima(estoqueRepository.findEstoquesComVencimentoProximo(
+                    medicamentoIds, hoje, hoje.plusDays(horizonteDias), diasAlerta), hoje));
+
+            publicar(estoqueBaixo, validadeProxima);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Chamado com o lock: troca o painel só se o conteúdo mudou
+    private void publicar(List<AlertaEstoqueBaixoDTO> estoqueBaixo, List<AlertaValidadeProximaDTO> validadeProxima) {
+        estoqueBaixo.sort(ORDEM_ESTOQUE_BAIXO);
+        validadeProxima.sort(ORDEM_VALIDADE);
+
+        PainelAlertasDTO anterior = painel;
+        if (anterior != null && anterior.estoqueBaixo().equals(estoqueBaixo) && anterior.validadeProxima().equals(validadeProxima)) {
+            return;
+        }
+
+        PainelAlertasDTO novo = new PainelAlertasDTO(INSTANCIA + "-" + (++versao), LocalDateTime.now(),
+                List.copyOf(estoqueBaixo), List.copyOf(validadeProxima));
+        painel = novo;
+        eventPublisher.publishEvent(new AlertasAtualizadosEvent(novo));
+    }
+
+    // Mantém os lotes dentro da antecedência da categoria de cada medicamento
+    private static List<AlertaValidadeProximaDTO> validadeProxima(List<LoteVencimentoDTO> lotes, LocalDate hoje) {
+        List<AlertaValidadeProximaDTO> alertas = new ArrayList<>();
+        for (LoteVencimentoDTO lote : lotes) {
+            long dias = ChronoUnit.DAYS.between(hoje, lote.dataVencimento());
+            if (dias <= lote.diasAlerta()) {
+                alertas.add(new AlertaValidadeProximaDTO(lote.medicamentoId(), lote.medicamentoNome(),
+                        lote.quantidade(), lote.dataVencimento(), dias));
+            }
+        }
+        return alertas;
+    }
+}
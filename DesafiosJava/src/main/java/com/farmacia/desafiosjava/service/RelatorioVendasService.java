@@ -0,0 +1,250 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Categoria;
+import com.farmacia.desafiosjava.domain.ItemVenda;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.domain.Venda;
+import com.farmacia.desafiosjava.domain.VendaAgregada;
+import com.farmacia.desafiosjava.domain.VendaAgregada.Dimensao;
+import com.farmacia.desafiosjava.domain.VendaAgregada.Granularidade;
+import com.farmacia.desafiosjava.dto.PontoSerieVendasDTO;
+import com.farmacia.desafiosjava.dto.RankingVendasDTO;
+import com.farmacia.desafiosjava.dto.ResumoVendasDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
+import com.farmacia.desafiosjava.repository.CategoriaRepository;
+import com.farmacia.desafiosjava.repository.MedicamentoRepository;
+import com.farmacia.desafiosjava.repository.VendaAgregadaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Relatórios de vendas (receita, unidades e ticket médio) lidos das vendas agregadas por hora, dia
+ * e mês. Cada venda é somada na própria transação; meses fechados podem ser recalculados a partir
+ * de vendas e itens_venda.
+ */
+@Service
+@Slf4j
+public class RelatorioVendasService {
+
+    static final int RANKING_MAXIMO = 100;
+
+    private final VendaAgregadaRepository vendaAgregadaRepository;
+    private final MedicamentoRepository medicamentoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public RelatorioVendasService(VendaAgregadaRepository vendaAgregadaRepository,
+                                  MedicamentoRepository medicamentoRepository,
+                                  CategoriaRepository categoriaRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.vendaAgregadaRepository = vendaAgregadaRepository;
+        this.medicamentoRepository = medicamentoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Soma uma venda já gravada às linhas da hora, do dia e do mês dela: no total, em cada categoria
+     * e em cada medicamento da venda (com a categoria do medicamento no momento da venda).
+     */
+    @Transactional
+    public void registrarVenda(Venda venda) {
+        short fatia = (short) (venda.getId() % VendaAgregada.FATIAS);
+        Map<Long, List<ItemVenda>> porMedicamento = venda.getItensVenda().stream()
+                .collect(Collectors.groupingBy(item -> item.getMedicamento().getId(), LinkedHashMap::new, Collectors.toList()));
+        Map<Long, List<ItemVenda>> porCategoria = venda.getItensVenda().stream()
+                .collect(Collectors.groupingBy(item -> chaveCategoria(item.getMedicamento()), LinkedHashMap::new, Collectors.toList()));
+
+        List<VendaAgregada> parcelas = new ArrayList<>();
+        for (Granularidade granularidade : Granularidade.values()) {
+            LocalDateTime periodo = granularidade.inicio(venda.getDataHora());
+            parcelas.add(parcela(Dimensao.TOTAL, 0L, granularidade, periodo, fatia, venda.getItensVenda()));
+            porCategoria.forEach((categoriaId, itens) ->
+                    parcelas.add(parcela(Dimensao.CATEGORIA, categoriaId, granularidade, periodo, fatia, itens)));
+            // Linhas de medicamento sem fatias: a venda já espera pelos lotes e pelo resumo de estoque dele
+            porMedicamento.forEach((medicamentoId, itens) ->
+                    parcelas.add(parcela(Dimensao.MEDICAMENTO, medicamentoId, granularidade, periodo, (short) 0, itens)));
+        }
+        vendaAgregadaRepository.acumular(parcelas);
+    }
+
+    /**
+     * Totais das vendas entre {@code de} e {@code ate} (inclusive), opcionalmente de um medicamento
+     * ou de uma categoria.
+     */
+    @Transactional(readOnly = true)
+    public ResumoVendasDTO resumo(LocalDate de, LocalDate ate, Long medicamentoId, Long categoriaId) {
+        Periodo periodo = Periodo.de(de, ate);
+        Filtro filtro = filtro(medicamentoId, categoriaId);
+        return vendaAgregadaRepository.somar(filtro.dimensao(), filtro.chave(),
+                periodo.inicio(), periodo.inicioMeses(), periodo.fimMeses(), periodo.fim());
+    }
+
+    /**
+     * Totais por hora, dia ou mês entre {@code de} e {@code ate} (inclusive); períodos sem vendas
+     * não aparecem.
+     */
+    @Transactional(readOnly = true)
+    public List<PontoSerieVendasDTO> serie(LocalDate de, LocalDate ate, Granularidade granularidade,
+                                           Long medicamentoId, Long categoriaId) {
+        Periodo periodo = Periodo.de(de, ate);
+        int maximoDias = switch (granularidade) {
+            case HORA -> 31;
+            case DIA -> 1096;
+            case MES -> 3660;
+        };
+        if (ChronoUnit.DAYS.between(de, ate) >= maximoDias) {
+            throw new BusinessException("A série por " + granularidade.name().toLowerCase() + " aceita períodos de até " + maximoDias + " dias");
+        }
+        Filtro filtro = filtro(medicamentoId, categoriaId);
+        // Séries mensais começam no mês de "de"; o período de cada ponto é sempre inteiro
+        return vendaAgregadaRepository.serie(filtro.dimensao(), filtro.chave(), granularidade,
+                granularidade.inicio(periodo.inicio()), periodo.fim());
+    }
+
+    /**
+     * Medicamentos com maior receita no período.
+     */
+    @Transactional(readOnly = true)
+    public List<RankingVendasDTO> rankingMedicamentos(LocalDate de, LocalDate ate, int limit) {
+        List<RankingVendasDTO> ranking = ranking(Dimensao.MEDICAMENTO, de, ate, limit);
+        Map<Long, String> nomes = medicamentoRepository.findAllByIdUsandoCache(ranking.stream().map(RankingVendasDTO::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Medicamento::getId, Medicamento::getNome));
+        ranking.forEach(linha -> linha.setNome(nomes.get(linha.getId())));
+        return ranking;
+    }
+
+    /**
+     * Categorias com maior receita no período; id 0 reúne os medicamentos sem categoria.
+     */
+    @Transactional(readOnly = true)
+    public List<RankingVendasDTO> rankingCategorias(LocalDate de, LocalDate ate, int limit) {
+        List<RankingVendasDTO> ranking = ranking(Dimensao.CATEGORIA, de, ate, limit);
+        Map<Long, Categoria> categorias = categoriaRepository.findAllById(ranking.stream().map(RankingVendasDTO::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Categoria::getId, Function.identity()));
+        ranking.forEach(linha -> linha.setNome(linha.getId() == 0 ? "Sem categoria"
+                : categorias.containsKey(linha.getId()) ? categorias.get(linha.getId()).getNome() : null));
+        return ranking;
+    }
+
+    /**
+     * Recalcula os meses de {@code de} a {@code ate} a partir das vendas, um mês por transação. Só
+     * aceita meses fechados: no mês corrente, vendas em andamento seriam contadas duas vezes ou perdidas.
+     *
+     * @return linhas gravadas
+     */
+    public int reconstruir(YearMonth de, YearMonth ate) {
+        if (de.isAfter(ate)) {
+            throw new BusinessException("O mês inicial (de) deve ser anterior ou igual ao mês final (ate)");
+        }
+        if (!ate.isBefore(YearMonth.now())) {
+            throw new BusinessException("Só meses fechados podem ser reconstruídos; o mês corrente é mantido a cada venda");
+        }
+
+        int linhas = 0;
+        for (YearMonth mes = de; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+            LocalDateTime inicio = mes.atDay(1).atStartOfDay();
+            LocalDateTime fim = mes.plusMonths(1).atDay(1).atStartOfDay();
+            Integer gravadas = transactionTemplate.execute(status -> vendaAgregadaRepository.reconstruir(inicio, fim));
+            linhas += gravadas == null ? 0 : gravadas;
+        }
+        log.info("Vendas agregadas reconstruídas de {} a {}: {} linhas", de, ate, linhas);
+        return linhas;
+    }
+
+    /**
+     * Confere o mês anterior com as vendas gravadas (corrige, por exemplo, categorias alteradas
+     * ou vendas removidas manualmente).
+     */
+    @Scheduled(cron = "${relatorios.vendas.reconciliacao.cron:0 15 4 1 * *}")
+    public void reconciliarMesAnterior() {
+        YearMonth anterior = YearMonth.now().minusMonths(1);
+        reconstruir(anterior, anterior);
+    }
+
+    private List<RankingVendasDTO> ranking(Dimensao dimensao, LocalDate de, LocalDate ate, int limit) {
+        if (limit < 1 || limit > RANKING_MAXIMO) {
+            throw new BusinessException("O parâmetro limit deve estar entre 1 e " + RANKING_MAXIMO);
+        }
+        Periodo periodo = Periodo.de(de, ate);
+        return vendaAgregadaRepository.ranking(dimensao, periodo.inicio(), periodo.inicioMeses(), periodo.fimMeses(),
+                periodo.fim(), Limit.of(limit));
+    }
+
+    private Filtro filtro(Long medicamentoId, Long categoriaId) {
+        if (medicamentoId != null && categoriaId != null) {
+            throw new BusinessException("Informe medicamentoId ou categoriaId, não os dois");
+        }
+        if (medicamentoId != null) {
+            if (!medicamentoRepository.existsById(medicamentoId)) {
+                throw new ResourceNotFoundException("Medicamento não encontrado");
+            }
+            return new Filtro(Dimensao.MEDICAMENTO, medicamentoId);
+        }
+        if (categoriaId != null) {
+            if (categoriaId != 0 && !categoriaRepository.existsById(categoriaId)) {
+                throw new ResourceNotFoundException("Categoria não encontrada");
+            }
+            return new Filtro(Dimensao.CATEGORIA, categoriaId);
+        }
+        return new Filtro(Dimensao.TOTAL, 0L);
+    }
+
+    private static long chaveCategoria(Medicamento medicamento) {
+        return medicamento.getCategoria() == null ? 0L : medicamento.getCategoria().getId();
+    }
+
+    private static VendaAgregada parcela(Dimensao dimensao, Long chave, Granularidade granularidade, LocalDateTime periodo,
+                                         short fatia, List<ItemVenda> itens) {
+        long unidades = itens.stream().mapToLong(ItemVenda::getQuantidade).sum();
+        BigDecimal receita = itens.stream().map(ItemVenda::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new VendaAgregada(dimensao, chave, granularidade, periodo, fatia, 1, unidades, receita);
+    }
+
+    private record Filtro(Dimensao dimensao, Long chave) {
+    }
+
+    /**
+     * Período [inicio, fim) dividido em dias iniciais, meses inteiros e dias finais. Sem nenhum mês
+     * inteiro, os dias iniciais cobrem o período todo.
+     */
+    private record Periodo(LocalDateTime inicio, LocalDateTime inicioMeses, LocalDateTime fimMeses, LocalDateTime fim) {
+
+        static Periodo de(LocalDate de, LocalDate ate) {
+            if (de == null || ate == null) {
+                throw new BusinessException("Informe a data inicial (de) e a final (ate)");
+            }
+            if (de.isAfter(ate)) {
+                throw new BusinessException("A data inicial (de) deve ser anterior ou igual à data final (ate)");
+            }
+            LocalDate depoisDoFim = ate.plusDays(1);
+            LocalDate primeiroMes = de.getDayOfMonth() == 1 ? de : de.withDayOfMonth(1).plusMonths(1);
+            LocalDate fimDosMeses = depoisDoFim.withDayOfMonth(1);
+            if (!primeiroMes.isBefore(fimDosMeses)) {
+                primeiroMes = depoisDoFim;
+                fimDosMeses = depoisDoFim;
+            }
+            return new Periodo(de.atStartOfDay(), primeiroMes.atStartOfDay(), fimDosMeses.atStartOfDay(), depoisDoFim.atStartOfDay());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.exception.MotivoRecusa;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Executa uma operação em transação própria, repetindo-a um número limitado de vezes quando
+ * ela perde a disputa por lock (deadlock, timeout de lock ou conflito de versão).
+ */
+@Component
+@Slf4j
+public class TransacaoRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${estoque.alocacao.max-tentativas:3}")
+    private int maxTentativas;
+
+    @Value("${estoque.alocacao.espera-base-ms:20}")
+    private long esperaBaseMs;
+
+    public TransacaoRetryExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T executar(Supplier<T> operacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> operacao.get());
+            } catch (PessimisticLockingFailureException | ObjectOptimisticLockingFailureException ex) {
+                if (tentativa >= maxTentativas) {
+                    log.warn("Transação abortada após {} tentativas por disputa de lock: {}", tentativa, ex.getMessage());
+                    throw new BusinessException("Estoque em uso por outra operação. Tente novamente.", MotivoRecusa.DISPUTA_LOCK);
+                }
+                log.debug("Disputa de lock na tentativa {}, repetindo: {}", tentativa, ex.getMessage());
+                aguardar(tentativa);
+            }
+        }
+    }
+
+    private void aguardar(int tentativa) {
+        // Espera crescente com variação aleatória para as transações não colidirem de novo
+        long espera = esperaBaseMs * tentativa + ThreadLocalRandom.current().nextLong(esperaBaseMs + 1);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Operação interrompida");
+        }
+    }
+}
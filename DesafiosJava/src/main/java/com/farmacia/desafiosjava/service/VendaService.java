@@ -6,17 +6,27 @@ import com.farmacia.desafiosjava.domain.Medicamento;
 import com.farmacia.desafiosjava.domain.Venda;
 import com.farmacia.desafiosjava.dto.*;
 import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.exception.MotivoRecusa;
 import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
 import com.farmacia.desafiosjava.repository.ClienteRepository;
+import com.farmacia.desafiosjava.repository.ItemVendaRepository;
 import com.farmacia.desafiosjava.repository.MedicamentoRepository;
 import com.farmacia.desafiosjava.repository.VendaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,51 +34,120 @@ import java.util.stream.Collectors;
 public class VendaService {
 
     private final VendaRepository vendaRepository;
+    private final ItemVendaRepository itemVendaRepository;
     private final ClienteRepository clienteRepository;
     private final MedicamentoRepository medicamentoRepository;
     private final EstoqueService estoqueService;
     private final ClienteService clienteService;
+    private final ClienteResumoService clienteResumoService;
+    private final RelatorioVendasService relatorioVendasService;
+    private final IdempotenciaVendaService idempotenciaVendaService;
+    private final TransacaoRetryExecutor transacaoRetryExecutor;
+    private final ListagemStreaming listagemStreaming;
+    private final MeterRegistry meterRegistry;
 
-    @Transactional
     public VendaResponseDTO criar(VendaRequestDTO request) {
+        return criar(request, null, null);
+    }
+
+    /**
+     * Registra a venda. Com {@code chaveIdempotencia}, uma repetição da mesma requisição pelo mesmo
+     * usuário devolve a venda já gravada, sem baixar o estoque de novo.
+     *
+     * <p>Duração e resultado vão para o timer {@code farmacia.vendas} (tags {@code resultado} e
+     * {@code motivo} da recusa) e a quantidade de itens das vendas aprovadas para
+     * {@code farmacia.vendas.itens}.</p>
+     */
+    public VendaResponseDTO criar(VendaRequestDTO request, String usuario, String chaveIdempotencia) {
+        return registrar(request, usuario, chaveIdempotencia).venda();
+    }
+
+    /**
+     * Como {@link #criar(VendaRequestDTO, String, String)}, indicando se a venda devolvida é a
+     * repetição de uma já registrada com a mesma chave.
+     */
+    public VendaRegistradaDTO registrar(VendaRequestDTO request, String usuario, String chaveIdempotencia) {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "aprovada";
+        String motivo = "nenhum";
+        try {
+            // Os lotes ficam travados durante a venda; em caso de deadlock a venda inteira é repetida
+            VendaRegistradaDTO registrada = transacaoRetryExecutor.executar(() -> registrarVenda(request, usuario, chaveIdempotencia));
+            if (registrada.repetida()) {
+                resultado = "repetida";
+            } else {
+                meterRegistry.summary("farmacia.vendas.itens").record(registrada.venda().getItens().size());
+            }
+            return registrada;
+        } catch (BusinessException e) {
+            resultado = "recusada";
+            motivo = e.getMotivo().tag();
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            resultado = "recusada";
+            motivo = "nao_encontrado";
+            throw e;
+        } catch (RuntimeException e) {
+            resultado = "erro";
+            motivo = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            amostra.stop(meterRegistry.timer("farmacia.vendas", "resultado", resultado, "motivo", motivo));
+        }
+    }
+
+    private VendaRegistradaDTO registrarVenda(VendaRequestDTO request, String usuario, String chaveIdempotencia) {
+        if (chaveIdempotencia == null) {
+            return new VendaRegistradaDTO(registrarVenda(request), false);
+        }
+        // Reservada antes dos lotes: a repetição simultânea espera aqui, sem travar estoque
+        Optional<Long> gravada = idempotenciaVendaService.reservar(usuario, chaveIdempotencia, request);
+        if (gravada.isPresent()) {
+            return new VendaRegistradaDTO(buscarPorId(gravada.get()), true);
+        }
+        VendaResponseDTO venda = registrarVenda(request);
+        idempotenciaVendaService.associarVenda(usuario, chaveIdempotencia, venda.getId());
+        return new VendaRegistradaDTO(venda, false);
+    }
+
+    private VendaResponseDTO registrarVenda(VendaRequestDTO request) {
         // Validar cliente
         Cliente cliente = clienteRepository.findById(request.getClienteId())
                 .orElseThrow(() -> new ResourceNotFoundException("Cliente não encontrado"));
 
         // Validar idade mínima
         if (!clienteService.clienteTemIdadeMinima(request.getClienteId())) {
-            throw new BusinessException("Cliente deve ter 18 anos ou mais para realizar compras");
+            throw new BusinessException("Cliente deve ter 18 anos ou mais para realizar compras", MotivoRecusa.IDADE_MINIMA);
         }
 
         // Validar itens
         if (request.getItens() == null || request.getItens().isEmpty()) {
-            throw new BusinessException("A venda deve ter ao menos um item");
+            throw new BusinessException("A venda deve ter ao menos um item", MotivoRecusa.SEM_ITENS);
         }
 
         Venda venda = new Venda();
         venda.setCliente(cliente);
         venda.setItensVenda(new ArrayList<>());
 
+        // Carregar todos os medicamentos da venda de uma vez (cache do catálogo, e uma única consulta para os ausentes)
+        Set<Long> medicamentoIds = request.getItens().stream()
+                .map(ItemVendaDTO::getMedicamentoId)
+                .collect(Collectors.toSet());
+        Map<Long, Medicamento> medicamentos = medicamentoRepository.findAllByIdUsandoCache(medicamentoIds).stream()
+                .collect(Collectors.toMap(Medicamento::getId, Function.identity()));
+
         BigDecimal valorTotal = BigDecimal.ZERO;
 
         // Processar cada item
         for (ItemVendaDTO itemDTO : request.getItens()) {
-            Medicamento medicamento = medicamentoRepository.findById(itemDTO.getMedicamentoId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Medicamento não encontrado: " + itemDTO.getMedicamentoId()));
+            Medicamento medicamento = medicamentos.get(itemDTO.getMedicamentoId());
+            if (medicamento == null) {
+                throw new ResourceNotFoundException("Medicamento não encontrado: " + itemDTO.getMedicamentoId());
+            }
 
             // Validar medicamento ativo (impede venda de medicamentos inativos ou deletados via soft delete)
             if (!medicamento.getAtivo()) {
-                throw new BusinessException("Medicamento inativo não pode ser vendido: " + medicamento.getNome());
-            }
-
-            // Validar estoque disponível não vencido
-            if (!estoqueService.verificarEstoqueDisponivelNaoVencido(medicamento.getId(), itemDTO.getQuantidade())) {
-                // Verifica se tem lotes vencidos para mensagem mais específica
-                if (estoqueService.medicamentoTemVencidos(medicamento.getId())) {
-                    throw new BusinessException("Não há estoque válido (não vencido) suficiente para o medicamento: " + medicamento.getNome());
-                } else {
-                    throw new BusinessException("Estoque insuficiente para o medicamento: " + medicamento.getNome());
-                }
+                throw new BusinessException("Medicamento inativo não pode ser vendido: " + medicamento.getNome(), MotivoRecusa.MEDICAMENTO_INATIVO);
             }
 
             // Criar item de venda
@@ -80,42 +159,113 @@ public class VendaService {
 
             venda.getItensVenda().add(item);
             valorTotal = valorTotal.add(item.getSubtotal());
-
-            // Baixar estoque
-            estoqueService.baixarEstoque(medicamento.getId(), itemDTO.getQuantidade());
         }
 
+        // Validar e baixar o estoque de todos os itens de uma vez (FIFO, apenas lotes não vencidos)
+        estoqueService.baixarEstoqueVenda(venda.getItensVenda());
+
         venda.setValorTotal(valorTotal);
-        venda = vendaRepository.save(venda);
+        // Grava já a venda: a data e hora (@CreationTimestamp) só é gerada no INSERT e vai para os resumos
+        venda = vendaRepository.saveAndFlush(venda);
+        clienteResumoService.registrarVenda(venda);
+        relatorioVendasService.registrarVenda(venda);
 
         return toResponseDTO(venda);
     }
 
     @Transactional(readOnly = true)
     public List<VendaResponseDTO> listarTodas() {
-        return vendaRepository.findAll().stream()
-                .map(this::toResponseDTO)
-                .collect(Collectors.toList());
+        return toResponseDTOs(vendaRepository.findAllByOrderByIdAsc());
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<VendaResponseDTO> listarPagina(Long after, int limit) {
+        int tamanho = ListagemStreaming.validarLimite(limit);
+        List<Venda> registros = vendaRepository.findByIdGreaterThanOrderByIdAsc(ListagemStreaming.cursorInicial(after), Limit.of(tamanho + 1));
+        return PaginaCursorDTO.deLote(registros, tamanho, Venda::getId, this::toResponseDTOs);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarTodas(Consumer<VendaResponseDTO> destino) {
+        listagemStreaming.percorrerEmLotes(vendaRepository.streamAllByOrderByIdAsc(), this::toResponseDTOs, destino);
     }
 
     @Transactional(readOnly = true)
     public VendaResponseDTO buscarPorId(Long id) {
-        Venda venda = vendaRepository.findById(id)
+        Venda venda = vendaRepository.findComClienteById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Venda não encontrada"));
-        return toResponseDTO(venda);
+        return toResponseDTOs(List.of(venda)).getFirst();
     }
 
     @Transactional(readOnly = true)
     public List<VendaResponseDTO> listarPorCliente(Long clienteId) {
-        if (!clienteRepository.existsById(clienteId)) {
+        List<Venda> vendas = vendaRepository.findByClienteIdOrderByDataHoraDesc(clienteId);
+        // Só consulta o cliente quando não há vendas, para distinguir "sem vendas" de "cliente inexistente"
+        if (vendas.isEmpty() && !clienteRepository.existsById(clienteId)) {
             throw new ResourceNotFoundException("Cliente não encontrado");
         }
-        return vendaRepository.findByClienteIdOrderByDataHoraDesc(clienteId).stream()
-                .map(this::toResponseDTO)
+        return toResponseDTOs(vendas);
+    }
+
+    /**
+     * Vendas do cliente da mais recente para a mais antiga, em páginas de até {@code limit} registros.
+     */
+    @Transactional(readOnly = true)
+    public HistoricoComprasDTO listarPorCliente(Long clienteId, String after, int limit) {
+        int tamanho = ListagemStreaming.validarLimite(limit);
+        List<Venda> registros;
+        if (after == null) {
+            registros = vendaRepository.findByClienteIdOrderByDataHoraDescIdDesc(clienteId, Limit.of(tamanho + 1));
+            if (registros.isEmpty() && !clienteRepository.existsById(clienteId)) {
+                throw new ResourceNotFoundException("Cliente não encontrado");
+            }
+        } else {
+            CursorHistorico cursor = CursorHistorico.ler(after);
+            registros = vendaRepository.findHistoricoCliente(clienteId, cursor.dataHora(), cursor.id(), Limit.of(tamanho + 1));
+        }
+
+        // O registro excedente só indica que existe uma próxima página
+        boolean temProxima = registros.size() > tamanho;
+        List<Venda> pagina = temProxima ? registros.subList(0, tamanho) : registros;
+        String proximoCursor = temProxima ? new CursorHistorico(pagina.getLast().getDataHora(), pagina.getLast().getId()).texto() : null;
+        return new HistoricoComprasDTO(clienteId, toResponseDTOs(pagina), proximoCursor);
+    }
+
+    /**
+     * Monta as respostas de várias vendas (já carregadas com o cliente) buscando os itens de todas
+     * em uma única consulta: duas consultas no total, independente da quantidade de vendas.
+     */
+    private List<VendaResponseDTO> toResponseDTOs(List<Venda> vendas) {
+        if (vendas.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> vendaIds = vendas.stream().map(Venda::getId).toList();
+        Map<Long, List<ItemVendaResponseDTO>> itensPorVenda = itemVendaRepository.findLinhasByVendaIdIn(vendaIds).stream()
+                .collect(Collectors.groupingBy(ItemVendaLinhaDTO::vendaId,
+                        Collectors.mapping(ItemVendaLinhaDTO::toResponseDTO, Collectors.toList())));
+
+        return vendas.stream()
+                .map(venda -> toResponseDTO(venda, itensPorVenda.getOrDefault(venda.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
-    private VendaResponseDTO toResponseDTO(Venda venda) {
+    // Visível no pacote para o benchmark de mapeamento (src/jmh)
+    static VendaResponseDTO toResponseDTO(Venda venda) {
+        List<ItemVendaResponseDTO> itensDTO = venda.getItensVenda().stream()
+                .map(item -> new ItemVendaResponseDTO(
+                        item.getId(),
+                        item.getMedicamento().getId(),
+                        item.getMedicamento().getNome(),
+                        item.getQuantidade(),
+                        item.getPrecoUnitario(),
+                        item.getSubtotal()
+                ))
+                .collect(Collectors.toList());
+        return toResponseDTO(venda, itensDTO);
+    }
+
+    private static VendaResponseDTO toResponseDTO(Venda venda, List<ItemVendaResponseDTO> itensDTO) {
         VendaResponseDTO dto = new VendaResponseDTO();
         dto.setId(venda.getId());
         dto.setDataHora(venda.getDataHora());
@@ -133,16 +283,6 @@ public class VendaService {
         dto.setCliente(clienteDTO);
 
         // Itens
-        List<ItemVendaResponseDTO> itensDTO = venda.getItensVenda().stream()
-                .map(item -> new ItemVendaResponseDTO(
-                        item.getId(),
-                        item.getMedicamento().getId(),
-                        item.getMedicamento().getNome(),
-                        item.getQuantidade(),
-                        item.getPrecoUnitario(),
-                        item.getSubtotal()
-                ))
-                .collect(Collectors.toList());
         dto.setItens(itensDTO);
 
         return dto;
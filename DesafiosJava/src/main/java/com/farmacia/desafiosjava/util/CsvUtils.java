@@ -0,0 +1,58 @@
+package com.farmacia.desafiosjava.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Escrita de linhas CSV (RFC 4180: vírgula como separador, ponto decimal, aspas duplas).
+ */
+public class CsvUtils {
+
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Escreve os valores como uma linha terminada em CRLF. Nulos viram campos vazios.
+     */
+    public static void escreverLinha(Writer saida, List<?> valores) throws IOException {
+        for (int i = 0; i < valores.size(); i++) {
+            if (i > 0) {
+                saida.write(',');
+            }
+            escreverCampo(saida, valores.get(i));
+        }
+        saida.write("\r\n");
+    }
+
+    private static void escreverCampo(Writer saida, Object valor) throws IOException {
+        switch (valor) {
+            case null -> {
+            }
+            case BigDecimal numero -> saida.write(numero.toPlainString());
+            case LocalDateTime dataHora -> DATA_HORA.formatTo(dataHora, saida);
+            case Number numero -> saida.write(numero.toString());
+            case Enum<?> constante -> saida.write(constante.name());
+            default -> escreverTexto(saida, valor.toString());
+        }
+    }
+
+    private static void escreverTexto(Writer saida, String texto) throws IOException {
+        // Planilhas executam textos iniciados por =, +, - ou @ como fórmula: o apóstrofo os mantém como texto
+        boolean formula = !texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0;
+        boolean aspas = formula || texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0
+                || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0;
+        if (!aspas) {
+            saida.write(texto);
+            return;
+        }
+        saida.write('"');
+        if (formula) {
+            saida.write('\'');
+        }
+        saida.write(texto.replace("\"", "\"\""));
+        saida.write('"');
+    }
+}
@@ -1,18 +1,101 @@
 package com.farmacia.desafiosjava.util;
 
 import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 public class StringUtils {
 
+    // Faixa coberta pela tabela: ASCII, Latin-1 e Latin Extended-A/B
+    private static final int LIMITE_TABELA = 0x250;
+    // Caractere sem equivalente de um único char na tabela: a string inteira segue pelo caminho completo
+    private static final char SEM_DOBRA = '\uFFFF';
+    private static final char[] DOBRA = new char[LIMITE_TABELA];
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    static {
+        // Cada entrada é o resultado do próprio caminho completo para o caractere isolado,
+        // o que garante as mesmas regras de minúsculas e decomposição do Unicode da JVM
+        for (char c = 0; c < LIMITE_TABELA; c++) {
+            String dobrado = MARCAS.matcher(Normalizer.normalize(String.valueOf(c).toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                    .replaceAll("");
+            boolean simples = dobrado.length() == 1 && (c <= ' ' || dobrado.charAt(0) > ' ');
+            DOBRA[c] = simples ? dobrado.charAt(0) : SEM_DOBRA;
+        }
+    }
+
     /**
      * Normaliza uma string removendo acentos, convertendo para minúsculas
      * e removendo caracteres especiais extras
+     *
+     * <p>Nomes em alfabeto latino são resolvidos em uma única passada pela tabela {@code DOBRA};
+     * qualquer outro caractere (ou um locale padrão com regras próprias de minúsculas) usa o
+     * caminho completo com {@link Normalizer}, com o mesmo resultado.</p>
      */
     public static String normalizeString(String input) {
         if (input == null) {
             return null;
         }
 
+        if (localeComMinusculasProprias()) {
+            return normalizarCompleto(input);
+        }
+
+        // Remove espaços extras no início e fim (mesmo critério de String.trim)
+        int inicio = 0;
+        int fim = input.length();
+        while (inicio < fim && input.charAt(inicio) <= ' ') inicio++;
+        while (fim > inicio && input.charAt(fim - 1) <= ' ') fim--;
+
+        char[] resultado = null;
+        int tamanho = 0;
+        boolean espacoAnterior = false;
+
+        for (int i = inicio; i < fim; i++) {
+            char original = input.charAt(i);
+            if (original >= LIMITE_TABELA) {
+                return normalizarCompleto(input);
+            }
+            char c = DOBRA[original];
+            if (c == SEM_DOBRA) {
+                return normalizarCompleto(input);
+            }
+
+            // Remove espaços extras entre palavras (mantém apenas um espaço)
+            boolean espaco = isEspaco(c);
+            if (espaco && espacoAnterior) {
+                if (resultado == null) {
+                    resultado = iniciarBuffer(input, inicio, fim, tamanho);
+                }
+                continue;
+            }
+            espacoAnterior = espaco;
+            if (espaco) {
+                c = ' ';
+            }
+
+            if (resultado == null && c != original) {
+                resultado = iniciarBuffer(input, inicio, fim, tamanho);
+            }
+            if (resultado != null) {
+                resultado[tamanho] = c;
+            }
+            tamanho++;
+        }
+
+        if (resultado != null) {
+            return new String(resultado, 0, tamanho);
+        }
+        // Nada mudou além do trim: devolve a própria entrada sem copiar
+        return inicio == 0 && fim == input.length() ? input : input.substring(inicio, fim);
+    }
+
+    /**
+     * Caminho completo, usado fora da faixa da tabela (marcas combinantes, outros alfabetos...).
+     */
+    static String normalizarCompleto(String input) {
         // Remove espaços extras no início e fim
         String normalized = input.trim();
 
@@ -21,12 +104,30 @@ public class StringUtils {
 
         // Remove acentos e caracteres diacríticos
         normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD);
-        normalized = normalized.replaceAll("\\p{M}", "");
+        normalized = MARCAS.matcher(normalized).replaceAll("");
 
         // Remove espaços extras entre palavras (mantém apenas um espaço)
-        normalized = normalized.replaceAll("\\s+", " ");
+        normalized = ESPACOS.matcher(normalized).replaceAll(" ");
 
         return normalized;
     }
-}
 
+    // Mesmo conjunto do \s das expressões regulares do Java
+    private static boolean isEspaco(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    // Turco, azeri e lituano têm regras de minúsculas para I/J que a tabela (Locale.ROOT) não cobre
+    private static boolean localeComMinusculasProprias() {
+        String idioma = Locale.getDefault().getLanguage();
+        return idioma.equals("tr") || idioma.equals("az") || idioma.equals("lt");
+    }
+
+    // Na primeira alteração, copia o trecho já percorrido (idêntico à entrada) para o buffer de saída.
+    // A tabela só tem dobras de um char, então a saída nunca é maior que a entrada sem os espaços das pontas.
+    private static char[] iniciarBuffer(String input, int inicio, int fim, int copiados) {
+        char[] buffer = new char[fim - inicio];
+        input.getChars(inicio, inicio + copiados, buffer, 0);
+        return buffer;
+    }
+}
@@ -0,0 +1,108 @@
+-- ============================================================================
+-- V1 - SCHEMA INICIAL
+-- Descrição: Tabelas, sequences e constraints equivalentes às entidades JPA
+--            (com a aplicação em ddl-auto=validate, o Hibernate apenas confere).
+-- ============================================================================
+-- Bancos já existentes (criados pelo antigo ddl-auto=update + migration_consolidada_final.sql
+-- + migration_sequences.sql) não executam este script: o Flyway registra a versão 1 como
+-- baseline (spring.flyway.baseline-on-migrate) e aplica apenas as versões seguintes.
+-- ============================================================================
+
+-- Ids reservados em blocos de 50 (allocationSize das entidades, otimizador pooled-lo)
+CREATE SEQUENCE categorias_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE medicamentos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE estoque_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE movimentacoes_estoque_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE clientes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE vendas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE itens_venda_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE usuarios_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE categorias (
+    id               BIGINT       NOT NULL,
+    nome             VARCHAR(255) NOT NULL,
+    nome_normalizado VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_categorias PRIMARY KEY (id),
+    CONSTRAINT uk_categorias_nome_normalizado UNIQUE (nome_normalizado)
+);
+
+CREATE TABLE medicamentos (
+    id               BIGINT         NOT NULL,
+    nome             VARCHAR(255)   NOT NULL,
+    nome_normalizado VARCHAR(255)   NOT NULL,
+    descricao        TEXT,
+    dosagem          VARCHAR(100)   NOT NULL,
+    preco            NUMERIC(10, 2) NOT NULL,
+    ativo            BOOLEAN        NOT NULL DEFAULT TRUE,
+    deletado         BOOLEAN        NOT NULL DEFAULT FALSE,
+    categoria_id     BIGINT,
+    criado_em        TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_medicamentos PRIMARY KEY (id),
+    CONSTRAINT uk_medicamento_nome_dosagem UNIQUE (nome_normalizado, dosagem),
+    CONSTRAINT fk_medicamentos_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id)
+);
+
+CREATE TABLE estoque (
+    id                    BIGINT       NOT NULL,
+    numero_lote           VARCHAR(255) NOT NULL,
+    medicamento_id        BIGINT       NOT NULL,
+    quantidade_disponivel INTEGER      NOT NULL CHECK (quantidade_disponivel >= 0),
+    data_vencimento       DATE         NOT NULL,
+    criado_em             TIMESTAMP(6) NOT NULL,
+    ativo                 BOOLEAN      NOT NULL DEFAULT TRUE,
+    CONSTRAINT pk_estoque PRIMARY KEY (id),
+    CONSTRAINT uk_estoque_medicamento_lote UNIQUE (medicamento_id, numero_lote),
+    CONSTRAINT fk_estoque_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos (id)
+);
+
+CREATE TABLE movimentacoes_estoque (
+    id                BIGINT       NOT NULL,
+    medicamento_id    BIGINT       NOT NULL,
+    tipo              VARCHAR(255) NOT NULL CHECK (tipo IN ('ENTRADA', 'SAIDA', 'VENDA', 'AJUSTE')),
+    quantidade        INTEGER      NOT NULL,
+    data_movimentacao TIMESTAMP(6) NOT NULL,
+    observacao        TEXT,
+    CONSTRAINT pk_movimentacoes_estoque PRIMARY KEY (id),
+    CONSTRAINT fk_movimentacoes_estoque_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos (id)
+);
+
+CREATE TABLE clientes (
+    id               BIGINT       NOT NULL,
+    nome_completo    VARCHAR(255) NOT NULL,
+    cpf              VARCHAR(14)  NOT NULL,
+    email            VARCHAR(255) NOT NULL,
+    data_nascimento  DATE         NOT NULL,
+    nome_responsavel VARCHAR(255),
+    CONSTRAINT pk_clientes PRIMARY KEY (id),
+    CONSTRAINT uk_clientes_cpf UNIQUE (cpf),
+    CONSTRAINT uk_clientes_email UNIQUE (email)
+);
+
+CREATE TABLE vendas (
+    id          BIGINT         NOT NULL,
+    cliente_id  BIGINT         NOT NULL,
+    data_hora   TIMESTAMP(6)   NOT NULL,
+    valor_total NUMERIC(10, 2) NOT NULL,
+    CONSTRAINT pk_vendas PRIMARY KEY (id),
+    CONSTRAINT fk_vendas_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id)
+);
+
+CREATE TABLE itens_venda (
+    id              BIGINT         NOT NULL,
+    venda_id        BIGINT         NOT NULL,
+    medicamento_id  BIGINT         NOT NULL,
+    quantidade      INTEGER        NOT NULL CHECK (quantidade >= 1),
+    preco_unitario  NUMERIC(10, 2) NOT NULL,
+    CONSTRAINT pk_itens_venda PRIMARY KEY (id),
+    CONSTRAINT fk_itens_venda_venda FOREIGN KEY (venda_id) REFERENCES vendas (id),
+    CONSTRAINT fk_itens_venda_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos (id)
+);
+
+CREATE TABLE usuarios (
+    id       BIGINT       NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    senha    VARCHAR(255) NOT NULL,
+    role     VARCHAR(255) NOT NULL DEFAULT 'USER',
+    CONSTRAINT pk_usuarios PRIMARY KEY (id),
+    CONSTRAINT uk_usuarios_username UNIQUE (username)
+);
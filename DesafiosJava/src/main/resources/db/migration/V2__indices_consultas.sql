@@ -0,0 +1,45 @@
+-- ============================================================================
+-- V2 - ÍNDICES DAS CONSULTAS QUENTES
+-- Descrição: Índices compostos e parciais para as consultas dos repositories
+--            (além dos índices das chaves primárias e constraints UNIQUE).
+-- ============================================================================
+-- CONCURRENTLY não bloqueia escritas nas tabelas já populadas; o Flyway executa
+-- este script fora de transação. Se a criação de um índice for interrompida, o
+-- índice fica INVALID: remova-o (DROP INDEX CONCURRENTLY) antes de executar de novo.
+-- O predicado dos índices parciais precisa coincidir com o das consultas
+-- (ativo = true AND quantidade_disponivel > 0) para o planner poder usá-los.
+-- ============================================================================
+
+-- FIFO: EstoqueRepository.findEstoquesDisponiveis / findEstoquesDisponiveisPorMedicamentos /
+-- findEstoquesDisponiveisParaAtualizacao, saldos dos lotes e calcularQuantidadeTotal(NaoVencida).
+-- Só os lotes com saldo entram no índice; a quantidade vai junto para as somas saírem do próprio índice.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_estoque_fifo
+    ON estoque (medicamento_id, data_vencimento, criado_em)
+    INCLUDE (quantidade_disponivel)
+    WHERE ativo = TRUE AND quantidade_disponivel > 0;
+
+-- Alerta de validade: EstoqueRepository.findEstoquesComVencimentoProximo (faixa de data_vencimento)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_estoque_vencimento_disponivel
+    ON estoque (data_vencimento)
+    WHERE ativo = TRUE AND quantidade_disponivel > 0;
+
+-- Histórico de compras do cliente: VendaRepository.findByClienteIdOrderByDataHoraDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vendas_cliente_data_hora
+    ON vendas (cliente_id, data_hora DESC);
+
+-- Histórico de movimentações: MovimentacaoEstoqueRepository.findByMedicamentoIdOrderByDataMovimentacaoDesc
+-- (também atende MedicamentoRepository.temMovimentacoes e a exclusão por medicamento)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movimentacoes_medicamento_data
+    ON movimentacoes_estoque (medicamento_id, data_movimentacao DESC);
+
+-- Itens das vendas listadas: ItemVendaRepository.findLinhasByVendaIdIn
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_itens_venda_venda
+    ON itens_venda (venda_id);
+
+-- Verificação de vendas antes de excluir um medicamento: MedicamentoRepository.foiVendido
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_itens_venda_medicamento
+    ON itens_venda (medicamento_id);
+
+-- Catálogo por categoria: MedicamentoRepository.findByCategoriaId(AndDeletadoFalse)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medicamentos_categoria
+    ON medicamentos (categoria_id);
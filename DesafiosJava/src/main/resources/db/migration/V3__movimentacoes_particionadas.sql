@@ -0,0 +1,128 @@
+-- ============================================================================
+-- V3 - MOVIMENTAÇÕES DE ESTOQUE PARTICIONADAS POR MÊS
+-- Descrição: movimentacoes_estoque (ledger append-only, a maior tabela do sistema)
+--            passa a ser particionada por faixa de data_movimentacao, uma partição
+--            por mês. As consultas de histórico filtram por período e só leem as
+--            partições do período; partições antigas podem ser arquivadas.
+-- ============================================================================
+-- A cópia das linhas existentes trava a tabela durante a migration: em bancos com
+-- histórico grande, execute com a aplicação parada.
+-- ============================================================================
+
+CREATE SCHEMA IF NOT EXISTS arquivo;
+
+ALTER TABLE movimentacoes_estoque RENAME TO movimentacoes_estoque_antiga;
+-- Nomes de índices e constraints que serão recriados na tabela particionada
+DROP INDEX IF EXISTS idx_movimentacoes_medicamento_data;
+ALTER TABLE movimentacoes_estoque_antiga DROP CONSTRAINT IF EXISTS pk_movimentacoes_estoque;
+ALTER TABLE movimentacoes_estoque_antiga DROP CONSTRAINT IF EXISTS fk_movimentacoes_estoque_medicamento;
+
+-- A chave primária de uma tabela particionada precisa conter a coluna de particionamento
+CREATE TABLE movimentacoes_estoque (
+    id                BIGINT       NOT NULL,
+    medicamento_id    BIGINT       NOT NULL,
+    tipo              VARCHAR(255) NOT NULL CHECK (tipo IN ('ENTRADA', 'SAIDA', 'VENDA', 'AJUSTE')),
+    quantidade        INTEGER      NOT NULL,
+    data_movimentacao TIMESTAMP(6) NOT NULL,
+    observacao        TEXT,
+    CONSTRAINT pk_movimentacoes_estoque PRIMARY KEY (id, data_movimentacao),
+    CONSTRAINT fk_movimentacoes_estoque_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos (id)
+) PARTITION BY RANGE (data_movimentacao);
+
+-- Recebe movimentações fora dos meses já criados (ex.: se a manutenção das partições parar)
+CREATE TABLE movimentacoes_estoque_default PARTITION OF movimentacoes_estoque DEFAULT;
+
+-- Histórico por medicamento e período (criado em cada partição)
+CREATE INDEX idx_movimentacoes_medicamento_data
+    ON movimentacoes_estoque (medicamento_id, data_movimentacao DESC);
+
+-- ----------------------------------------------------------------------------
+-- Cria as partições mensais (movimentacoes_estoque_AAAAMM) de todos os meses entre
+-- as duas datas, inclusive. Linhas desses meses que estejam na partição DEFAULT são
+-- movidas para a nova partição. Retorna quantas partições foram criadas.
+-- ----------------------------------------------------------------------------
+CREATE OR REPLACE FUNCTION criar_particoes_movimentacoes(de DATE, ate DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    mes DATE := date_trunc('month', de)::date;
+    proximo DATE;
+    particao TEXT;
+    criadas INTEGER := 0;
+BEGIN
+    -- Instâncias executando a manutenção ao mesmo tempo esperam umas pelas outras
+    PERFORM pg_advisory_xact_lock(hashtext('particoes_movimentacoes_estoque'));
+
+    WHILE mes <= ate LOOP
+        proximo := (mes + INTERVAL '1 month')::date;
+        particao := 'movimentacoes_estoque_' || to_char(mes, 'YYYYMM');
+
+        IF to_regclass(particao) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE movimentacoes_estoque INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', particao);
+            EXECUTE format(
+                'WITH movidas AS (DELETE FROM movimentacoes_estoque_default
+                                  WHERE data_movimentacao >= %L AND data_movimentacao < %L RETURNING *)
+                 INSERT INTO %I SELECT * FROM movidas',
+                mes, proximo, particao);
+            EXECUTE format('ALTER TABLE movimentacoes_estoque ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                particao, mes, proximo);
+            criadas := criadas + 1;
+        END IF;
+
+        mes := proximo;
+    END LOOP;
+    RETURN criadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ----------------------------------------------------------------------------
+-- Arquiva as partições mensais que terminam até a data informada: a partição é
+-- desanexada (deixa de aparecer nas consultas da aplicação) e movida, com os dados,
+-- para o schema arquivo, de onde pode ser exportada ou removida. A chave estrangeira
+-- para medicamentos é removida da cópia arquivada. Retorna quantas foram arquivadas.
+-- ----------------------------------------------------------------------------
+CREATE OR REPLACE FUNCTION arquivar_particoes_movimentacoes(antes_de DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    particao TEXT;
+    restricao TEXT;
+    arquivadas INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('particoes_movimentacoes_estoque'));
+
+    FOR particao IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'movimentacoes_estoque'::regclass
+          AND c.relname ~ '^movimentacoes_estoque_[0-9]{6}$'
+          AND (to_date(right(c.relname, 6), 'YYYYMM') + INTERVAL '1 month')::date <= antes_de
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE movimentacoes_estoque DETACH PARTITION %I', particao);
+
+        FOR restricao IN
+            SELECT conname FROM pg_constraint
+            WHERE conrelid = particao::regclass AND contype = 'f'
+        LOOP
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', particao, restricao);
+        END LOOP;
+
+        EXECUTE format('ALTER TABLE %I SET SCHEMA arquivo', particao);
+        arquivadas := arquivadas + 1;
+    END LOOP;
+    RETURN arquivadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partições do primeiro mês com movimentações até três meses à frente
+SELECT criar_particoes_movimentacoes(
+    COALESCE((SELECT MIN(data_movimentacao) FROM movimentacoes_estoque_antiga)::date, current_date),
+    (current_date + INTERVAL '3 months')::date);
+
+INSERT INTO movimentacoes_estoque (id, medicamento_id, tipo, quantidade, data_movimentacao, observacao)
+SELECT id, medicamento_id, tipo, quantidade, data_movimentacao, observacao
+FROM movimentacoes_estoque_antiga;
+
+DROP TABLE movimentacoes_estoque_antiga;
+
+ANALYZE movimentacoes_estoque;
@@ -0,0 +1,37 @@
+-- ============================================================================
+-- V4 - RESUMO DE ESTOQUE POR MEDICAMENTO
+-- Descrição: estoque_resumo guarda, por medicamento, o saldo dos lotes disponíveis
+--            (total, não vencido, quantidade de lotes e vencimento mais próximo).
+--            A aplicação atualiza a linha na mesma transação de cada entrada, saída
+--            ou venda; estoque consolidado, disponibilidade e alertas de estoque baixo
+--            passam a ler uma linha pela chave primária em vez de somar os lotes.
+-- ============================================================================
+-- A carga inicial soma os lotes no momento da migration: execute com a aplicação parada
+-- (na inicialização normal, o Flyway roda antes de a aplicação aceitar requisições).
+-- ============================================================================
+
+CREATE TABLE estoque_resumo (
+    medicamento_id         BIGINT       NOT NULL,
+    quantidade_total       INTEGER      NOT NULL,
+    -- Válida para data_referencia (ou para qualquer dia, se primeiro_vencimento ainda não passou)
+    quantidade_nao_vencida INTEGER      NOT NULL,
+    quantidade_lotes       INTEGER      NOT NULL,
+    primeiro_vencimento    DATE,
+    data_referencia        DATE         NOT NULL,
+    atualizado_em          TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_estoque_resumo PRIMARY KEY (medicamento_id),
+    CONSTRAINT fk_estoque_resumo_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos (id)
+);
+
+INSERT INTO estoque_resumo (medicamento_id, quantidade_total, quantidade_nao_vencida, quantidade_lotes,
+                            primeiro_vencimento, data_referencia, atualizado_em)
+SELECT m.id,
+       COALESCE(SUM(e.quantidade_disponivel), 0),
+       COALESCE(SUM(CASE WHEN e.data_vencimento >= current_date THEN e.quantidade_disponivel ELSE 0 END), 0),
+       COUNT(e.id),
+       MIN(e.data_vencimento),
+       current_date,
+       now()
+FROM medicamentos m
+LEFT JOIN estoque e ON e.medicamento_id = m.id AND e.ativo = TRUE AND e.quantidade_disponivel > 0
+GROUP BY m.id;
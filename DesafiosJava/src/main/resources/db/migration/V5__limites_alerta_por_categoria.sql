@@ -0,0 +1,12 @@
+-- ============================================================================
+-- V5 - LIMITES DE ALERTA POR CATEGORIA
+-- Descrição: cada categoria pode definir o próprio limite de estoque baixo e a
+--            antecedência (em dias) do alerta de validade. Nulo usa os padrões
+--            estoque.limite-baixo e validade.dias-alerta da aplicação.
+-- ============================================================================
+
+ALTER TABLE categorias
+    ADD COLUMN limite_estoque_baixo INTEGER,
+    ADD COLUMN dias_alerta_validade INTEGER,
+    ADD CONSTRAINT ck_categorias_limite_estoque_baixo CHECK (limite_estoque_baixo > 0),
+    ADD CONSTRAINT ck_categorias_dias_alerta_validade CHECK (dias_alerta_validade > 0);
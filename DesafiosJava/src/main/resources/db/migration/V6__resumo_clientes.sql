@@ -0,0 +1,73 @@
+-- ============================================================================
+-- V6 - RESUMO DE COMPRAS POR CLIENTE
+-- Descrição: cliente_resumo guarda, por cliente, o total gasto, a quantidade de
+--            compras, as últimas vendas e os medicamentos mais comprados (JSON);
+--            cliente_medicamento_resumo acumula quantidade e valor por cliente e
+--            medicamento, de onde sai a lista dos mais comprados. A aplicação
+--            atualiza as duas tabelas na mesma transação de cada venda; a tela do
+--            cliente passa a ler uma linha pela chave primária.
+-- ============================================================================
+-- A carga inicial lê todas as vendas no momento da migration: execute com a aplicação
+-- parada (na inicialização normal, o Flyway roda antes de a aplicação aceitar requisições).
+-- Os tamanhos das listas (10 vendas e 5 medicamentos) são os de ClienteResumo.
+-- ============================================================================
+
+CREATE TABLE cliente_resumo (
+    cliente_id         BIGINT         NOT NULL,
+    quantidade_compras INTEGER        NOT NULL,
+    valor_total        NUMERIC(14, 2) NOT NULL,
+    primeira_compra    TIMESTAMP(6),
+    ultima_compra      TIMESTAMP(6),
+    -- Nulos só entre a criação da linha e a primeira venda, na mesma transação
+    ultimas_vendas     JSONB,
+    mais_comprados     JSONB,
+    atualizado_em      TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_cliente_resumo PRIMARY KEY (cliente_id),
+    CONSTRAINT fk_cliente_resumo_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id)
+);
+
+CREATE TABLE cliente_medicamento_resumo (
+    cliente_id     BIGINT         NOT NULL,
+    medicamento_id BIGINT         NOT NULL,
+    quantidade     INTEGER        NOT NULL,
+    valor_total    NUMERIC(14, 2) NOT NULL,
+    ultima_compra  TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_cliente_medicamento_resumo PRIMARY KEY (cliente_id, medicamento_id),
+    CONSTRAINT fk_cliente_medicamento_resumo_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id),
+    CONSTRAINT fk_cliente_medicamento_resumo_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos (id)
+);
+
+INSERT INTO cliente_medicamento_resumo (cliente_id, medicamento_id, quantidade, valor_total, ultima_compra)
+SELECT v.cliente_id, i.medicamento_id, SUM(i.quantidade), SUM(i.quantidade * i.preco_unitario), MAX(v.data_hora)
+FROM vendas v
+JOIN itens_venda i ON i.venda_id = v.id
+GROUP BY v.cliente_id, i.medicamento_id;
+
+INSERT INTO cliente_resumo (cliente_id, quantidade_compras, valor_total, primeira_compra, ultima_compra,
+                            ultimas_vendas, mais_comprados, atualizado_em)
+SELECT v.cliente_id,
+       COUNT(*),
+       SUM(v.valor_total),
+       MIN(v.data_hora),
+       MAX(v.data_hora),
+       (SELECT jsonb_agg(jsonb_build_object('vendaId', u.id, 'dataHora', u.data_hora, 'valorTotal', u.valor_total,
+                                            'quantidadeItens', u.quantidade_itens)
+                         ORDER BY u.data_hora DESC, u.id DESC)
+        FROM (SELECT r.id, r.data_hora, r.valor_total,
+                     (SELECT COUNT(*) FROM itens_venda i WHERE i.venda_id = r.id) AS quantidade_itens
+              FROM vendas r
+              WHERE r.cliente_id = v.cliente_id
+              ORDER BY r.data_hora DESC, r.id DESC
+              LIMIT 10) u),
+       (SELECT jsonb_agg(jsonb_build_object('medicamentoId', c.medicamento_id, 'nome', m.nome,
+                                            'quantidade', c.quantidade, 'ultimaCompra', c.ultima_compra)
+                         ORDER BY c.quantidade DESC, c.ultima_compra DESC, c.medicamento_id)
+        FROM (SELECT r.medicamento_id, r.quantidade, r.ultima_compra
+              FROM cliente_medicamento_resumo r
+              WHERE r.cliente_id = v.cliente_id
+              ORDER BY r.quantidade DESC, r.ultima_compra DESC, r.medicamento_id
+              LIMIT 5) c
+        JOIN medicamentos m ON m.id = c.medicamento_id),
+       now()
+FROM vendas v
+GROUP BY v.cliente_id;
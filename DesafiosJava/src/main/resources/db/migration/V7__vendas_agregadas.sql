@@ -0,0 +1,65 @@
+-- ============================================================================
+-- V7 - VENDAS AGREGADAS (RELATÓRIOS)
+-- Descrição: vendas, unidades e receita somadas por hora, dia e mês, no total,
+--            por categoria e por medicamento. A aplicação soma cada venda na
+--            mesma transação; os relatórios leem estas linhas em vez de vendas
+--            e itens_venda (meses inteiros na granularidade MES, as pontas do
+--            período na granularidade DIA).
+-- ============================================================================
+-- As linhas TOTAL e CATEGORIA, atualizadas por quase toda venda, são divididas em 8 fatias
+-- (id da venda módulo 8) para que vendas simultâneas não esperem pela mesma linha; as
+-- consultas somam as fatias. A carga inicial lê todas as vendas no momento da migration:
+-- execute com a aplicação parada.
+-- ============================================================================
+
+CREATE TABLE vendas_agregadas (
+    dimensao      VARCHAR(20)    NOT NULL CHECK (dimensao IN ('TOTAL', 'CATEGORIA', 'MEDICAMENTO')),
+    -- 0 para TOTAL e para os medicamentos sem categoria
+    chave         BIGINT         NOT NULL,
+    granularidade VARCHAR(10)    NOT NULL CHECK (granularidade IN ('HORA', 'DIA', 'MES')),
+    periodo       TIMESTAMP(6)   NOT NULL,
+    fatia         SMALLINT       NOT NULL,
+    -- Vendas com ao menos um item da chave: somam entre períodos, não entre chaves
+    vendas        INTEGER        NOT NULL,
+    unidades      BIGINT         NOT NULL,
+    receita       NUMERIC(16, 2) NOT NULL,
+    CONSTRAINT pk_vendas_agregadas PRIMARY KEY (dimensao, chave, granularidade, periodo, fatia)
+);
+
+-- Rankings por medicamento e por categoria (todas as chaves de um período) e reconstrução por período
+CREATE INDEX idx_vendas_agregadas_periodo ON vendas_agregadas (dimensao, granularidade, periodo);
+
+INSERT INTO vendas_agregadas (dimensao, chave, granularidade, periodo, fatia, vendas, unidades, receita)
+SELECT 'TOTAL', 0, 'HORA', date_trunc('hour', v.data_hora), MOD(v.id, 8),
+       COUNT(DISTINCT v.id), SUM(i.quantidade), SUM(i.quantidade * i.preco_unitario)
+FROM vendas v
+JOIN itens_venda i ON i.venda_id = v.id
+GROUP BY date_trunc('hour', v.data_hora), MOD(v.id, 8);
+
+INSERT INTO vendas_agregadas (dimensao, chave, granularidade, periodo, fatia, vendas, unidades, receita)
+SELECT 'CATEGORIA', COALESCE(m.categoria_id, 0), 'HORA', date_trunc('hour', v.data_hora), MOD(v.id, 8),
+       COUNT(DISTINCT v.id), SUM(i.quantidade), SUM(i.quantidade * i.preco_unitario)
+FROM vendas v
+JOIN itens_venda i ON i.venda_id = v.id
+JOIN medicamentos m ON m.id = i.medicamento_id
+GROUP BY COALESCE(m.categoria_id, 0), date_trunc('hour', v.data_hora), MOD(v.id, 8);
+
+INSERT INTO vendas_agregadas (dimensao, chave, granularidade, periodo, fatia, vendas, unidades, receita)
+SELECT 'MEDICAMENTO', i.medicamento_id, 'HORA', date_trunc('hour', v.data_hora), 0,
+       COUNT(DISTINCT v.id), SUM(i.quantidade), SUM(i.quantidade * i.preco_unitario)
+FROM vendas v
+JOIN itens_venda i ON i.venda_id = v.id
+GROUP BY i.medicamento_id, date_trunc('hour', v.data_hora);
+
+-- Cada venda está em uma única hora: os dias e meses são a soma das horas
+INSERT INTO vendas_agregadas (dimensao, chave, granularidade, periodo, fatia, vendas, unidades, receita)
+SELECT dimensao, chave, 'DIA', date_trunc('day', periodo), fatia, SUM(vendas), SUM(unidades), SUM(receita)
+FROM vendas_agregadas
+WHERE granularidade = 'HORA'
+GROUP BY dimensao, chave, date_trunc('day', periodo), fatia;
+
+INSERT INTO vendas_agregadas (dimensao, chave, granularidade, periodo, fatia, vendas, unidades, receita)
+SELECT dimensao, chave, 'MES', date_trunc('month', periodo), fatia, SUM(vendas), SUM(unidades), SUM(receita)
+FROM vendas_agregadas
+WHERE granularidade = 'DIA'
+GROUP BY dimensao, chave, date_trunc('month', periodo), fatia;
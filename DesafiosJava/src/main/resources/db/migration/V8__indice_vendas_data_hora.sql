@@ -0,0 +1,11 @@
+-- ============================================================================
+-- V8 - ÍNDICE DAS VENDAS POR DATA
+-- Descrição: Faixa de data_hora da exportação de vendas (ItemVendaRepository.streamExportacao).
+-- ============================================================================
+-- Sem ele, exportar um dia ou um mês lê a tabela vendas inteira. Como no V2, o
+-- índice é criado com CONCURRENTLY, fora de transação; se a criação for
+-- interrompida, remova o índice INVALID (DROP INDEX CONCURRENTLY) antes de executar de novo.
+-- ============================================================================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vendas_data_hora
+    ON vendas (data_hora);
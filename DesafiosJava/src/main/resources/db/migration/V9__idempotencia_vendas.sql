@@ -0,0 +1,26 @@
+-- ============================================================================
+-- V9 - CHAVES DE IDEMPOTÊNCIA DAS VENDAS
+-- Descrição: Idempotency-Key enviada no POST /vendas, por usuário, com a venda que
+--            ela registrou. Uma repetição da mesma requisição (timeout no caixa)
+--            devolve a venda gravada em vez de baixar o estoque de novo.
+-- ============================================================================
+-- A linha é inserida no início da transação da venda: uma repetição simultânea espera
+-- na chave primária até a primeira terminar. Se a venda falhar, a linha sai junto no
+-- rollback e a chave pode ser usada de novo. Linhas vencidas são apagadas pela aplicação.
+-- ============================================================================
+
+CREATE TABLE vendas_idempotencia (
+    usuario         VARCHAR(100) NOT NULL,
+    chave           VARCHAR(100) NOT NULL,
+    -- SHA-256 (hex) do cliente e dos itens: a mesma chave com outra venda é recusada
+    hash_requisicao VARCHAR(64)  NOT NULL,
+    -- Nulo só entre a reserva da chave e a gravação da venda, na mesma transação
+    venda_id        BIGINT,
+    criado_em       TIMESTAMP(6) NOT NULL,
+    expira_em       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_vendas_idempotencia PRIMARY KEY (usuario, chave),
+    CONSTRAINT fk_vendas_idempotencia_venda FOREIGN KEY (venda_id) REFERENCES vendas (id)
+);
+
+-- Limpeza das chaves vencidas
+CREATE INDEX idx_vendas_idempotencia_expira_em ON vendas_idempotencia (expira_em);
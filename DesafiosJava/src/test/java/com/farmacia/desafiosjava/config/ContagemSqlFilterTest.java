@@ -0,0 +1,34 @@
+package com.farmacia.desafiosjava.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContagemSqlFilterTest {
+
+    @Test
+    void registraOsComandosDaRequisicaoPeloPadraoDoEndpoint() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ContadorSqlInspector inspector = new ContadorSqlInspector();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/vendas/42");
+
+        new ContagemSqlFilter(registry).doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select * from vendas where id=?");
+            inspector.inspect("select * from itens_venda where venda_id in (?)");
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/vendas/{id}");
+        });
+        // Fora da requisição o comando não é contado
+        inspector.inspect("select 1");
+
+        DistributionSummary comandos = registry.get("farmacia.http.sql.comandos")
+                .tags("method", "GET", "uri", "/vendas/{id}").summary();
+        assertThat(comandos.count()).isEqualTo(1);
+        assertThat(comandos.totalAmount()).isEqualTo(2);
+        assertThat(ContadorSqlInspector.encerrar()).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.farmacia.desafiosjava.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SEGREDO = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Test
+    void tokenGeradoEVerificadoComPapeis() {
+        JwtUtil jwtUtil = criar(60_000, 100);
+
+        JwtUtil.TokenVerificado token = jwtUtil.verificar(jwtUtil.generateToken("admin@farmacia.com", List.of("ROLE_ADMIN")));
+
+        assertThat(token.username()).isEqualTo("admin@farmacia.com");
+        assertThat(token.roles()).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void tokenRepetidoVemDoCacheDeVerificados() {
+        JwtUtil jwtUtil = criar(60_000, 100);
+        String token = jwtUtil.generateToken("admin@farmacia.com", List.of("ROLE_ADMIN"));
+
+        assertThat(jwtUtil.verificar(token)).isSameAs(jwtUtil.verificar(token));
+    }
+
+    @Test
+    void assinaturaAlteradaERecusadaMesmoComCache() {
+        JwtUtil jwtUtil = criar(60_000, 100);
+        String token = jwtUtil.generateToken("admin@farmacia.com", List.of("ROLE_ADMIN"));
+        jwtUtil.verificar(token);
+
+        String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.verificar(adulterado)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void tokenExpiradoERecusado() {
+        JwtUtil jwtUtil = criar(-1_000, 100);
+        String token = jwtUtil.generateToken("admin@farmacia.com", List.of("ROLE_ADMIN"));
+
+        assertThatThrownBy(() -> jwtUtil.verificar(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void semCacheCadaVerificacaoFazOParse() {
+        JwtUtil jwtUtil = criar(60_000, 0);
+        String token = jwtUtil.generateToken("admin@farmacia.com", List.of("ROLE_ADMIN"));
+
+        assertThat(jwtUtil.verificar(token)).isEqualTo(jwtUtil.verificar(token)).isNotSameAs(jwtUtil.verificar(token));
+    }
+
+    private static JwtUtil criar(long expiracaoMs, long tamanhoCache) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SEGREDO);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiracaoMs);
+        ReflectionTestUtils.setField(jwtUtil, "tamanhoCacheVerificados", tamanhoCache);
+        jwtUtil.inicializar();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,65 @@
+package com.farmacia.desafiosjava.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiteRequisicoesFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void semLimiteNaoFiltra() throws Exception {
+        LimiteRequisicoesFilter filter = new LimiteRequisicoesFilter(objectMapper, 0, 10);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/medicamentos"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void requisicaoAlemDoLimiteEsperaERecebe503() throws Exception {
+        LimiteRequisicoesFilter filter = new LimiteRequisicoesFilter(objectMapper, 1, 50);
+        CountDownLatch emAndamento = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Thread primeira = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("POST", "/vendas"), new MockHttpServletResponse(), (req, res) -> {
+                    emAndamento.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(emAndamento.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/medicamentos"), recusada, new MockFilterChain());
+
+        assertThat(recusada.getStatus()).isEqualTo(503);
+        assertThat(recusada.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(recusada.getContentAsString()).contains("Servidor sobrecarregado");
+
+        // Terminada a primeira, a vaga volta
+        liberar.countDown();
+        primeira.join();
+        MockHttpServletResponse atendida = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/medicamentos"), atendida, new MockFilterChain());
+        assertThat(atendida.getStatus()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,67 @@
+package com.farmacia.desafiosjava.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordEncoderLimitadoTest {
+
+    @Test
+    void delegaAoBCryptEMedeOsHashes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordEncoder encoder = new PasswordEncoderLimitado(new BCryptPasswordEncoder(4), 1, registry);
+
+        String hash = encoder.encode("admin123");
+
+        assertThat(encoder.matches("admin123", hash)).isTrue();
+        assertThat(encoder.matches("outra", hash)).isFalse();
+        assertThat(registry.get("farmacia.auth.bcrypt").tag("operacao", "encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get("farmacia.auth.bcrypt").tag("operacao", "matches").timer().count()).isEqualTo(2);
+        assertThat(registry.get("farmacia.auth.bcrypt.espera").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void nuncaPassaDoLimiteDeHashesSimultaneos() throws Exception {
+        AtomicInteger emAndamento = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                maximo.accumulateAndGet(emAndamento.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    return super.matches(rawPassword, encodedPassword);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } finally {
+                    emAndamento.decrementAndGet();
+                }
+            }
+        };
+        PasswordEncoder encoder = new PasswordEncoderLimitado(lento, 2, new SimpleMeterRegistry());
+        String hash = encoder.encode("admin123");
+
+        List<Future<Boolean>> logins = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                logins.add(executor.submit(() -> encoder.matches("admin123", hash)));
+            }
+        }
+
+        for (Future<Boolean> login : logins) {
+            assertThat(login.get()).isTrue();
+        }
+        assertThat(maximo.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,126 @@
+package com.farmacia.desafiosjava.controller;
+
+import com.farmacia.desafiosjava.dto.PainelAlertasDTO;
+import com.farmacia.desafiosjava.event.AlertasAtualizadosEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class CanalAlertasTest {
+
+    private final CanalAlertas canal = new CanalAlertas();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(canal, "atrasoMaximoMs", 10_000L);
+    }
+
+    @AfterEach
+    void encerrar() {
+        canal.encerrar();
+    }
+
+    @Test
+    void clienteParadoNaoAtrasaOsDemaisENoFimEDesconectado() throws InterruptedException {
+        ReflectionTestUtils.setField(canal, "atrasoMaximoMs", 200L);
+        EmitterTeste lento = new EmitterTeste();
+        EmitterTeste rapido = new EmitterTeste();
+        canal.inscrever(lento, painel("v1"));
+        canal.inscrever(rapido, painel("v1"));
+        lento.travar();
+
+        // O envio ao cliente parado não segura quem publica nem os outros inscritos
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            canal.aoAtualizarAlertas(new AlertasAtualizadosEvent(painel("v2")));
+            canal.aoAtualizarAlertas(new AlertasAtualizadosEvent(painel("v3")));
+        });
+        await().untilAsserted(() -> assertThat(rapido.versoes).endsWith("v3"));
+        assertThat(lento.versoes).containsExactly("v1");
+
+        // Parado além do atraso máximo, o cliente lento é descartado na próxima atualização
+        Thread.sleep(300);
+        canal.aoAtualizarAlertas(new AlertasAtualizadosEvent(painel("v4")));
+        assertThat(canal.quantidadeInscritos()).isEqualTo(1);
+        await().untilAsserted(() -> assertThat(rapido.versoes).endsWith("v4"));
+
+        lento.liberar();
+        await().untilAsserted(() -> assertThat(lento.encerrado).isTrue());
+    }
+
+    @Test
+    void clienteLentoRecebeSoOPainelMaisRecente() {
+        EmitterTeste lento = new EmitterTeste();
+        canal.inscrever(lento, painel("v1"));
+        lento.travar();
+
+        canal.aoAtualizarAlertas(new AlertasAtualizadosEvent(painel("v2")));
+        await().until(() -> lento.emEspera.getCount() == 0);
+        canal.aoAtualizarAlertas(new AlertasAtualizadosEvent(painel("v3")));
+        canal.aoAtualizarAlertas(new AlertasAtualizadosEvent(painel("v4")));
+        canal.manterConexoes();
+        lento.liberar();
+
+        // v2 já estava sendo enviado; v3 foi substituído por v4 e o ping não tomou o lugar dele
+        await().untilAsserted(() -> assertThat(lento.versoes).containsExactly("v1", "v2", "v4"));
+        assertThat(canal.quantidadeInscritos()).isEqualTo(1);
+    }
+
+    private static PainelAlertasDTO painel(String versao) {
+        return new PainelAlertasDTO(versao, LocalDateTime.now(), List.of(), List.of());
+    }
+
+    // Registra as versões enviadas; travado, o próximo envio fica parado como em um cliente que não lê a conexão
+    private static class EmitterTeste extends SseEmitter {
+
+        private final List<String> versoes = new CopyOnWriteArrayList<>();
+        private final CountDownLatch emEspera = new CountDownLatch(1);
+        private volatile CountDownLatch trava;
+        private volatile boolean encerrado;
+
+        void travar() {
+            trava = new CountDownLatch(1);
+        }
+
+        void liberar() {
+            trava.countDown();
+        }
+
+        @Override
+        public void send(SseEventBuilder evento) throws IOException {
+            CountDownLatch atual = trava;
+            if (atual != null) {
+                emEspera.countDown();
+                try {
+                    atual.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            evento.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(PainelAlertasDTO.class::isInstance)
+                    .map(dado -> ((PainelAlertasDTO) dado).versao())
+                    .forEach(versoes::add);
+        }
+
+        @Override
+        public void complete() {
+            encerrado = true;
+            super.complete();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.farmacia.desafiosjava.repository;
+
+import com.farmacia.desafiosjava.service.ManutencaoParticoesMovimentacao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partições mensais de movimentacoes_estoque (migration V3) em um PostgreSQL real.
+ * Sem Docker disponível, a classe é ignorada.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "estoque.movimentacoes.particoes.enabled=true",
+        "estoque.movimentacoes.particoes.meses-a-frente=2"
+})
+@Import(ManutencaoParticoesMovimentacao.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ParticoesMovimentacaoTest {
+
+    private static final DateTimeFormatter MES = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final AtomicLong IDS = new AtomicLong(1_000_000);
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ManutencaoParticoesMovimentacao manutencao;
+
+    @Test
+    void manutencaoCriaAsParticoesDoMesAtualEDosProximos() {
+        manutencao.executar();
+
+        for (int i = 0; i <= 2; i++) {
+            assertThat(particaoExiste("movimentacoes_estoque_" + LocalDate.now().plusMonths(i).format(MES))).isTrue();
+        }
+    }
+
+    @Test
+    void movimentacoesNaParticaoDefaultSaoMovidasQuandoOMesGanhaParticao() {
+        long medicamento = inserirMedicamento();
+        LocalDate dia = LocalDate.now().minusYears(2).withDayOfMonth(10);
+        long movimentacao = inserirMovimentacao(medicamento, dia);
+        assertThat(particaoDe(movimentacao)).isEqualTo("movimentacoes_estoque_default");
+
+        Integer criadas = jdbcTemplate.queryForObject("SELECT criar_particoes_movimentacoes(?, ?)", Integer.class, dia, dia);
+
+        assertThat(criadas).isEqualTo(1);
+        assertThat(particaoDe(movimentacao)).isEqualTo("movimentacoes_estoque_" + dia.format(MES));
+    }
+
+    @Test
+    void particoesArquivadasSaemDaTabelaEVaoParaOSchemaArquivo() {
+        long medicamento = inserirMedicamento();
+        LocalDate dia = LocalDate.now().minusYears(3).withDayOfMonth(1);
+        jdbcTemplate.queryForObject("SELECT criar_particoes_movimentacoes(?, ?)", Integer.class, dia, dia);
+        long movimentacao = inserirMovimentacao(medicamento, dia);
+
+        int arquivadas = manutencao.arquivar(dia.plusMonths(1));
+
+        assertThat(arquivadas).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes_estoque WHERE id = ?", Long.class, movimentacao))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM arquivo.movimentacoes_estoque_" + dia.format(MES) + " WHERE id = ?",
+                Long.class, movimentacao)).isOne();
+        // A cópia arquivada não referencia mais medicamentos: o cadastro pode ser removido
+        assertThat(jdbcTemplate.update("DELETE FROM medicamentos WHERE id = ?", medicamento)).isOne();
+    }
+
+    private long inserirMedicamento() {
+        long id = IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO medicamentos (id, nome, nome_normalizado, dosagem, preco, ativo, deletado, criado_em) " +
+                "VALUES (?, ?, ?, '10mg', 1.00, true, false, now())", id, "Medicamento " + id, "medicamento " + id);
+        return id;
+    }
+
+    private long inserirMovimentacao(long medicamento, LocalDate dia) {
+        long id = IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO movimentacoes_estoque (id, medicamento_id, tipo, quantidade, data_movimentacao) " +
+                "VALUES (?, ?, 'ENTRADA', 1, ?)", id, medicamento, dia.atTime(12, 0));
+        return id;
+    }
+
+    private String particaoDe(long movimentacao) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM movimentacoes_estoque WHERE id = ?",
+                String.class, movimentacao);
+    }
+
+    private boolean particaoExiste(String nome) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, nome));
+    }
+}
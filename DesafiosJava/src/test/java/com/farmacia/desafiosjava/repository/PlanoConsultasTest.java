@@ -0,0 +1,181 @@
+package com.farmacia.desafiosjava.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Planos de execução das consultas quentes em um PostgreSQL real, com o schema criado pelas
+ * migrations do Flyway e uma massa de dados com a proporção esperada em produção (muitos lotes
+ * zerados, histórico de vendas e movimentações). Falha se alguma consulta deixar de usar o
+ * índice criado para ela ou voltar a ler uma tabela transacional inteira (Seq Scan). Nos
+ * cadastros (medicamentos, clientes), um Seq Scan para montar um hash join com quase todas
+ * as linhas é o plano mais barato e não é considerado regressão.
+ *
+ * <p>O SQL reproduz o gerado pelo Hibernate para as consultas dos repositories (mesmos
+ * predicados e ordenações). Sem Docker disponível, a classe é ignorada.</p>
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PlanoConsultasTest {
+
+    private static final int MEDICAMENTOS = 5_000;
+    private static final int LOTES_POR_MEDICAMENTO = 40;
+    private static final int CLIENTES = 5_000;
+    private static final int VENDAS = 100_000;
+    private static final int MOVIMENTACOES = 200_000;
+
+    // Tabelas que crescem com o uso e nunca devem ser lidas por inteiro nas consultas quentes
+    private static final List<String> TABELAS_TRANSACIONAIS = List.of("estoque", "vendas", "itens_venda", "movimentacoes_estoque");
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void popularBanco() {
+        jdbcTemplate.update("INSERT INTO categorias (id, nome, nome_normalizado) " +
+                "SELECT g, 'Categoria ' || g, 'categoria ' || g FROM generate_series(1, 50) g");
+        jdbcTemplate.update("INSERT INTO medicamentos (id, nome, nome_normalizado, dosagem, preco, ativo, deletado, categoria_id, criado_em) " +
+                "SELECT g, 'Medicamento ' || g, 'medicamento ' || g, '500mg', 10.00, g % 20 <> 0, g % 50 = 0, g % 50 + 1, now() " +
+                "FROM generate_series(1, ?) g", MEDICAMENTOS);
+        // Cada medicamento tem um histórico de lotes, dos quais só os mais recentes ainda têm saldo
+        jdbcTemplate.update("INSERT INTO estoque (id, numero_lote, medicamento_id, quantidade_disponivel, data_vencimento, criado_em, ativo) " +
+                "SELECT (m - 1) * ? + l, 'LOTE-' || l, m, CASE WHEN l > ? - 4 THEN 100 ELSE 0 END, " +
+                "current_date + (l * 30 - ? * 28 + m % 30), now() - make_interval(days => ? - l), l % 17 <> 0 " +
+                "FROM generate_series(1, ?) m, generate_series(1, ?) l",
+                LOTES_POR_MEDICAMENTO, LOTES_POR_MEDICAMENTO, LOTES_POR_MEDICAMENTO, LOTES_POR_MEDICAMENTO,
+                MEDICAMENTOS, LOTES_POR_MEDICAMENTO);
+        jdbcTemplate.update("INSERT INTO clientes (id, nome_completo, cpf, email, data_nascimento) " +
+                "SELECT g, 'Cliente ' || g, lpad(g::text, 14, '0'), 'cliente' || g || '@farmacia.com', date '1990-01-01' " +
+                "FROM generate_series(1, ?) g", CLIENTES);
+        jdbcTemplate.update("INSERT INTO vendas (id, cliente_id, data_hora, valor_total) " +
+                "SELECT g, g % ? + 1, now() - make_interval(mins => g), 30.00 FROM generate_series(1, ?) g",
+                CLIENTES, VENDAS);
+        jdbcTemplate.update("INSERT INTO itens_venda (id, venda_id, medicamento_id, quantidade, preco_unitario) " +
+                "SELECT (v - 1) * 3 + i, v, (v * 7 + i) % ? + 1, 1, 10.00 FROM generate_series(1, ?) v, generate_series(1, 3) i",
+                MEDICAMENTOS, VENDAS);
+        // Movimentações dos últimos ~140 dias, distribuídas nas partições mensais
+        jdbcTemplate.queryForObject("SELECT criar_particoes_movimentacoes(?, ?)", Integer.class,
+                LocalDate.now().minusDays(150), LocalDate.now());
+        jdbcTemplate.update("INSERT INTO movimentacoes_estoque (id, medicamento_id, tipo, quantidade, data_movimentacao) " +
+                "SELECT g, g % ? + 1, 'VENDA', 1, now() - make_interval(mins => g) FROM generate_series(1, ?) g",
+                MEDICAMENTOS, MOVIMENTACOES);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void lotesDisponiveisEmOrdemFifo() {
+        // EstoqueRepository.findEstoquesDisponiveis
+        assertUsaIndice("idx_estoque_fifo", "SELECT e.* FROM estoque e " +
+                "WHERE e.medicamento_id = ? AND e.ativo = true AND e.quantidade_disponivel > 0 " +
+                "ORDER BY e.data_vencimento, e.criado_em", 42L);
+    }
+
+    @Test
+    void lotesDisponiveisTravadosParaAVenda() {
+        // EstoqueRepository.findEstoquesDisponiveisParaAtualizacao
+        assertUsaIndice("idx_estoque_fifo", "SELECT e.* FROM estoque e " +
+                "WHERE e.medicamento_id IN (?, ?, ?) AND e.ativo = true AND e.quantidade_disponivel > 0 " +
+                "ORDER BY e.id FOR NO KEY UPDATE", 7L, 1_500L, 4_321L);
+    }
+
+    @Test
+    void saldoNaoVencidoDoMedicamento() {
+        // EstoqueRepository.calcularQuantidadeTotalNaoVencida
+        assertUsaIndice("idx_estoque_fifo", "SELECT COALESCE(SUM(e.quantidade_disponivel), 0) FROM estoque e " +
+                "WHERE e.medicamento_id = ? AND e.ativo = true AND e.quantidade_disponivel > 0 AND e.data_vencimento >= ?",
+                42L, LocalDate.now());
+    }
+
+    @Test
+    void lotesComVencimentoProximo() {
+        // EstoqueRepository.findEstoquesComVencimentoProximo
+        assertUsaIndice("idx_estoque_vencimento_disponivel", "SELECT e.* FROM estoque e JOIN medicamentos m ON m.id = e.medicamento_id " +
+                "WHERE m.ativo = true AND m.deletado = false AND e.ativo = true AND e.quantidade_disponivel > 0 " +
+                "AND e.data_vencimento BETWEEN ? AND ? ORDER BY e.data_vencimento",
+                LocalDate.now(), LocalDate.now().plusDays(30));
+    }
+
+    @Test
+    void vendasDoCliente() {
+        // VendaRepository.findByClienteIdOrderByDataHoraDesc: a consulta derivada filtra pelo join
+        // com clientes (cliente.id) e o EntityGraph traz o cliente em um segundo join
+        assertUsaIndice("idx_vendas_cliente_data_hora", "SELECT v.*, c2.* FROM vendas v LEFT JOIN clientes c1 ON c1.id = v.cliente_id " +
+                "JOIN clientes c2 ON c2.id = v.cliente_id WHERE c1.id = ? ORDER BY v.data_hora DESC", 123L);
+    }
+
+    @Test
+    void itensDasVendasListadas() {
+        // ItemVendaRepository.findLinhasByVendaIdIn
+        assertUsaIndice("idx_itens_venda_venda", "SELECT i.venda_id, i.id, m.id, m.nome, i.quantidade, i.preco_unitario " +
+                "FROM itens_venda i JOIN medicamentos m ON m.id = i.medicamento_id " +
+                "WHERE i.venda_id IN (?, ?, ?) ORDER BY i.venda_id, i.id", 10L, 20_000L, 99_999L);
+    }
+
+    @Test
+    void itensExportadosDeUmDia() {
+        // ItemVendaRepository.streamExportacao
+        LocalDateTime inicio = LocalDate.now().minusDays(10).atStartOfDay();
+        assertUsaIndice("idx_vendas_data_hora", "SELECT v.id, v.data_hora, v.cliente_id, i.id, m.id, m.nome, i.quantidade, i.preco_unitario " +
+                "FROM itens_venda i JOIN vendas v ON v.id = i.venda_id JOIN medicamentos m ON m.id = i.medicamento_id " +
+                "WHERE v.data_hora >= ? AND v.data_hora < ? ORDER BY v.data_hora, v.id, i.id", inicio, inicio.plusDays(1));
+    }
+
+    @Test
+    void historicoDeMovimentacoesDoMedicamento() {
+        // MovimentacaoEstoqueRepository.findHistorico: só as partições do período entram no plano
+        LocalDateTime fim = LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime inicio = fim.minusDays(30);
+        String sql = "SELECT me.id, me.tipo, me.quantidade, me.data_movimentacao, me.observacao FROM movimentacoes_estoque me " +
+                "WHERE me.medicamento_id = ? AND me.data_movimentacao >= ? AND me.data_movimentacao <= ? " +
+                "AND (me.data_movimentacao < ? OR me.id < ?) ORDER BY me.data_movimentacao DESC, me.id DESC FETCH FIRST ? ROWS ONLY";
+
+        // Índice de cada partição (nome gerado pelo PostgreSQL, truncado em 63 caracteres)
+        String plano = assertUsaIndice("_medicamento_id_data_movimentac", sql, 42L, inicio, fim, fim, Long.MIN_VALUE, 101);
+        assertThat(plano).doesNotContain("movimentacoes_estoque_default")
+                .doesNotContain("movimentacoes_estoque_" + inicio.minusMonths(2).format(DateTimeFormatter.ofPattern("yyyyMM")));
+    }
+
+    private String assertUsaIndice(String indice, String sql, Object... parametros) {
+        String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parametros));
+
+        assertThat(plano).as("plano de %s", sql).contains(indice);
+        for (String tabela : TABELAS_TRANSACIONAIS) {
+            // Inclui as partições (movimentacoes_estoque_AAAAMM, movimentacoes_estoque_default)
+            assertThat(plano).as("plano de %s", sql).doesNotContainPattern("Seq Scan on " + tabela + "(_[0-9]{6}|_default)? ");
+        }
+        return plano;
+    }
+}
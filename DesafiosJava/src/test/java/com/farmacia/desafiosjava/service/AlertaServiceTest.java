@@ -0,0 +1,207 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Categoria;
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.AlertaEstoqueBaixoDTO;
+import com.farmacia.desafiosjava.dto.AlertaValidadeProximaDTO;
+import com.farmacia.desafiosjava.dto.CategoriaRequestDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueRequestDTO;
+import com.farmacia.desafiosjava.repository.EstoqueResumoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "alertas.atualizacao.atraso-ms=50")
+@Import({AlertaService.class, PainelAlertas.class, CategoriaService.class, ContextoVendasTeste.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AlertaServiceTest {
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private PainelAlertas painelAlertas;
+
+    @Autowired
+    private EstoqueService estoqueService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private EstoqueResumoRepository estoqueResumoRepository;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void consultaNoResumoRetornaSomenteMedicamentosAbaixoDoLimite() {
+        Medicamento baixo = dados.criarMedicamento();
+        registrarEntrada(baixo, 3, LocalDate.now().plusDays(30));
+        registrarEntrada(baixo, 4, LocalDate.now().plusDays(60));
+        Medicamento suficiente = dados.criarMedicamento();
+        registrarEntrada(suficiente, 6, LocalDate.now().plusDays(30));
+        registrarEntrada(suficiente, 6, LocalDate.now().plusDays(60));
+
+        List<AlertaEstoqueBaixoDTO> alertas = estoqueResumoRepository.findAlertasEstoqueBaixo(Set.of(baixo.getId(), suficiente.getId()), 10);
+
+        assertThat(alertas).singleElement().satisfies(alerta -> {
+            assertThat(alerta.getMedicamentoId()).isEqualTo(baixo.getId());
+            assertThat(alerta.getQuantidadeAtual()).isEqualTo(7);
+            assertThat(alerta.getLimiteBaixo()).isEqualTo(10);
+            assertThat(alerta.getPreco()).isEqualByComparingTo(baixo.getPreco());
+        });
+    }
+
+    @Test
+    void painelAcompanhaVendasEEntradasSemRecalcular() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 12, LocalDate.now().plusDays(30));
+        painelAlertas.recalcular();
+
+        assertThat(idsEmAlerta()).doesNotContain(medicamento.getId());
+
+        // Venda derruba o saldo para 4: entra no alerta
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 8));
+        await().untilAsserted(() -> assertThat(idsEmAlerta()).contains(medicamento.getId()));
+
+        // Nova entrada repõe o estoque: sai do alerta
+        registrarEntrada(medicamento, 20, LocalDate.now().plusDays(90));
+        await().untilAsserted(() -> assertThat(idsEmAlerta()).doesNotContain(medicamento.getId()));
+    }
+
+    @Test
+    void limitesDaCategoriaSubstituemOsPadroes() {
+        Categoria categoria = dados.criarCategoria(20, 60);
+        Medicamento daCategoria = dados.criarMedicamento(categoria);
+        Medicamento semCategoria = dados.criarMedicamento();
+        LocalDate vencimento = LocalDate.now().plusDays(45);
+        registrarEntrada(daCategoria, 15, vencimento);
+        registrarEntrada(semCategoria, 15, vencimento);
+
+        painelAlertas.recalcular();
+
+        // 15 unidades estão abaixo do limite da categoria (20), mas não do padrão (10)
+        assertThat(alertaService.buscarEstoqueBaixo())
+                .filteredOn(alerta -> alerta.getMedicamentoId().equals(daCategoria.getId()))
+                .singleElement()
+                .satisfies(alerta -> assertThat(alerta.getLimiteBaixo()).isEqualTo(20));
+        assertThat(idsEmAlerta()).doesNotContain(semCategoria.getId());
+
+        // Vencimento em 45 dias entra na antecedência da categoria (60), mas não na padrão (30)
+        assertThat(alertaService.buscarValidadeProxima())
+                .filteredOn(alerta -> alerta.getMedicamentoId().equals(daCategoria.getId()))
+                .singleElement()
+                .satisfies(alerta -> assertThat(alerta.getDiasParaVencer()).isEqualTo(45));
+        assertThat(alertaService.buscarValidadeProxima())
+                .extracting(AlertaValidadeProximaDTO::getMedicamentoId)
+                .doesNotContain(semCategoria.getId());
+    }
+
+    @Test
+    void versaoDoPainelSoMudaQuandoOsAlertasMudam() {
+        Medicamento medicamento = dados.criarMedicamento();
+        painelAlertas.recalcular();
+        String versaoInicial = alertaService.buscarPainel().versao();
+
+        // Estoque alto e vencimento distante: nenhum alerta novo
+        registrarEntrada(medicamento, 50, LocalDate.now().plusDays(200));
+        aguardarAtualizacao();
+        assertThat(alertaService.buscarPainel().versao()).isEqualTo(versaoInicial);
+
+        // A saída deixa 5 unidades: o medicamento entra no alerta e o painel ganha nova versão
+        MovimentacaoEstoqueRequestDTO saida = new MovimentacaoEstoqueRequestDTO();
+        saida.setMedicamentoId(medicamento.getId());
+        saida.setQuantidade(45);
+        estoqueService.registrarSaida(saida);
+
+        await().untilAsserted(() -> assertThat(idsEmAlerta()).contains(medicamento.getId()));
+        assertThat(alertaService.buscarPainel().versao()).isNotEqualTo(versaoInicial);
+    }
+
+    private void registrarEntrada(Medicamento medicamento, int quantidade, LocalDate vencimento) {
+        MovimentacaoEstoqueRequestDTO entrada = new MovimentacaoEstoqueRequestDTO();
+        entrada.setMedicamentoId(medicamento.getId());
+        entrada.setQuantidade(quantidade);
+        entrada.setDataVencimento(vencimento);
+        // Sem observação o lote é numerado pelo relógio, e entradas no mesmo milissegundo colidiriam
+        entrada.setObservacao("LOTE-" + vencimento);
+        estoqueService.registrarEntrada(entrada);
+    }
+
+    @Test
+    void vendaNaoEsperaPelaAtualizacaoDoPainel() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 12, LocalDate.now().plusDays(30));
+        painelAlertas.recalcular();
+
+        // Com o painel ocupado (lock de um recálculo), a venda termina mesmo assim
+        ReentrantLock lock = (ReentrantLock) ReflectionTestUtils.getField(painelAlertas, "lock");
+        lock.lock();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 8)));
+            assertThat(idsEmAlerta()).doesNotContain(medicamento.getId());
+        } finally {
+            lock.unlock();
+        }
+        await().untilAsserted(() -> assertThat(idsEmAlerta()).contains(medicamento.getId()));
+    }
+
+    @Test
+    void alteracaoDaCategoriaNaoEsperaPeloRecalculoDoPainel() {
+        Categoria categoria = dados.criarCategoria(null, null);
+        Medicamento medicamento = dados.criarMedicamento(categoria);
+        registrarEntrada(medicamento, 15, LocalDate.now().plusDays(200));
+        painelAlertas.recalcular();
+        assertThat(idsEmAlerta()).doesNotContain(medicamento.getId());
+
+        // Com o painel ocupado, a alteração termina mesmo assim; o recálculo vem depois
+        ReentrantLock lock = (ReentrantLock) ReflectionTestUtils.getField(painelAlertas, "lock");
+        lock.lock();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> categoriaService.atualizar(categoria.getId(), new CategoriaRequestDTO(categoria.getNome(), 20, null)));
+        } finally {
+            lock.unlock();
+        }
+        await().untilAsserted(() -> assertThat(idsEmAlerta()).contains(medicamento.getId()));
+    }
+
+    // Atraso do teste (50 ms) com folga: a atualização agendada já terminou
+    private void aguardarAtualizacao() {
+        await().pollDelay(Duration.ofMillis(300)).until(() -> true);
+    }
+
+    private List<Long> idsEmAlerta() {
+        return alertaService.buscarEstoqueBaixo().stream()
+                .map(AlertaEstoqueBaixoDTO::getMedicamentoId)
+                .toList();
+    }
+}
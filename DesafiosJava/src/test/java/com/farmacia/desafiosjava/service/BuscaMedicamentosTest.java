@@ -0,0 +1,111 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.dto.MedicamentoRequestDTO;
+import com.farmacia.desafiosjava.dto.MedicamentoResponseDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({MedicamentoService.class, IndiceBuscaMedicamentos.class, ImportacaoMedicamentoService.class, ListagemStreaming.class,
+        JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BuscaMedicamentosTest {
+
+    @Autowired
+    private MedicamentoService medicamentoService;
+
+    @Autowired
+    private ImportacaoMedicamentoService importacaoService;
+
+    @Autowired
+    private IndiceBuscaMedicamentos indiceBusca;
+
+    @Test
+    void medicamentosCriadosEAlteradosAposACargaDoIndiceSaoEncontrados() {
+        indiceBusca.reconstruir();
+        String nome = palavraUnica();
+        MedicamentoResponseDTO criado = medicamentoService.criar(requisicao("Ácido " + nome, "Comprimido efervescente"));
+
+        // Sem acento, em maiúsculas e com uma letra trocada
+        assertThat(medicamentoService.buscar("ACIDO " + trocarLetra(nome), 10))
+                .extracting(MedicamentoResponseDTO::getId).containsExactly(criado.getId());
+
+        String novoNome = palavraUnica();
+        medicamentoService.atualizar(criado.getId(), requisicao(novoNome, "Comprimido efervescente"));
+
+        assertThat(medicamentoService.buscar(nome, 10)).isEmpty();
+        assertThat(medicamentoService.buscar(novoNome, 10))
+                .singleElement().satisfies(medicamento -> assertThat(medicamento.getNome()).isEqualTo(novoNome));
+
+        medicamentoService.deletar(criado.getId());
+
+        assertThat(medicamentoService.buscar(novoNome, 10)).isEmpty();
+    }
+
+    @Test
+    void medicamentosImportadosSaoEncontradosPelaDescricao() {
+        indiceBusca.reconstruir();
+        String termo = palavraUnica();
+        String csv = "nome,dosagem,preco,descricao\n"
+                + "Xarope " + palavraUnica() + ",120ml,15.00,Indicado para " + termo + "\n"
+                + termo + ",10mg,9.90,\n";
+
+        importacaoService.importarCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // O nome vale mais que a descrição
+        assertThat(medicamentoService.buscar(termo, 10)).extracting(MedicamentoResponseDTO::getDosagem)
+                .containsExactly("10mg", "120ml");
+    }
+
+    @Test
+    void termoELimiteSaoValidados() {
+        assertThatThrownBy(() -> medicamentoService.buscar(" a ", 10))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("termo de busca");
+        assertThatThrownBy(() -> medicamentoService.buscar("dipirona", 101))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("limit");
+    }
+
+    private static MedicamentoRequestDTO requisicao(String nome, String descricao) {
+        MedicamentoRequestDTO request = new MedicamentoRequestDTO();
+        request.setNome(nome);
+        request.setDescricao(descricao);
+        request.setDosagem("500mg");
+        request.setPreco(new BigDecimal("10.00"));
+        return request;
+    }
+
+    // Palavra que não se parece com nenhuma outra dos dados de teste
+    private static String palavraUnica() {
+        StringBuilder palavra = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            palavra.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        return palavra.toString();
+    }
+
+    private static String trocarLetra(String palavra) {
+        char trocada = palavra.charAt(6) == 'z' ? 'y' : 'z';
+        return palavra.substring(0, 6) + trocada + palavra.substring(7);
+    }
+}
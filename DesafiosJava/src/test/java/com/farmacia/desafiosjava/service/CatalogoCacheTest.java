@@ -0,0 +1,118 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.config.CatalogoCacheConfig;
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.MedicamentoRequestDTO;
+import com.farmacia.desafiosjava.dto.VendaResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+@Import({CatalogoCacheConfig.class, MedicamentoService.class, IndiceBuscaMedicamentos.class, ContextoVendasTeste.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogoCacheTest {
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private MedicamentoService medicamentoService;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void vendaComCatalogoAquecidoNaoBuscaMedicamentosNoBanco() {
+        Cliente cliente = dados.criarCliente();
+        List<Medicamento> medicamentos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Medicamento medicamento = dados.criarMedicamento();
+            dados.criarLote(medicamento, 10, LocalDate.now().plusDays(30));
+            medicamentos.add(medicamento);
+        }
+        vendaService.criar(DadosTeste.requisicao(cliente, medicamentos, 1));
+
+        statistics.clear();
+        vendaService.criar(DadosTeste.requisicao(cliente, medicamentos, 1));
+
+        CacheRegionStatistics regiao = statistics.getDomainDataRegionStatistics(CatalogoCacheConfig.REGIAO_MEDICAMENTOS);
+        assertThat(regiao.getHitCount()).isGreaterThanOrEqualTo(medicamentos.size());
+        assertThat(regiao.getMissCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Medicamento.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void acertosDaRegiaoSaoPublicadosNoMicrometer() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 10, LocalDate.now().plusDays(30));
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1));
+        double acertos = acertosMedicamentos();
+
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1));
+
+        assertThat(acertosMedicamentos()).isGreaterThan(acertos);
+    }
+
+    @Test
+    void alteracaoDoMedicamentoInvalidaOCache() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 10, LocalDate.now().plusDays(30));
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1));
+
+        MedicamentoRequestDTO alteracao = new MedicamentoRequestDTO();
+        alteracao.setNome(medicamento.getNome());
+        alteracao.setDosagem(medicamento.getDosagem());
+        alteracao.setPreco(new BigDecimal("20.00"));
+        alteracao.setAtivo(true);
+        medicamentoService.atualizar(medicamento.getId(), alteracao);
+
+        VendaResponseDTO venda = vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 2));
+
+        assertThat(venda.getValorTotal()).isEqualByComparingTo("40.00");
+    }
+
+    private double acertosMedicamentos() {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", CatalogoCacheConfig.REGIAO_MEDICAMENTOS, "result", "hit")
+                .functionCounter().count();
+    }
+}
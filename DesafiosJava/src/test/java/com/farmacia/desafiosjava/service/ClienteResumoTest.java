@@ -0,0 +1,159 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.ClienteResumo;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.ClienteResumoDTO;
+import com.farmacia.desafiosjava.dto.HistoricoComprasDTO;
+import com.farmacia.desafiosjava.dto.ItemVendaDTO;
+import com.farmacia.desafiosjava.dto.VendaRequestDTO;
+import com.farmacia.desafiosjava.dto.VendaResponseDTO;
+import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoVendasTeste.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClienteResumoTest {
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private ClienteResumoService clienteResumoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void resumoAcompanhaCadaVenda() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento dipirona = comEstoque(dados.criarMedicamento());
+        Medicamento paracetamol = comEstoque(dados.criarMedicamento());
+
+        VendaResponseDTO primeira = vendaService.criar(venda(cliente, item(dipirona, 1), item(paracetamol, 4)));
+        VendaResponseDTO segunda = vendaService.criar(venda(cliente, item(dipirona, 2)));
+
+        ClienteResumoDTO resumo = clienteResumoService.buscar(cliente.getId());
+        assertThat(resumo.getQuantidadeCompras()).isEqualTo(2);
+        // 7 unidades a 12,50
+        assertThat(resumo.getValorTotal()).isEqualByComparingTo("87.50");
+        assertThat(resumo.getTicketMedio()).isEqualByComparingTo("43.75");
+        assertThat(resumo.getPrimeiraCompra()).isEqualTo(primeira.getDataHora());
+        assertThat(resumo.getUltimaCompra()).isEqualTo(segunda.getDataHora());
+        assertThat(resumo.getUltimasVendas()).extracting(ClienteResumo.VendaRecente::vendaId)
+                .containsExactly(segunda.getId(), primeira.getId());
+        assertThat(resumo.getMaisComprados()).extracting(ClienteResumo.MedicamentoComprado::medicamentoId, ClienteResumo.MedicamentoComprado::quantidade)
+                .containsExactly(tuple(paracetamol.getId(), 4), tuple(dipirona.getId(), 3));
+    }
+
+    @Test
+    void listasGuardamSoAsUltimasVendasEOsMaisComprados() {
+        Cliente cliente = dados.criarCliente();
+        List<Medicamento> medicamentos = new ArrayList<>();
+        for (int i = 0; i < ClienteResumo.MAIS_COMPRADOS + 2; i++) {
+            medicamentos.add(comEstoque(dados.criarMedicamento()));
+        }
+        // O medicamento i é comprado i + 1 vezes, o último (o mais comprado) por último
+        List<Long> vendas = new ArrayList<>();
+        for (int i = 0; i < medicamentos.size(); i++) {
+            for (int vez = 0; vez <= i; vez++) {
+                vendas.add(vendaService.criar(venda(cliente, item(medicamentos.get(i), 1))).getId());
+            }
+        }
+
+        ClienteResumoDTO resumo = clienteResumoService.buscar(cliente.getId());
+
+        assertThat(resumo.getQuantidadeCompras()).isEqualTo(vendas.size());
+        assertThat(resumo.getUltimasVendas()).extracting(ClienteResumo.VendaRecente::vendaId)
+                .containsExactlyElementsOf(vendas.reversed().subList(0, ClienteResumo.ULTIMAS_VENDAS));
+        assertThat(resumo.getMaisComprados()).extracting(ClienteResumo.MedicamentoComprado::medicamentoId)
+                .containsExactlyElementsOf(medicamentos.reversed().subList(0, ClienteResumo.MAIS_COMPRADOS).stream()
+                        .map(Medicamento::getId).toList());
+    }
+
+    @Test
+    void resumoELidoEmUmaConsulta() {
+        Cliente cliente = dados.criarCliente();
+        vendaService.criar(venda(cliente, item(comEstoque(dados.criarMedicamento()), 1)));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        clienteResumoService.buscar(cliente.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void clienteSemComprasTemResumoZerado() {
+        Cliente cliente = dados.criarCliente();
+
+        ClienteResumoDTO resumo = clienteResumoService.buscar(cliente.getId());
+
+        assertThat(resumo.getQuantidadeCompras()).isZero();
+        assertThat(resumo.getUltimasVendas()).isEmpty();
+        assertThatThrownBy(() -> clienteResumoService.buscar(Long.MAX_VALUE))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void historicoPaginadoDaMaisRecenteParaAMaisAntiga() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = comEstoque(dados.criarMedicamento());
+        List<Long> criadas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            criadas.add(vendaService.criar(venda(cliente, item(medicamento, 1))).getId());
+        }
+
+        List<Long> lidas = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            HistoricoComprasDTO pagina = vendaService.listarPorCliente(cliente.getId(), cursor, 2);
+            pagina.getItens().forEach(venda -> lidas.add(venda.getId()));
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(lidas).containsExactlyElementsOf(criadas.reversed());
+        assertThat(paginas).isEqualTo(3);
+        assertThatThrownBy(() -> vendaService.listarPorCliente(Long.MAX_VALUE, null, 2))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private Medicamento comEstoque(Medicamento medicamento) {
+        dados.criarLote(medicamento, 100, LocalDate.now().plusDays(90));
+        return medicamento;
+    }
+
+    private static ItemVendaDTO item(Medicamento medicamento, int quantidade) {
+        return new ItemVendaDTO(medicamento.getId(), quantidade);
+    }
+
+    private static VendaRequestDTO venda(Cliente cliente, ItemVendaDTO... itens) {
+        return new VendaRequestDTO(cliente.getId(), List.of(itens));
+    }
+}
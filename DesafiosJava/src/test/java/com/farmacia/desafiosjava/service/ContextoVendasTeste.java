@@ -0,0 +1,17 @@
+package com.farmacia.desafiosjava.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Beans necessários para registrar vendas nos testes de fatia JPA ({@code @DataJpaTest}): o
+ * VendaService e tudo o que ele usa, mais o {@link DadosTeste}. Os testes importam esta classe
+ * em vez de repetir a lista; uma nova dependência do VendaService entra só aqui.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@Import({VendaService.class, ClienteResumoService.class, RelatorioVendasService.class, IdempotenciaVendaService.class,
+        EstoqueService.class, ClienteService.class, TransacaoRetryExecutor.class, ListagemStreaming.class,
+        SimpleMeterRegistry.class, DadosTeste.class})
+public class ContextoVendasTeste {
+}
@@ -0,0 +1,135 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Usuario;
+import com.farmacia.desafiosjava.event.UsuarioAlteradoEvent;
+import com.farmacia.desafiosjava.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({CustomUserDetailsService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomUserDetailsServiceTest {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void principalFicaEmCacheEntreRequisicoes() {
+        Usuario usuario = criarUsuario("USER");
+
+        statistics.clear();
+        UserDetails primeiro = userDetailsService.carregarPrincipal(usuario.getUsername());
+        UserDetails segundo = userDetailsService.carregarPrincipal(usuario.getUsername());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(segundo).isSameAs(primeiro);
+        assertThat(primeiro.getPassword()).isEmpty();
+        assertThat(primeiro.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void invalidacaoRecarregaPapelAtualizado() {
+        Usuario usuario = criarUsuario("USER");
+        userDetailsService.carregarPrincipal(usuario.getUsername());
+
+        usuario.setRole("ADMIN");
+        usuarioRepository.save(usuario);
+        userDetailsService.invalidarPrincipal(usuario.getUsername());
+
+        assertThat(userDetailsService.carregarPrincipal(usuario.getUsername()).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void alteracaoDoUsuarioSoDescartaOPrincipalAposOCommit() {
+        Usuario usuario = criarUsuario("USER");
+        UserDetails emCache = userDetailsService.carregarPrincipal(usuario.getUsername());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            usuario.setRole("ADMIN");
+            usuarioRepository.save(usuario);
+            eventPublisher.publishEvent(new UsuarioAlteradoEvent(usuario.getUsername()));
+
+            // Uma requisição concorrente ainda veria o principal anterior e não o recolocaria em cache
+            assertThat(userDetailsService.carregarPrincipal(usuario.getUsername())).isSameAs(emCache);
+        });
+
+        assertThat(userDetailsService.carregarPrincipal(usuario.getUsername()).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void estatisticasDoCacheSaoPublicadasNoMicrometer() {
+        Usuario usuario = criarUsuario("USER");
+        double acertos = meterRegistry.get("cache.gets").tags("cache", "principals", "result", "hit").functionCounter().count();
+
+        userDetailsService.carregarPrincipal(usuario.getUsername());
+        userDetailsService.carregarPrincipal(usuario.getUsername());
+
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "principals", "result", "hit").functionCounter().count())
+                .isEqualTo(acertos + 1);
+    }
+
+    @Test
+    void loginSempreLeASenhaDoBanco() {
+        Usuario usuario = criarUsuario("USER");
+        userDetailsService.carregarPrincipal(usuario.getUsername());
+
+        assertThat(userDetailsService.loadUserByUsername(usuario.getUsername()).getPassword()).isEqualTo("hash");
+    }
+
+    private Usuario criarUsuario(String role) {
+        Usuario usuario = new Usuario();
+        usuario.setUsername("usuario-" + UUID.randomUUID() + "@farmacia.com");
+        usuario.setSenha("hash");
+        usuario.setRole(role);
+        return usuarioRepository.save(usuario);
+    }
+}
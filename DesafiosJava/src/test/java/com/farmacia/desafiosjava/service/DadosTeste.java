@@ -0,0 +1,82 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Categoria;
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Estoque;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.ItemVendaDTO;
+import com.farmacia.desafiosjava.dto.VendaRequestDTO;
+import com.farmacia.desafiosjava.repository.CategoriaRepository;
+import com.farmacia.desafiosjava.repository.ClienteRepository;
+import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import com.farmacia.desafiosjava.repository.MedicamentoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cria clientes, medicamentos e lotes com dados únicos para os testes que
+ * commitam de verdade (sem rollback ao fim de cada teste).
+ */
+@TestComponent
+@RequiredArgsConstructor
+class DadosTeste {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    private final ClienteRepository clienteRepository;
+    private final MedicamentoRepository medicamentoRepository;
+    private final EstoqueRepository estoqueRepository;
+    private final CategoriaRepository categoriaRepository;
+
+    Cliente criarCliente() {
+        int n = SEQUENCIA.incrementAndGet();
+        Cliente cliente = new Cliente();
+        cliente.setNomeCompleto("Cliente " + n);
+        cliente.setCpf(String.format("%03d.%03d.%03d-%02d", n / 1000, n % 1000, n % 7, n % 100));
+        cliente.setEmail("cliente" + n + "@farmacia.com");
+        cliente.setDataNascimento(LocalDate.now().minusYears(30));
+        return clienteRepository.save(cliente);
+    }
+
+    Categoria criarCategoria(Integer limiteEstoqueBaixo, Integer diasAlertaValidade) {
+        Categoria categoria = new Categoria();
+        categoria.setNome("Categoria " + SEQUENCIA.incrementAndGet());
+        categoria.setLimiteEstoqueBaixo(limiteEstoqueBaixo);
+        categoria.setDiasAlertaValidade(diasAlertaValidade);
+        return categoriaRepository.save(categoria);
+    }
+
+    Medicamento criarMedicamento() {
+        return criarMedicamento(null);
+    }
+
+    Medicamento criarMedicamento(Categoria categoria) {
+        Medicamento medicamento = new Medicamento();
+        medicamento.setCategoria(categoria);
+        medicamento.setNome("Medicamento " + SEQUENCIA.incrementAndGet());
+        medicamento.setDosagem("500mg");
+        medicamento.setPreco(new BigDecimal("12.50"));
+        return medicamentoRepository.save(medicamento);
+    }
+
+    Estoque criarLote(Medicamento medicamento, int quantidade, LocalDate vencimento) {
+        Estoque estoque = new Estoque();
+        estoque.setMedicamento(medicamento);
+        estoque.setNumeroLote("LOTE-" + SEQUENCIA.incrementAndGet());
+        estoque.setQuantidadeDisponivel(quantidade);
+        estoque.setDataVencimento(vencimento);
+        return estoqueRepository.save(estoque);
+    }
+
+    static VendaRequestDTO requisicao(Cliente cliente, List<Medicamento> medicamentos, int quantidade) {
+        List<ItemVendaDTO> itens = medicamentos.stream()
+                .map(m -> new ItemVendaDTO(m.getId(), quantidade))
+                .toList();
+        return new VendaRequestDTO(cliente.getId(), itens);
+    }
+}
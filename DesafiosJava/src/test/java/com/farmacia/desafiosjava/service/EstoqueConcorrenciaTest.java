@@ -0,0 +1,112 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.domain.MovimentacaoEstoque;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import com.farmacia.desafiosjava.repository.MovimentacaoEstoqueRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de estresse: várias threads vendendo o mesmo medicamento ao mesmo tempo.
+ * O estoque nunca pode ser vendido além do disponível.
+ */
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoVendasTeste.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EstoqueConcorrenciaTest {
+
+    private static final int THREADS = 16;
+    private static final int VENDAS_POR_THREAD = 25;
+    private static final int ESTOQUE_INICIAL = 250;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private EstoqueRepository estoqueRepository;
+
+    @Autowired
+    private MovimentacaoEstoqueRepository movimentacaoRepository;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void vendasConcorrentesDoMesmoMedicamentoNuncaVendemAlemDoEstoque() throws Exception {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 100, LocalDate.now().plusDays(30));
+        dados.criarLote(medicamento, 100, LocalDate.now().plusDays(60));
+        dados.criarLote(medicamento, 50, LocalDate.now().plusDays(90));
+
+        AtomicInteger vendidas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < VENDAS_POR_THREAD; i++) {
+                    try {
+                        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1));
+                        vendidas.incrementAndGet();
+                    } catch (BusinessException ex) {
+                        recusadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        executor.shutdown();
+
+        log.info("{} vendas concluídas e {} recusadas em {}s ({} vendas/s)",
+                vendidas.get(), recusadas.get(), String.format("%.2f", segundos),
+                String.format("%.0f", vendidas.get() / segundos));
+
+        int restante = estoqueRepository.calcularQuantidadeTotal(medicamento.getId());
+        int baixado = movimentacaoRepository.findByMedicamentoIdOrderByDataMovimentacaoDesc(medicamento.getId()).stream()
+                .filter(m -> m.getTipo() == MovimentacaoEstoque.TipoMovimentacao.VENDA)
+                .mapToInt(MovimentacaoEstoque::getQuantidade)
+                .sum();
+
+        assertThat(vendidas.get()).isEqualTo(ESTOQUE_INICIAL);
+        assertThat(recusadas.get()).isEqualTo(THREADS * VENDAS_POR_THREAD - ESTOQUE_INICIAL);
+        assertThat(restante).isZero();
+        assertThat(baixado).isEqualTo(ESTOQUE_INICIAL);
+        assertThat(estoqueRepository.findAllByMedicamentoId(medicamento.getId()))
+                .allSatisfy(lote -> assertThat(lote.getQuantidadeDisponivel()).isNotNegative());
+    }
+}
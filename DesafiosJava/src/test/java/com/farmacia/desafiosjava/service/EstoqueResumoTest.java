@@ -0,0 +1,136 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Estoque;
+import com.farmacia.desafiosjava.domain.EstoqueResumo;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.EstoqueResponseDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueRequestDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import com.farmacia.desafiosjava.repository.EstoqueResumoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoVendasTeste.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EstoqueResumoTest {
+
+    @Autowired
+    private EstoqueService estoqueService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private EstoqueRepository estoqueRepository;
+
+    @Autowired
+    private EstoqueResumoRepository estoqueResumoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void resumoAcompanhaEntradasSaidasEVendas() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        LocalDate hoje = LocalDate.now();
+        estoqueService.registrarEntrada(movimentacao(medicamento, 10, hoje.plusDays(60), "LOTE-A"));
+        estoqueService.registrarEntrada(movimentacao(medicamento, 5, hoje.plusDays(20), "LOTE-B"));
+
+        // Saída e venda consomem primeiro o lote que vence antes (5), que se esgota
+        estoqueService.registrarSaida(movimentacao(medicamento, 3, null, null));
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 4));
+
+        EstoqueResumo resumo = estoqueResumoRepository.findById(medicamento.getId()).orElseThrow();
+        assertThat(resumo.getQuantidadeTotal()).isEqualTo(8).isEqualTo(estoqueRepository.calcularQuantidadeTotal(medicamento.getId()));
+        assertThat(resumo.getQuantidadeNaoVencida()).isEqualTo(8);
+        assertThat(resumo.getQuantidadeLotes()).isEqualTo(1);
+        assertThat(resumo.getPrimeiroVencimento()).isEqualTo(hoje.plusDays(60));
+    }
+
+    @Test
+    void estoqueConsolidadoLeApenasOResumo() {
+        Medicamento medicamento = dados.criarMedicamento();
+        LocalDate vencimento = LocalDate.now().plusDays(45);
+        estoqueService.registrarEntrada(movimentacao(medicamento, 7, vencimento, "LOTE-A"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        EstoqueResponseDTO consolidado = estoqueService.buscarEstoqueConsolidado(medicamento.getId());
+
+        // Medicamento e resumo, ambos pela chave primária
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(consolidado.getQuantidadeAtual()).isEqualTo(7);
+        assertThat(consolidado.getDataVencimento()).isEqualTo(vencimento);
+    }
+
+    @Test
+    void resumoCriadoNaPrimeiraVendaConsideraLotesExistentesEVencidos() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 5, LocalDate.now().plusDays(10));
+        dados.criarLote(medicamento, 3, LocalDate.now().minusDays(1));
+
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 4));
+
+        EstoqueResumo resumo = estoqueResumoRepository.findById(medicamento.getId()).orElseThrow();
+        assertThat(resumo.getQuantidadeTotal()).isEqualTo(4);
+        assertThat(resumo.getQuantidadeNaoVencida()).isEqualTo(1);
+        assertThat(estoqueService.medicamentoTemVencidos(medicamento.getId())).isTrue();
+        assertThat(estoqueService.verificarEstoqueDisponivelNaoVencido(medicamento.getId(), 2)).isFalse();
+        assertThatThrownBy(() -> vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 2)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("não vencido");
+    }
+
+    @Test
+    void quantidadeNaoVencidaDeOutroDiaSoEConhecidaSemLotesVencidos() {
+        LocalDate hoje = LocalDate.now();
+        EstoqueResumo resumo = new EstoqueResumo();
+        resumo.recalcular(List.of(lote(4, hoje.plusDays(2)), lote(6, hoje.plusDays(30))), hoje);
+
+        assertThat(resumo.quantidadeNaoVencidaEm(hoje.plusDays(2))).isEqualTo(10);
+        // O primeiro lote venceu depois do cálculo: é preciso somar os lotes de novo
+        assertThat(resumo.quantidadeNaoVencidaEm(hoje.plusDays(3))).isNull();
+        assertThat(resumo.possuiVencidos(hoje.plusDays(3))).isTrue();
+    }
+
+    private static MovimentacaoEstoqueRequestDTO movimentacao(Medicamento medicamento, int quantidade, LocalDate vencimento, String lote) {
+        MovimentacaoEstoqueRequestDTO request = new MovimentacaoEstoqueRequestDTO();
+        request.setMedicamentoId(medicamento.getId());
+        request.setQuantidade(quantidade);
+        request.setDataVencimento(vencimento);
+        request.setObservacao(lote);
+        return request;
+    }
+
+    private static Estoque lote(int quantidade, LocalDate vencimento) {
+        Estoque estoque = new Estoque();
+        estoque.setQuantidadeDisponivel(quantidade);
+        estoque.setDataVencimento(vencimento);
+        return estoque;
+    }
+}
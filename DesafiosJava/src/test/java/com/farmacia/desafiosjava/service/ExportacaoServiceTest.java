@@ -0,0 +1,121 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.domain.MovimentacaoEstoque;
+import com.farmacia.desafiosjava.dto.ItemVendaExportacaoDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoExportacaoDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ExportacaoService.class, DadosTeste.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExportacaoServiceTest {
+
+    // Fora da faixa usada pela sequence nos outros testes
+    private static final AtomicLong IDS = new AtomicLong(20_000_000);
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void itensDoPeriodoSaemEmOrdemDeVendaComOSubtotal() {
+        // Datas distantes para não misturar com as vendas criadas pelos outros testes
+        LocalDate dia = LocalDate.of(2001, 3, 10);
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        inserirVenda(cliente, dia.minusDays(1).atTime(23, 59), medicamento, 1);
+        long segunda = inserirVenda(cliente, dia.plusDays(1).atTime(8, 0), medicamento, 3, 1);
+        long primeira = inserirVenda(cliente, dia.atStartOfDay(), medicamento, 2);
+        inserirVenda(cliente, dia.plusDays(2).atStartOfDay(), medicamento, 1);
+
+        List<ItemVendaExportacaoDTO> itens = new ArrayList<>();
+        exportacaoService.exportarItensVenda(dia, dia.plusDays(1), itens::add);
+
+        assertThat(itens)
+                .extracting(ItemVendaExportacaoDTO::vendaId, ItemVendaExportacaoDTO::quantidade, ItemVendaExportacaoDTO::medicamentoNome)
+                .containsExactly(
+                        tuple(primeira, 2, medicamento.getNome()),
+                        tuple(segunda, 3, medicamento.getNome()),
+                        tuple(segunda, 1, medicamento.getNome()));
+        assertThat(itens.getFirst().valores().getLast()).isEqualTo(new BigDecimal("25.00"));
+        assertThat(itens.getFirst().valores()).hasSameSizeAs(ItemVendaExportacaoDTO.COLUNAS);
+    }
+
+    @Test
+    void movimentacoesDoPeriodoSaoExportadas() {
+        LocalDate dia = LocalDate.of(2001, 6, 20);
+        Medicamento medicamento = dados.criarMedicamento();
+        inserirMovimentacao(medicamento, dia.minusDays(1).atTime(23, 59));
+        long dentro = inserirMovimentacao(medicamento, dia.atTime(12, 0));
+        inserirMovimentacao(medicamento, dia.plusDays(1).atStartOfDay());
+
+        List<MovimentacaoExportacaoDTO> movimentacoes = new ArrayList<>();
+        exportacaoService.exportarMovimentacoes(dia, dia, movimentacoes::add);
+
+        assertThat(movimentacoes)
+                .extracting(MovimentacaoExportacaoDTO::id, MovimentacaoExportacaoDTO::tipo, MovimentacaoExportacaoDTO::medicamentoNome)
+                .containsExactly(tuple(dentro, MovimentacaoEstoque.TipoMovimentacao.ENTRADA, medicamento.getNome()));
+        // Observação nula vira campo vazio, não quebra a linha
+        assertThat(movimentacoes.getFirst().valores()).hasSameSizeAs(MovimentacaoExportacaoDTO.COLUNAS).containsNull();
+    }
+
+    @Test
+    void periodoInvalidoERecusado() {
+        LocalDate hoje = LocalDate.now();
+        assertThatThrownBy(() -> exportacaoService.exportarItensVenda(hoje, hoje.minusDays(1), item -> { }))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> exportacaoService.exportarMovimentacoes(null, hoje, movimentacao -> { }))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private long inserirVenda(Cliente cliente, LocalDateTime dataHora, Medicamento medicamento, int... quantidades) {
+        long venda = IDS.incrementAndGet();
+        int unidades = 0;
+        for (int quantidade : quantidades) {
+            unidades += quantidade;
+        }
+        jdbcTemplate.update("INSERT INTO vendas (id, cliente_id, data_hora, valor_total) VALUES (?, ?, ?, ?)",
+                venda, cliente.getId(), dataHora, new BigDecimal("12.50").multiply(BigDecimal.valueOf(unidades)));
+        for (int quantidade : quantidades) {
+            jdbcTemplate.update("INSERT INTO itens_venda (id, venda_id, medicamento_id, quantidade, preco_unitario) " +
+                    "VALUES (?, ?, ?, ?, 12.50)", IDS.incrementAndGet(), venda, medicamento.getId(), quantidade);
+        }
+        return venda;
+    }
+
+    private long inserirMovimentacao(Medicamento medicamento, LocalDateTime horario) {
+        long id = IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO movimentacoes_estoque (id, medicamento_id, tipo, quantidade, data_movimentacao) " +
+                "VALUES (?, ?, 'ENTRADA', 1, ?)", id, medicamento.getId(), horario);
+        return id;
+    }
+}
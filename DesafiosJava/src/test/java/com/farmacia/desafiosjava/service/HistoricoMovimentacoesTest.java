@@ -0,0 +1,123 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.HistoricoMovimentacoesDTO;
+import com.farmacia.desafiosjava.dto.MovimentacaoEstoqueResponseDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({EstoqueService.class, SimpleMeterRegistry.class, DadosTeste.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HistoricoMovimentacoesTest {
+
+    // Fora da faixa usada pela sequence nos outros testes
+    private static final AtomicLong IDS = new AtomicLong(10_000_000);
+
+    @Autowired
+    private EstoqueService estoqueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void paginasPercorremOHistoricoDoMaisRecenteAoMaisAntigoSemRepetir() {
+        Medicamento medicamento = dados.criarMedicamento();
+        LocalDateTime base = LocalDate.now().atTime(9, 0);
+        List<Long> esperadas = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Duas movimentações por horário: o id desempata a ordem
+            LocalDateTime horario = base.minusHours(i / 2);
+            esperadas.add(inserirMovimentacao(medicamento, horario));
+        }
+        esperadas.sort((a, b) -> {
+            int porHorario = horarioDe(b).compareTo(horarioDe(a));
+            return porHorario != 0 ? porHorario : Long.compare(b, a);
+        });
+
+        List<Long> lidas = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            HistoricoMovimentacoesDTO pagina = estoqueService.buscarMovimentacoes(medicamento.getId(), null, null, cursor, 3);
+            pagina.getItens().forEach(movimentacao -> lidas.add(movimentacao.getId()));
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(lidas).containsExactlyElementsOf(esperadas);
+        assertThat(paginas).isEqualTo(3);
+    }
+
+    @Test
+    void somenteMovimentacoesDoPeriodoSaoRetornadas() {
+        Medicamento medicamento = dados.criarMedicamento();
+        LocalDate dia = LocalDate.now().minusDays(60);
+        inserirMovimentacao(medicamento, dia.minusDays(1).atTime(23, 59));
+        long primeira = inserirMovimentacao(medicamento, dia.atStartOfDay());
+        long ultima = inserirMovimentacao(medicamento, dia.plusDays(1).atTime(23, 59));
+        inserirMovimentacao(medicamento, dia.plusDays(2).atStartOfDay());
+
+        HistoricoMovimentacoesDTO historico = estoqueService.buscarMovimentacoes(medicamento.getId(), dia, dia.plusDays(1), null, 10);
+
+        assertThat(historico.getItens()).extracting(MovimentacaoEstoqueResponseDTO::getId).containsExactly(ultima, primeira);
+        assertThat(historico.getProximoCursor()).isNull();
+        // Sem datas, o histórico cobre só os últimos dias
+        assertThat(estoqueService.buscarMovimentacoes(medicamento.getId(), null, null, null, 10).getItens()).isEmpty();
+    }
+
+    @Test
+    void periodoInvalidoOuCursorMalformadoSaoRecusados() {
+        Long medicamentoId = dados.criarMedicamento().getId();
+        LocalDate hoje = LocalDate.now();
+
+        assertThatThrownBy(() -> estoqueService.buscarMovimentacoes(medicamentoId, hoje, hoje.minusDays(1), null, 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> estoqueService.buscarMovimentacoes(medicamentoId,
+                hoje.minusDays(EstoqueService.PERIODO_MAXIMO_DIAS), hoje, null, 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> estoqueService.buscarMovimentacoes(medicamentoId, null, null, "ontem", 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> estoqueService.buscarMovimentacoes(medicamentoId, null, null,
+                hoje.plusDays(5).atStartOfDay() + "_1", 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> estoqueService.buscarMovimentacoes(Long.MAX_VALUE, null, null, null, 10))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private long inserirMovimentacao(Medicamento medicamento, LocalDateTime horario) {
+        long id = IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO movimentacoes_estoque (id, medicamento_id, tipo, quantidade, data_movimentacao) " +
+                "VALUES (?, ?, 'ENTRADA', 1, ?)", id, medicamento.getId(), horario);
+        return id;
+    }
+
+    private LocalDateTime horarioDe(long movimentacao) {
+        return jdbcTemplate.queryForObject("SELECT data_movimentacao FROM movimentacoes_estoque WHERE id = ?",
+                LocalDateTime.class, movimentacao);
+    }
+}
@@ -0,0 +1,205 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.controller.VendaController;
+import com.farmacia.desafiosjava.domain.ChaveIdempotencia;
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.VendaRegistradaDTO;
+import com.farmacia.desafiosjava.dto.VendaRequestDTO;
+import com.farmacia.desafiosjava.dto.VendaResponseDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.ChaveIdempotenciaRepository;
+import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoVendasTeste.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotenciaVendaTest {
+
+    private static final String CAIXA = "caixa01@farmacia.com";
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private IdempotenciaVendaService idempotenciaVendaService;
+
+    @Autowired
+    private ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+
+    @Autowired
+    private EstoqueRepository estoqueRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void repeticaoDevolveAVendaGravadaSemBaixarOEstoqueDeNovo() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 10, LocalDate.now().plusDays(90));
+        VendaRequestDTO requisicao = DadosTeste.requisicao(cliente, List.of(medicamento), 3);
+        String chave = UUID.randomUUID().toString();
+        double repetidasAntes = repetidas();
+
+        // Pelo controller: a repetição é sinalizada no cabeçalho da resposta
+        VendaController controller = new VendaController(vendaService, null);
+        ResponseEntity<VendaResponseDTO> original = controller.criar(requisicao, chave, () -> CAIXA);
+        ResponseEntity<VendaResponseDTO> repeticao = controller.criar(requisicao, chave, () -> CAIXA);
+
+        assertThat(original.getHeaders().containsKey("Idempotent-Replayed")).isFalse();
+        assertThat(repeticao.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(repeticao.getBody()).isEqualTo(original.getBody());
+        assertThat(estoqueRepository.calcularQuantidadeTotal(medicamento.getId())).isEqualTo(7);
+        assertThat(vendaService.listarPorCliente(cliente.getId())).hasSize(1);
+        assertThat(repetidas()).isEqualTo(repetidasAntes + 1);
+
+        // A mesma chave de outro usuário é outra chave
+        VendaRegistradaDTO outroUsuario = vendaService.registrar(requisicao, "caixa02@farmacia.com", chave);
+        assertThat(outroUsuario.repetida()).isFalse();
+        assertThat(outroUsuario.venda().getId()).isNotEqualTo(original.getBody().getId());
+        assertThat(estoqueRepository.calcularQuantidadeTotal(medicamento.getId())).isEqualTo(4);
+    }
+
+    @Test
+    void mesmaChaveComOutraVendaOuInvalidaERecusada() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 10, LocalDate.now().plusDays(90));
+        String chave = UUID.randomUUID().toString();
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1), CAIXA, chave);
+
+        assertThatThrownBy(() -> vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 2), CAIXA, chave))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1), CAIXA, " "))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1), CAIXA,
+                "x".repeat(ChaveIdempotencia.TAMANHO_MAXIMO + 1)))
+                .isInstanceOf(BusinessException.class);
+        assertThat(estoqueRepository.calcularQuantidadeTotal(medicamento.getId())).isEqualTo(9);
+    }
+
+    @Test
+    void vendaRecusadaNaoConsomeAChave() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 2, LocalDate.now().plusDays(90));
+        VendaRequestDTO requisicao = DadosTeste.requisicao(cliente, List.of(medicamento), 5);
+        String chave = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> vendaService.criar(requisicao, CAIXA, chave)).isInstanceOf(BusinessException.class);
+        assertThat(chaveIdempotenciaRepository.findById(new ChaveIdempotencia.Chave(CAIXA, chave))).isEmpty();
+
+        dados.criarLote(medicamento, 10, LocalDate.now().plusDays(90));
+        vendaService.criar(requisicao, CAIXA, chave);
+        assertThat(estoqueRepository.calcularQuantidadeTotal(medicamento.getId())).isEqualTo(7);
+    }
+
+    @Test
+    void repeticoesSimultaneasRegistramUmaUnicaVenda() throws Exception {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 100, LocalDate.now().plusDays(90));
+        VendaRequestDTO requisicao = DadosTeste.requisicao(cliente, List.of(medicamento), 2);
+        String chave = UUID.randomUUID().toString();
+
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<VendaRegistradaDTO>> tentativas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tentativas.add(executor.submit(() -> {
+                largada.await();
+                return vendaService.registrar(requisicao, CAIXA, chave);
+            }));
+        }
+        largada.countDown();
+        List<Long> vendas = new ArrayList<>();
+        int repetidas = 0;
+        for (Future<VendaRegistradaDTO> tentativa : tentativas) {
+            VendaRegistradaDTO registrada = tentativa.get();
+            vendas.add(registrada.venda().getId());
+            repetidas += registrada.repetida() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(vendas).containsOnly(vendas.getFirst());
+        assertThat(repetidas).isEqualTo(7);
+        assertThat(estoqueRepository.calcularQuantidadeTotal(medicamento.getId())).isEqualTo(98);
+    }
+
+    @Test
+    void chaveVencidaRegistraNovaVendaMesmoAntesDaLimpeza() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 10, LocalDate.now().plusDays(90));
+        String chave = UUID.randomUUID().toString();
+        VendaResponseDTO original = vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1), CAIXA, chave);
+        ChaveIdempotencia registro = chaveIdempotenciaRepository.findById(new ChaveIdempotencia.Chave(CAIXA, chave)).orElseThrow();
+        registro.setExpiraEm(LocalDateTime.now().minusMinutes(1));
+        chaveIdempotenciaRepository.save(registro);
+
+        // Outra requisição com a chave vencida: nova venda, e a chave passa a valer para ela
+        VendaRegistradaDTO nova = vendaService.registrar(DadosTeste.requisicao(cliente, List.of(medicamento), 2), CAIXA, chave);
+
+        assertThat(nova.repetida()).isFalse();
+        assertThat(nova.venda().getId()).isNotEqualTo(original.getId());
+        assertThat(estoqueRepository.calcularQuantidadeTotal(medicamento.getId())).isEqualTo(7);
+        ChaveIdempotencia assumida = chaveIdempotenciaRepository.findById(new ChaveIdempotencia.Chave(CAIXA, chave)).orElseThrow();
+        assertThat(assumida.getVendaId()).isEqualTo(nova.venda().getId());
+        assertThat(assumida.getExpiraEm()).isAfter(LocalDateTime.now());
+        assertThat(vendaService.registrar(DadosTeste.requisicao(cliente, List.of(medicamento), 2), CAIXA, chave).repetida()).isTrue();
+    }
+
+    @Test
+    void chavesVencidasSaoRemovidas() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 10, LocalDate.now().plusDays(90));
+        String vencida = UUID.randomUUID().toString();
+        String valida = UUID.randomUUID().toString();
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1), CAIXA, vencida);
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1), CAIXA, valida);
+        ChaveIdempotencia registro = chaveIdempotenciaRepository.findById(new ChaveIdempotencia.Chave(CAIXA, vencida)).orElseThrow();
+        registro.setExpiraEm(LocalDateTime.now().minusMinutes(1));
+        chaveIdempotenciaRepository.save(registro);
+
+        assertThat(idempotenciaVendaService.removerExpiradas()).isPositive();
+
+        assertThat(chaveIdempotenciaRepository.findById(new ChaveIdempotencia.Chave(CAIXA, vencida))).isEmpty();
+        assertThat(chaveIdempotenciaRepository.findById(new ChaveIdempotencia.Chave(CAIXA, valida))).isPresent();
+    }
+
+    private double repetidas() {
+        return meterRegistry.find("farmacia.vendas").tag("resultado", "repetida").timers().stream()
+                .mapToDouble(timer -> timer.count())
+                .sum();
+    }
+}
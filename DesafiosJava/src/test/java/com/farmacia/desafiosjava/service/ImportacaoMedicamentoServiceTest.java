@@ -0,0 +1,166 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Categoria;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.ErroImportacaoDTO;
+import com.farmacia.desafiosjava.dto.ImportacaoMedicamentosResponseDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.CategoriaRepository;
+import com.farmacia.desafiosjava.repository.MedicamentoRepository;
+import com.farmacia.desafiosjava.util.StringUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ImportacaoMedicamentoService.class, JacksonAutoConfiguration.class, ValidationAutoConfiguration.class, DadosTeste.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImportacaoMedicamentoServiceTest {
+
+    @Autowired
+    private ImportacaoMedicamentoService importacaoService;
+
+    @Autowired
+    private MedicamentoRepository medicamentoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void csvImportaLinhasValidasERelataAsDemais() {
+        String sufixo = UUID.randomUUID().toString();
+        Categoria categoria = new Categoria();
+        categoria.setNome("Analgésicos " + sufixo);
+        categoria = categoriaRepository.save(categoria);
+        Medicamento existente = dados.criarMedicamento();
+
+        String csv = String.join("\n",
+                "nome;dosagem;preco;categoria;ativo",
+                "Dipirona " + sufixo + ";500mg;12,50;analgesicos " + sufixo + ";sim",
+                "\"Paracetamol; gotas " + sufixo + "\";200mg/ml;8.90;;",
+                "DIPIRONA " + sufixo + ";500mg;13,00;;",
+                existente.getNome() + ";" + existente.getDosagem() + ";10;;",
+                "Ibuprofeno " + sufixo + ";400mg;abc;;",
+                "Ibuprofeno " + sufixo + ";600mg;0;;",
+                "",
+                "Nimesulida " + sufixo + ";100mg;5;Inexistente " + sufixo + ";");
+
+        ImportacaoMedicamentosResponseDTO resultado = importacaoService.importarCsv(entrada(csv));
+
+        assertThat(resultado.getLinhasProcessadas()).isEqualTo(7);
+        assertThat(resultado.getImportados()).isEqualTo(2);
+        assertThat(resultado.getErros()).extracting(ErroImportacaoDTO::linha).containsExactly(4L, 5L, 6L, 7L, 9L);
+        assertThat(resultado.getErros().get(0).mensagem()).contains("repetido no arquivo");
+        assertThat(resultado.getErros().get(1).mensagem()).contains("Já existe");
+        assertThat(resultado.getErros().get(2).mensagem()).contains("Preço inválido");
+        assertThat(resultado.getErros().get(3).mensagem()).contains("preco");
+        assertThat(resultado.getErros().get(4).mensagem()).contains("Categoria não encontrada");
+
+        Medicamento dipirona = medicamentoRepository
+                .findByNomeNormalizadoAndDosagem(StringUtils.normalizeString("Dipirona " + sufixo), "500mg").orElseThrow();
+        assertThat(dipirona.getPreco()).isEqualByComparingTo("12.50");
+        assertThat(dipirona.getCategoria().getId()).isEqualTo(categoria.getId());
+        assertThat(medicamentoRepository.findByNomeNormalizadoAndDosagem(
+                StringUtils.normalizeString("Paracetamol; gotas " + sufixo), "200mg/ml")).isPresent();
+    }
+
+    @Test
+    void csvAceitaPrecoComSeparadorDeMilharEmPortugues() {
+        String sufixo = UUID.randomUUID().toString();
+        String csv = String.join("\n",
+                "nome;dosagem;preco",
+                "Insulina " + sufixo + ";100UI/ml;1.234,56",
+                "Insulina " + sufixo + ";300UI/ml;1,234.56");
+
+        ImportacaoMedicamentosResponseDTO resultado = importacaoService.importarCsv(entrada(csv));
+
+        assertThat(resultado.getImportados()).isEqualTo(1);
+        assertThat(resultado.getErros()).singleElement().satisfies(erro -> {
+            assertThat(erro.linha()).isEqualTo(3);
+            assertThat(erro.mensagem()).contains("Preço inválido");
+        });
+        assertThat(medicamentoRepository.findByNomeNormalizadoAndDosagem(
+                StringUtils.normalizeString("Insulina " + sufixo), "100UI/ml").orElseThrow().getPreco())
+                .isEqualByComparingTo("1234.56");
+    }
+
+    @Test
+    void ndjsonRelataLinhasMalformadas() {
+        String sufixo = UUID.randomUUID().toString();
+        String ndjson = String.join("\n",
+                "{\"nome\":\"Amoxicilina " + sufixo + "\",\"dosagem\":\"500mg\",\"preco\":25.00}",
+                "{\"nome\":\"Loratadina " + sufixo + "\",",
+                "{\"nome\":\"Loratadina " + sufixo + "\",\"dosagem\":\"10mg\",\"preco\":9.5,\"campoDesconhecido\":1}");
+
+        ImportacaoMedicamentosResponseDTO resultado = importacaoService.importarNdjson(entrada(ndjson));
+
+        assertThat(resultado.getImportados()).isEqualTo(2);
+        assertThat(resultado.getErros()).singleElement().satisfies(erro -> {
+            assertThat(erro.linha()).isEqualTo(2);
+            assertThat(erro.mensagem()).startsWith("JSON inválido");
+        });
+    }
+
+    @Test
+    void insertsVaoEmBatchesComIdsReservadosEmBlocos() {
+        String sufixo = UUID.randomUUID().toString();
+        StringBuilder csv = new StringBuilder("nome,dosagem,preco\n");
+        int linhas = 120;
+        for (int i = 0; i < linhas; i++) {
+            csv.append("Produto ").append(i).append(' ').append(sufixo).append(",10mg,1.00\n");
+        }
+
+        statistics.clear();
+        ImportacaoMedicamentosResponseDTO resultado = importacaoService.importarCsv(entrada(csv.toString()));
+
+        assertThat(resultado.getImportados()).isEqualTo(linhas);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(linhas);
+        // categorias + chaves existentes + até 4 nextval (blocos de 50) + 3 batches de INSERT
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void csvSemColunasObrigatoriasERecusado() {
+        assertThatThrownBy(() -> importacaoService.importarCsv(entrada("nome,preco\nDipirona,10")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("dosagem");
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,69 @@
+package com.farmacia.desafiosjava.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceTrigramasTest {
+
+    private static final double SIMILARIDADE = 0.5;
+
+    private final IndiceTrigramas indice = IndiceTrigramas.construir(List.of(
+            IndiceTrigramas.documento(1, "dipirona sodica", "500mg", "analgesico e antitermico"),
+            IndiceTrigramas.documento(2, "paracetamol", "750mg", "analgesico para dor e febre"),
+            IndiceTrigramas.documento(3, "novalgina", "1g", "contem dipirona monoidratada"),
+            IndiceTrigramas.documento(4, "acido acetilsalicilico", "100mg", "antiagregante plaquetario"),
+            IndiceTrigramas.documento(5, "dipirona sodica", "1g", null)));
+
+    @Test
+    void toleraErroDeDigitacao() {
+        assertThat(indice.buscar("dipirna", 10, SIMILARIDADE)).startsWith(1L, 5L).doesNotContain(2L, 4L);
+        assertThat(indice.buscar("paracetamool", 10, SIMILARIDADE)).containsExactly(2L);
+    }
+
+    @Test
+    void nomeQueComecaComOTermoVemAntesDaDescricao() {
+        // O medicamento 3 só cita dipirona na descrição, que pesa metade do nome
+        assertThat(indice.buscar("dipirona", 10, SIMILARIDADE)).containsExactly(1L, 5L, 3L);
+    }
+
+    @Test
+    void dosagemFazParteDoNome() {
+        assertThat(indice.buscar("dipirona 1g", 10, SIMILARIDADE)).startsWith(5L);
+    }
+
+    @Test
+    void buscaPorPalavraDoMeioDoNome() {
+        assertThat(indice.buscar("acetilsalicilico", 10, SIMILARIDADE)).containsExactly(4L);
+    }
+
+    @Test
+    void respeitaOLimite() {
+        assertThat(indice.buscar("dipirona", 2, SIMILARIDADE)).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void alteracoesSubstituemERemovemDocumentosDaConstrucao() {
+        IndiceTrigramas alterado = indice.comAlteracoes(Set.of(1L, 2L, 6L), List.of(
+                IndiceTrigramas.documento(1, "metamizol", "500mg", null),
+                IndiceTrigramas.documento(6, "dipirona gotas", "500mg/ml", null)));
+
+        assertThat(alterado.buscar("dipirona", 10, SIMILARIDADE)).containsExactly(6L, 5L, 3L);
+        assertThat(alterado.buscar("metamizol", 10, SIMILARIDADE)).containsExactly(1L);
+        assertThat(alterado.buscar("paracetamol", 10, SIMILARIDADE)).isEmpty();
+        assertThat(alterado.alteracoes()).isEqualTo(3);
+        // A versão anterior continua valendo para quem ainda a usa
+        assertThat(indice.buscar("paracetamol", 10, SIMILARIDADE)).containsExactly(2L);
+    }
+
+    @Test
+    void trigramasSeguemOPgTrgm() {
+        // pg_trgm: show_trgm('cat') = {"  c"," ca","at ","cat"}
+        assertThat(IndiceTrigramas.trigramas("cat")).hasSize(4);
+        assertThat(IndiceTrigramas.trigramas("cat, cat")).hasSize(4);
+        assertThat(IndiceTrigramas.trigramas(" - ")).isEmpty();
+    }
+}
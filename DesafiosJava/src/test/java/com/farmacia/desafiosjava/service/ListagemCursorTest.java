@@ -0,0 +1,87 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.PaginaCursorDTO;
+import com.farmacia.desafiosjava.dto.VendaResponseDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoVendasTeste.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ListagemCursorTest {
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void paginasPorCursorPercorremTodasAsVendasSemRepetir() {
+        List<Long> criadas = criarVendas(7);
+        long antesDaPrimeira = criadas.getFirst() - 1;
+
+        List<Long> lidas = new ArrayList<>();
+        Long cursor = antesDaPrimeira;
+        int paginas = 0;
+        do {
+            PaginaCursorDTO<VendaResponseDTO> pagina = vendaService.listarPagina(cursor, 3);
+            pagina.getItens().forEach(venda -> lidas.add(venda.getId()));
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        // Outros testes podem ter criado vendas depois destas; as nossas vêm primeiro, em ordem
+        assertThat(lidas).startsWith(criadas.toArray(Long[]::new)).doesNotHaveDuplicates().isSorted();
+        assertThat(paginas).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void exportacaoEntregaTodasAsVendasComItens() {
+        List<Long> criadas = criarVendas(3);
+
+        List<VendaResponseDTO> exportadas = new ArrayList<>();
+        vendaService.exportarTodas(exportadas::add);
+
+        assertThat(exportadas).extracting(VendaResponseDTO::getId).containsAll(criadas).isSorted();
+        assertThat(exportadas).filteredOn(venda -> criadas.contains(venda.getId()))
+                .allSatisfy(venda -> assertThat(venda.getItens()).hasSize(1));
+    }
+
+    @Test
+    void limiteForaDaFaixaERecusado() {
+        assertThatThrownBy(() -> vendaService.listarPagina(null, 0)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> vendaService.listarPagina(null, ListagemStreaming.LIMITE_MAXIMO + 1))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private List<Long> criarVendas(int quantidade) {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, quantidade, LocalDate.now().plusDays(30));
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            ids.add(vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 1)).getId());
+        }
+        return ids;
+    }
+}
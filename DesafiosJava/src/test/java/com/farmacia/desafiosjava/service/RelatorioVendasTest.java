@@ -0,0 +1,182 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Categoria;
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.domain.VendaAgregada;
+import com.farmacia.desafiosjava.domain.VendaAgregada.Dimensao;
+import com.farmacia.desafiosjava.domain.VendaAgregada.Granularidade;
+import com.farmacia.desafiosjava.dto.ItemVendaDTO;
+import com.farmacia.desafiosjava.dto.PontoSerieVendasDTO;
+import com.farmacia.desafiosjava.dto.RankingVendasDTO;
+import com.farmacia.desafiosjava.dto.ResumoVendasDTO;
+import com.farmacia.desafiosjava.dto.VendaRequestDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.VendaAgregadaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoVendasTeste.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RelatorioVendasTest {
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private RelatorioVendasService relatorioVendasService;
+
+    @Autowired
+    private VendaAgregadaRepository vendaAgregadaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Test
+    void vendaESomadaNoTotalNaCategoriaENoMedicamento() {
+        LocalDate hoje = LocalDate.now();
+        Cliente cliente = dados.criarCliente();
+        Categoria categoria = dados.criarCategoria(null, null);
+        Medicamento dipirona = comEstoque(dados.criarMedicamento(categoria));
+        Medicamento paracetamol = comEstoque(dados.criarMedicamento(categoria));
+        ResumoVendasDTO totalAntes = relatorioVendasService.resumo(hoje, hoje, null, null);
+
+        // 12,50 cada: 62,50 na primeira venda (dipirona em dois itens) e 25,00 na segunda
+        vendaService.criar(venda(cliente, item(dipirona, 1), item(paracetamol, 2), item(dipirona, 2)));
+        vendaService.criar(venda(cliente, item(paracetamol, 2)));
+
+        ResumoVendasDTO total = relatorioVendasService.resumo(hoje, hoje, null, null);
+        assertThat(total.getVendas()).isEqualTo(totalAntes.getVendas() + 2);
+        assertThat(total.getReceita().subtract(totalAntes.getReceita())).isEqualByComparingTo("87.50");
+
+        ResumoVendasDTO daCategoria = relatorioVendasService.resumo(hoje, hoje, null, categoria.getId());
+        assertThat(daCategoria.getVendas()).isEqualTo(2);
+        assertThat(daCategoria.getUnidades()).isEqualTo(7);
+        assertThat(daCategoria.getTicketMedio()).isEqualByComparingTo("43.75");
+
+        ResumoVendasDTO daDipirona = relatorioVendasService.resumo(hoje, hoje, dipirona.getId(), null);
+        assertThat(daDipirona.getVendas()).isEqualTo(1);
+        assertThat(daDipirona.getUnidades()).isEqualTo(3);
+        assertThat(daDipirona.getReceita()).isEqualByComparingTo("37.50");
+
+        List<PontoSerieVendasDTO> porHora = relatorioVendasService.serie(hoje, hoje, Granularidade.HORA, paracetamol.getId(), null);
+        assertThat(porHora).extracting(PontoSerieVendasDTO::getUnidades).containsOnly(4L).hasSizeLessThanOrEqualTo(2);
+        assertThat(relatorioVendasService.rankingMedicamentos(hoje, hoje, 100))
+                .filteredOn(linha -> linha.getId().equals(paracetamol.getId()))
+                .extracting(RankingVendasDTO::getNome, RankingVendasDTO::getVendas, RankingVendasDTO::getUnidades)
+                .containsExactly(tuple(paracetamol.getNome(), 2L, 4L));
+    }
+
+    @Test
+    void periodoLongoLeMesesInteirosEDiasNasPontas() {
+        Medicamento medicamento = dados.criarMedicamento();
+        // Janeiro começa no meio do período: conta o dia 31, não o mês. Fevereiro conta inteiro; março até o dia 5
+        acumular(medicamento, Granularidade.DIA, LocalDate.of(2024, 1, 10), "1.00");
+        acumular(medicamento, Granularidade.DIA, LocalDate.of(2024, 1, 31), "2.00");
+        acumular(medicamento, Granularidade.MES, LocalDate.of(2024, 1, 1), "100.00");
+        acumular(medicamento, Granularidade.MES, LocalDate.of(2024, 2, 1), "40.00");
+        acumular(medicamento, Granularidade.DIA, LocalDate.of(2024, 2, 20), "1000.00");
+        acumular(medicamento, Granularidade.DIA, LocalDate.of(2024, 3, 5), "8.00");
+        acumular(medicamento, Granularidade.DIA, LocalDate.of(2024, 3, 6), "16.00");
+        acumular(medicamento, Granularidade.MES, LocalDate.of(2024, 3, 1), "200.00");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ResumoVendasDTO resumo = relatorioVendasService.resumo(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 5), medicamento.getId(), null);
+
+        assertThat(resumo.getReceita()).isEqualByComparingTo("50.00");
+        // Existência do medicamento e uma consulta às linhas agregadas
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        // Sem nenhum mês inteiro, o período todo é lido por dia
+        assertThat(relatorioVendasService.resumo(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 31), medicamento.getId(), null)
+                .getReceita()).isEqualByComparingTo("3.00");
+        assertThat(relatorioVendasService.resumo(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31), medicamento.getId(), null)
+                .getReceita()).isEqualByComparingTo("340.00");
+    }
+
+    @Test
+    void reconstrucaoChegaAosMesmosTotaisQueAsVendas() {
+        LocalDate hoje = LocalDate.now();
+        Cliente cliente = dados.criarCliente();
+        Medicamento semCategoria = comEstoque(dados.criarMedicamento());
+        Medicamento comCategoria = comEstoque(dados.criarMedicamento(dados.criarCategoria(null, null)));
+        for (int i = 1; i <= 10; i++) {
+            vendaService.criar(venda(cliente, item(semCategoria, i), item(comCategoria, 1)));
+        }
+        ResumoVendasDTO total = relatorioVendasService.resumo(hoje, hoje, null, null);
+        List<RankingVendasDTO> medicamentos = relatorioVendasService.rankingMedicamentos(hoje, hoje, 100);
+        List<RankingVendasDTO> categorias = relatorioVendasService.rankingCategorias(hoje, hoje, 100);
+        List<PontoSerieVendasDTO> horas = relatorioVendasService.serie(hoje, hoje, Granularidade.HORA, null, null);
+
+        YearMonth mes = YearMonth.from(hoje);
+        vendaAgregadaRepository.reconstruir(mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay());
+
+        assertThat(relatorioVendasService.resumo(hoje, hoje, null, null)).isEqualTo(total);
+        assertThat(relatorioVendasService.rankingMedicamentos(hoje, hoje, 100)).isEqualTo(medicamentos);
+        assertThat(relatorioVendasService.rankingCategorias(hoje, hoje, 100)).isEqualTo(categorias);
+        assertThat(relatorioVendasService.serie(hoje, hoje, Granularidade.HORA, null, null)).isEqualTo(horas);
+        assertThat(relatorioVendasService.serie(hoje, hoje, Granularidade.MES, null, null))
+                .extracting(PontoSerieVendasDTO::getVendas).containsExactly(total.getVendas());
+    }
+
+    @Test
+    void parametrosInvalidosSaoRecusados() {
+        LocalDate hoje = LocalDate.now();
+        assertThatThrownBy(() -> relatorioVendasService.resumo(hoje, hoje.minusDays(1), null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> relatorioVendasService.resumo(hoje, hoje, 1L, 1L))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> relatorioVendasService.serie(hoje.minusDays(31), hoje, Granularidade.HORA, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> relatorioVendasService.rankingMedicamentos(hoje, hoje, RelatorioVendasService.RANKING_MAXIMO + 1))
+                .isInstanceOf(BusinessException.class);
+        // O mês corrente é mantido a cada venda
+        assertThatThrownBy(() -> relatorioVendasService.reconstruir(YearMonth.now(), YearMonth.now()))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private void acumular(Medicamento medicamento, Granularidade granularidade, LocalDate dia, String receita) {
+        LocalDateTime periodo = granularidade.inicio(dia.atStartOfDay());
+        vendaAgregadaRepository.acumular(List.of(new VendaAgregada(Dimensao.MEDICAMENTO, medicamento.getId(), granularidade,
+                periodo, (short) 0, 1, 1L, new BigDecimal(receita))));
+    }
+
+    private Medicamento comEstoque(Medicamento medicamento) {
+        dados.criarLote(medicamento, 100, LocalDate.now().plusDays(90));
+        return medicamento;
+    }
+
+    private static ItemVendaDTO item(Medicamento medicamento, int quantidade) {
+        return new ItemVendaDTO(medicamento.getId(), quantidade);
+    }
+
+    private static VendaRequestDTO venda(Cliente cliente, ItemVendaDTO... itens) {
+        return new VendaRequestDTO(cliente.getId(), List.of(itens));
+    }
+}
@@ -0,0 +1,184 @@
+package com.farmacia.desafiosjava.service;
+
+import com.farmacia.desafiosjava.domain.Cliente;
+import com.farmacia.desafiosjava.domain.Estoque;
+import com.farmacia.desafiosjava.domain.Medicamento;
+import com.farmacia.desafiosjava.dto.VendaResponseDTO;
+import com.farmacia.desafiosjava.exception.BusinessException;
+import com.farmacia.desafiosjava.repository.EstoqueRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoVendasTeste.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VendaServiceTest {
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private EstoqueRepository estoqueRepository;
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void vendaComMuitosItensUsaNumeroConstanteDeConsultas() {
+        Cliente cliente = dados.criarCliente();
+        List<Medicamento> medicamentos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Medicamento medicamento = dados.criarMedicamento();
+            dados.criarLote(medicamento, 100, LocalDate.now().plusMonths(6));
+            medicamentos.add(medicamento);
+        }
+
+        // A primeira compra do cliente cria o resumo dele; as medidas são de um cliente que já comprou
+        Medicamento primeiraCompra = dados.criarMedicamento();
+        dados.criarLote(primeiraCompra, 100, LocalDate.now().plusMonths(6));
+        executarVendaMedindo(cliente, List.of(primeiraCompra));
+
+        long consultasUmItem = executarVendaMedindo(cliente, medicamentos.subList(0, 1))[0];
+        long[] trintaItens = executarVendaMedindo(cliente, medicamentos);
+        long[] umItem = executarVendaMedindo(cliente, medicamentos.subList(0, 1));
+
+        // Consultas de leitura não dependem do tamanho da cesta
+        assertThat(trintaItens[0]).isEqualTo(consultasUmItem);
+        // INSERTs de itens e movimentações vão em batch: as linhas adicionais custam no máximo
+        // os nextval de um bloco de ids a mais por sequence, não um comando por linha
+        assertThat(trintaItens[1] - umItem[1]).isLessThanOrEqualTo(4L);
+    }
+
+    @Test
+    void vendaNaoConsomeLotesVencidos() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        Estoque vencido = dados.criarLote(medicamento, 5, LocalDate.now().minusDays(1));
+        Estoque valido = dados.criarLote(medicamento, 5, LocalDate.now().plusDays(30));
+
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 5));
+
+        assertThat(estoqueRepository.findById(vencido.getId()).orElseThrow().getQuantidadeDisponivel()).isEqualTo(5);
+        assertThat(estoqueRepository.findById(valido.getId()).orElseThrow().getQuantidadeDisponivel()).isZero();
+    }
+
+    @Test
+    void itensRepetidosDoMesmoMedicamentoSomamNaValidacaoDeEstoque() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        Estoque lote = dados.criarLote(medicamento, 5, LocalDate.now().plusDays(30));
+
+        assertThatThrownBy(() -> vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento, medicamento), 3)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Estoque insuficiente");
+
+        assertThat(estoqueRepository.findById(lote.getId()).orElseThrow().getQuantidadeDisponivel()).isEqualTo(5);
+    }
+
+    @Test
+    void metricasSeparamVendasAprovadasDasRecusadasPorMotivo() {
+        Cliente cliente = dados.criarCliente();
+        Medicamento medicamento = dados.criarMedicamento();
+        dados.criarLote(medicamento, 2, LocalDate.now().plusDays(10));
+        dados.criarLote(medicamento, 5, LocalDate.now().plusDays(30));
+        long aprovadas = contarVendas("aprovada", "nenhum");
+        long semEstoque = contarVendas("recusada", "estoque_insuficiente");
+
+        vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 4));
+        assertThatThrownBy(() -> vendaService.criar(DadosTeste.requisicao(cliente, List.of(medicamento), 4)))
+                .isInstanceOf(BusinessException.class);
+
+        assertThat(contarVendas("aprovada", "nenhum")).isEqualTo(aprovadas + 1);
+        assertThat(contarVendas("recusada", "estoque_insuficiente")).isEqualTo(semEstoque + 1);
+        // A venda aprovada esgotou o primeiro lote e tirou 2 unidades do segundo
+        assertThat(meterRegistry.get("farmacia.estoque.baixa.lotes").tag("operacao", "venda").summary().max()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void listagemDeVendasUsaDuasConsultasIndependenteDaQuantidade() {
+        Cliente poucas = clienteComVendas(2);
+        Cliente muitas = clienteComVendas(12);
+
+        statistics.clear();
+        List<VendaResponseDTO> vendasPoucas = vendaService.listarPorCliente(poucas.getId());
+        long statementsPoucas = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<VendaResponseDTO> vendasMuitas = vendaService.listarPorCliente(muitas.getId());
+        long statementsMuitas = statistics.getPrepareStatementCount();
+
+        assertThat(vendasPoucas).hasSize(2);
+        assertThat(vendasMuitas).hasSize(12).allSatisfy(venda -> {
+            assertThat(venda.getCliente().getId()).isEqualTo(muitas.getId());
+            assertThat(venda.getItens()).hasSize(3);
+        });
+        assertThat(statementsPoucas).isEqualTo(2);
+        assertThat(statementsMuitas).isEqualTo(2);
+
+        statistics.clear();
+        vendaService.listarPagina(vendasMuitas.getLast().getId() - 1, 10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private Cliente clienteComVendas(int quantidade) {
+        Cliente cliente = dados.criarCliente();
+        List<Medicamento> medicamentos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Medicamento medicamento = dados.criarMedicamento();
+            dados.criarLote(medicamento, quantidade, LocalDate.now().plusMonths(6));
+            medicamentos.add(medicamento);
+        }
+        for (int i = 0; i < quantidade; i++) {
+            vendaService.criar(DadosTeste.requisicao(cliente, medicamentos, 1));
+        }
+        return cliente;
+    }
+
+    /**
+     * @return consultas executadas e statements preparados durante a venda
+     */
+    private long[] executarVendaMedindo(Cliente cliente, List<Medicamento> medicamentos) {
+        statistics.clear();
+        vendaService.criar(DadosTeste.requisicao(cliente, medicamentos, 1));
+        return new long[]{statistics.getQueryExecutionCount(), statistics.getPrepareStatementCount()};
+    }
+
+    private long contarVendas(String resultado, String motivo) {
+        Timer timer = meterRegistry.find("farmacia.vendas").tags("resultado", resultado, "motivo", motivo).timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.farmacia.desafiosjava.util;
+
+import com.farmacia.desafiosjava.domain.MovimentacaoEstoque;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvUtilsTest {
+
+    @Test
+    void formataNumerosDatasEnumsENulos() throws IOException {
+        assertThat(linha(Arrays.asList(1L, new BigDecimal("1E+1"), LocalDateTime.of(2025, 1, 31, 9, 5, 0, 123_000_000),
+                MovimentacaoEstoque.TipoMovimentacao.VENDA, null, "Dipirona")))
+                .isEqualTo("1,10,2025-01-31 09:05:00,VENDA,,Dipirona\r\n");
+    }
+
+    @Test
+    void textosComSeparadorAspasOuQuebraDeLinhaVaoEntreAspas() throws IOException {
+        assertThat(linha(List.of("500mg, 10 comprimidos", "dito \"forte\"", "linha 1\nlinha 2")))
+                .isEqualTo("\"500mg, 10 comprimidos\",\"dito \"\"forte\"\"\",\"linha 1\nlinha 2\"\r\n");
+    }
+
+    @Test
+    void textoQueSeriaFormulaNaPlanilhaFicaComoTexto() throws IOException {
+        assertThat(linha(List.of("=HYPERLINK(\"x\")", "-1", "normal")))
+                .isEqualTo("\"'=HYPERLINK(\"\"x\"\")\",\"'-1\",normal\r\n");
+    }
+
+    private static String linha(List<?> valores) throws IOException {
+        StringWriter saida = new StringWriter();
+        CsvUtils.escreverLinha(saida, valores);
+        return saida.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.farmacia.desafiosjava.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringUtilsTest {
+
+    // Letras, acentos e espaços mais comuns, além de caracteres que forçam o caminho completo
+    private static final String ALFABETO = "aAzZ09 -./()%\t\n\u000B\f\r\u0001\u001F"
+            + "áàâãäéêíóôõúüçÁÀÂÃÄÉÊÍÓÔÕÚÜÇñÑßæÆøØœŒşŞğĞıİǅǈƒ"
+            + "\u0327\u0301\u00A0\u2003Σσςω日本💊";
+
+    @Test
+    void normalizaNomesDoCatalogo() {
+        assertThat(StringUtils.normalizeString("  Ácido   Acetilsalicílico  ")).isEqualTo("acido acetilsalicilico");
+        assertThat(StringUtils.normalizeString("Dipirona\tSódica")).isEqualTo("dipirona sodica");
+        assertThat(StringUtils.normalizeString("ANALGÉSICOS")).isEqualTo("analgesicos");
+        assertThat(StringUtils.normalizeString(null)).isNull();
+    }
+
+    @Test
+    void nomeJaNormalizadoNaoECopiado() {
+        String nome = "paracetamol 500mg";
+
+        assertThat(StringUtils.normalizeString(nome)).isSameAs(nome);
+    }
+
+    @Test
+    void equivalenteAImplementacaoOriginalParaEntradasAleatorias() {
+        Random random = new Random(20240611L);
+        for (int i = 0; i < 200_000; i++) {
+            String entrada = gerar(random, random.nextInt(24));
+            assertThat(StringUtils.normalizeString(entrada)).as(() -> "entrada " + escapar(entrada)).isEqualTo(original(entrada));
+        }
+    }
+
+    @Test
+    void equivalenteAImplementacaoOriginalParaCadaCaractereDaTabela() {
+        for (char c = 0; c < 0x300; c++) {
+            for (String entrada : new String[]{String.valueOf(c), "a" + c + "b", " " + c + " ", c + "\u0301"}) {
+                assertThat(StringUtils.normalizeString(entrada)).as(() -> "entrada " + escapar(entrada)).isEqualTo(original(entrada));
+            }
+        }
+    }
+
+    @Test
+    void respeitaLocalePadraoComRegrasPropriasDeMinusculas() {
+        Locale padrao = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            assertThat(StringUtils.normalizeString("İBUPROFENO XAROPE")).isEqualTo(original("İBUPROFENO XAROPE"));
+        } finally {
+            Locale.setDefault(padrao);
+        }
+    }
+
+    // Cópia da implementação anterior, usada como referência
+    private static String original(String input) {
+        String normalized = input.trim();
+        normalized = normalized.toLowerCase();
+        normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD);
+        normalized = normalized.replaceAll("\\p{M}", "");
+        normalized = normalized.replaceAll("\\s+", " ");
+        return normalized;
+    }
+
+    private static String gerar(Random random, int tamanho) {
+        StringBuilder sb = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            // Maioria ASCII, como nos nomes reais, para exercitar também a ausência de alterações
+            if (random.nextInt(4) > 0) {
+                sb.append((char) (' ' + random.nextInt(95)));
+            } else {
+                sb.append(ALFABETO.charAt(random.nextInt(ALFABETO.length())));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapar(String s) {
+        StringBuilder sb = new StringBuilder();
+        s.chars().forEach(c -> sb.append(c < 0x20 || c > 0x7E ? String.format("\\u%04X", c) : String.valueOf((char) c)));
+        return sb.toString();
+    }
+}